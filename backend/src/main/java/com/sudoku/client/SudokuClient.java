@@ -1,18 +1,34 @@
 package com.sudoku.client;
 
+import java.rmi.RemoteException;
 import java.rmi.registry.LocateRegistry;
+import java.rmi.server.UnicastRemoteObject;
 import java.util.Scanner;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import com.sudoku.model.Board;
+import com.sudoku.service.GameStatus;
 import com.sudoku.service.GameUpdate;
-import com.sudoku.service.ISudokuService;
+import com.sudoku.service.IGameListener;
+import com.sudoku.service.ISudokuServiceV2;
 
 public class SudokuClient {
-    private ISudokuService service;
+    private static final int MAX_UPDATES_PER_POLL = 32;
+    private static final long LONG_POLL_MS = 5000;
+    // Bastante por debajo del plazo del servidor para que no nos dé por caídos mientras
+    // se piensa un movimiento
+    private static final long HEARTBEAT_MS = 15_000;
+    private ISudokuServiceV2 service;
     private Scanner scanner = new Scanner(System.in);
     private int playerId;
     private AtomicBoolean inGame = new AtomicBoolean(false);
     private AtomicBoolean gameRunning = new AtomicBoolean(false);
+    private IGameListener listener;
+    // Se notifica con cada actualización recibida para no esperar a ciegas
+    private final Object updateSignal = new Object();
+    // Copia local del tablero; los MOVE_MADE llegan como movimientos sueltos
+    private volatile int[][] board;
+    private volatile int boardVersion = -1;
 
     public static void main(String[] args) {
         new SudokuClient().connect();
@@ -20,7 +36,7 @@ public class SudokuClient {
 
     public void connect() {
         try {
-            service = (ISudokuService) LocateRegistry.getRegistry("localhost", 1099).lookup("SudokuService");
+            service = (ISudokuServiceV2) LocateRegistry.getRegistry("localhost", 1099).lookup("SudokuService");
             System.out.println("Conectado al servidor RMI");
             showMenu();
         } catch (Exception e) {
@@ -62,32 +78,78 @@ public class SudokuClient {
     }
 
     private void joinMultiplayerGame() throws Exception {
-        playerId = service.joinGame();
+        // El servidor empuja las actualizaciones; si no se puede exportar el
+        // callback (por ejemplo detrás de un firewall) se usa polling
+        IGameListener callback = exportListener();
+        playerId = callback != null ? service.joinGame(callback) : service.joinGame();
         inGame.set(true);
         gameRunning.set(true);
+        startHeartbeat();
         System.out.println("Te has unido como jugador " + playerId);
 
         // Esperar a que se una otro jugador
-        while (!service.isGameReady()) {
+        while (!service.isGameReady(playerId)) {
             System.out.println("Esperando otro jugador...");
-            Thread.sleep(1000);
+            waitForUpdate(1000);
         }
 
         System.out.println("\n¡Juego iniciado! Eres el jugador " + playerId);
 
-        // Iniciar thread de actualizaciones y comenzar juego
-        new Thread(this::handleUpdates).start();
+        if (callback == null) {
+            // Iniciar thread de actualizaciones
+            new Thread(this::handleUpdates).start();
+        }
         playGame();
     }
 
+    private void startHeartbeat() {
+        Thread heartbeat = new Thread(() -> {
+            try {
+                while (inGame.get()) {
+                    service.heartbeat(playerId);
+                    Thread.sleep(HEARTBEAT_MS);
+                }
+            } catch (Exception e) {
+                System.err.println("Error en el heartbeat: " + e.getMessage());
+            }
+        }, "heartbeat");
+        heartbeat.setDaemon(true);
+        heartbeat.start();
+    }
+
+    private IGameListener exportListener() {
+        if (listener != null) return listener;
+        try {
+            listener = (IGameListener) UnicastRemoteObject.exportObject(new UpdateListener(), 0);
+        } catch (RemoteException e) {
+            System.err.println("No se pudo registrar el callback, se usará polling: " + e.getMessage());
+        }
+        return listener;
+    }
+
+    // Callback que el servidor invoca con cada actualización de la partida
+    private class UpdateListener implements IGameListener {
+        @Override
+        public void onUpdate(GameUpdate update) {
+            if (gameRunning.get()) {
+                processUpdate(update);
+            }
+        }
+    }
+
+    private void waitForUpdate(long timeoutMillis) throws InterruptedException {
+        synchronized (updateSignal) {
+            updateSignal.wait(timeoutMillis);
+        }
+    }
+
     private void handleUpdates() {
         try {
             while (gameRunning.get()) {
-                GameUpdate update = service.getUpdate(playerId);
-                if (update != null && !"NO_UPDATE".equals(update.type)) {
+                // Long-poll: una llamada trae todas las actualizaciones pendientes
+                for (GameUpdate update : service.getUpdates(playerId, MAX_UPDATES_PER_POLL, LONG_POLL_MS)) {
                     processUpdate(update);
                 }
-                Thread.sleep(100);
             }
         } catch (Exception e) {
             System.err.println("Error en actualizaciones: " + e.getMessage());
@@ -99,11 +161,15 @@ public class SudokuClient {
         try {
             switch (update.type) {
                 case "MOVE_MADE":
-                    if (update.board != null) {
-                        displayBoard(update.board);
+                    if (applyUpdate(update)) {
+                        displayBoard(board);
                         System.out.println(service.getGameStatus(playerId));
                     }
                     break;
+                case "GAME_START":
+                case "RESYNC":
+                    applyUpdate(update);
+                    break;
                 case "GAME_OVER":
                     if (update.message != null) {
                         int winnerId = Integer.parseInt(update.message.split(":")[1]);
@@ -121,6 +187,34 @@ public class SudokuClient {
         } catch (Exception e) {
             System.err.println("Error procesando actualización: " + e.getMessage());
         }
+        synchronized (updateSignal) {
+            updateSignal.notifyAll();
+        }
+    }
+
+    // Aplica un tablero completo o un movimiento. Si falta algún movimiento intermedio
+    // pide el tablero completo. Devuelve false si la actualización ya estaba aplicada.
+    private synchronized boolean applyUpdate(GameUpdate update) throws Exception {
+        if (update.isSnapshot()) {
+            setBoard(update.board, update.boardVersion);
+            return true;
+        }
+        if (update.boardVersion <= boardVersion) return false;
+        if (board != null && update.boardVersion == boardVersion + 1) {
+            board[update.row][update.col] = update.value;
+            boardVersion = update.boardVersion;
+        } else {
+            GameStatus status = service.getStatus(playerId, -1);
+            setBoard(status.board, status.boardVersion);
+        }
+        return true;
+    }
+
+    private synchronized void setBoard(Board newBoard, int version) {
+        if (newBoard != null && version >= boardVersion) {
+            board = newBoard.toArray();
+            boardVersion = version;
+        }
     }
 
     private void endGame() {
@@ -130,15 +224,27 @@ public class SudokuClient {
 
     private void playGame() {
         try {
-            displayBoard(service.getCurrentBoard());
+            boolean boardShown = false;
 
             while (gameRunning.get()) {
-                System.out.println("\n" + service.getGameStatus(playerId));
+                // Estado, turno y tablero (solo si cambió) en una sola llamada
+                GameStatus status = service.getStatus(playerId, boardVersion);
+                setBoard(status.board, status.boardVersion);
+                if (!boardShown && board != null) {
+                    displayBoard(board);
+                    boardShown = true;
+                }
+                if (!GameStatus.PLAYING.equals(status.state)) {
+                    Thread.sleep(1000);
+                    continue;
+                }
 
-                if (service.getCurrentPlayerId() == playerId) {
+                if (status.currentPlayerId == playerId) {
+                    System.out.println("\nEs tu turno");
                     makeMove();
                 } else {
-                    Thread.sleep(5000); // Esperar menos tiempo para mejor respuesta
+                    System.out.println("\n📄🔢 Esperando al otro jugador...");
+                    waitForUpdate(5000); // Despierta en cuanto llega una actualización
                 }
             }
         } catch (Exception e) {
@@ -0,0 +1,98 @@
+package com.sudoku.model;
+
+// Backtracking clásico: primera celda vacía y comprobación lineal de cada candidato.
+// Se conserva como referencia para comparar con ConstraintPropagationSolver.
+public class BacktrackingSudokuSolver implements SudokuSolver {
+
+    @Override
+    public boolean solve(int[][] board) {
+        return solveSudoku(board, board.length);
+    }
+
+    @Override
+    public int countSolutions(int[][] board, int limit) {
+        int size = board.length;
+        int[][] copy = new int[size][];
+        for (int row = 0; row < size; row++) {
+            copy[row] = board[row].clone();
+        }
+        return countSolutions(copy, size, limit);
+    }
+
+    private static int countSolutions(int[][] board, int size, int limit) {
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                if (board[row][col] != 0) continue;
+                int count = 0;
+                for (int num = 1; num <= size && count < limit; num++) {
+                    if (isSafe(board, row, col, num, size)) {
+                        board[row][col] = num;
+                        count += countSolutions(board, size, limit - count);
+                        board[row][col] = 0;
+                    }
+                }
+                return count;
+            }
+        }
+        return 1;
+    }
+
+    private static boolean solveSudoku(int[][] board, int size) {
+        int row = -1, col = -1;
+        boolean isEmpty = false;
+        
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (board[i][j] == 0) {
+                    row = i;
+                    col = j;
+                    isEmpty = true;
+                    break;
+                }
+            }
+            if (isEmpty) break;
+        }
+
+        if (!isEmpty) return true;
+
+        for (int num = 1; num <= size; num++) {
+            if (isSafe(board, row, col, num, size)) {
+                board[row][col] = num;
+                if (solveSudoku(board, size)) return true;
+                board[row][col] = 0;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSafe(int[][] board, int row, int col, int num, int size) {
+        return !usedInRow(board, row, num, size) &&
+               !usedInCol(board, col, num, size) &&
+               !usedInBox(board, row - row % (int)Math.sqrt(size), 
+                         col - col % (int)Math.sqrt(size), num, size);
+    }
+
+    private static boolean usedInRow(int[][] board, int row, int num, int size) {
+        for (int col = 0; col < size; col++) {
+            if (board[row][col] == num) return true;
+        }
+        return false;
+    }
+
+    private static boolean usedInCol(int[][] board, int col, int num, int size) {
+        for (int row = 0; row < size; row++) {
+            if (board[row][col] == num) return true;
+        }
+        return false;
+    }
+
+    private static boolean usedInBox(int[][] board, int boxStartRow, int boxStartCol, int num, int size) {
+        int sqrt = (int) Math.sqrt(size);
+        for (int i = 0; i < sqrt; i++) {
+            for (int j = 0; j < sqrt; j++) {
+                if (board[boxStartRow + i][boxStartCol + j] == num) return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,165 @@
+package com.sudoku.model;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+
+// Tablero inmutable en un único byte[] (fila * size + columna). Sustituye a int[][]
+// en modelo, servicio y transporte: una cabecera por tablero y un byte por celda.
+public final class Board implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final int size;
+    private final byte[] cells;
+
+    private Board(int size, byte[] cells) {
+        this.size = size;
+        this.cells = cells;
+    }
+
+    public static Board of(int[][] board) {
+        int size = board.length;
+        byte[] cells = new byte[size * size];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                cells[row * size + col] = (byte) board[row][col];
+            }
+        }
+        return new Board(size, cells);
+    }
+
+    // Copia con una celda cambiada: un único byte[] de size*size
+    public Board with(int row, int col, int value) {
+        byte[] next = cells.clone();
+        next[row * size + col] = (byte) value;
+        return new Board(size, next);
+    }
+
+    public int get(int row, int col) {
+        return cells[row * size + col];
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int countEmpty() {
+        int empty = 0;
+        for (byte cell : cells) {
+            if (cell == 0) empty++;
+        }
+        return empty;
+    }
+
+    // Tablero en el formato int[][] de la API antigua; cada llamada devuelve una copia nueva
+    public int[][] toArray() {
+        int[][] board = new int[size][size];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                board[row][col] = cells[row * size + col];
+            }
+        }
+        return board;
+    }
+
+    // Codificación binaria compacta: un byte con el tamaño y después las celdas.
+    // Hasta 15x15 los valores caben en 4 bits y van dos celdas por byte (9x9 = 42 bytes).
+    public byte[] toBytes() {
+        ByteBuffer out = ByteBuffer.allocate(encodedLength(size));
+        writeTo(out);
+        return out.array();
+    }
+
+    // Escribe la codificación en la posición actual del buffer (p. ej. uno reutilizado)
+    public void writeTo(ByteBuffer out) {
+        out.put((byte) size);
+        if (packsNibbles(size)) {
+            int i = 0;
+            for (; i + 1 < cells.length; i += 2) {
+                out.put((byte) (cells[i] << 4 | cells[i + 1]));
+            }
+            if (i < cells.length) out.put((byte) (cells[i] << 4));
+        } else {
+            out.put(cells);
+        }
+    }
+
+    public static Board fromBytes(byte[] in, int offset) throws IOException {
+        return readFrom(ByteBuffer.wrap(in, offset, in.length - offset));
+    }
+
+    public static Board readFrom(ByteBuffer in) throws IOException {
+        int size = in.hasRemaining() ? in.get() : 0;
+        if (size < 1 || size > 16 || in.remaining() < encodedLength(size) - 1) {
+            throw new IOException("Tablero codificado no válido");
+        }
+        byte[] cells = new byte[size * size];
+        if (packsNibbles(size)) {
+            for (int i = 0; i < cells.length; i += 2) {
+                int packed = in.get();
+                cells[i] = (byte) ((packed >> 4) & 0xF);
+                if (i + 1 < cells.length) cells[i + 1] = (byte) (packed & 0xF);
+            }
+        } else {
+            in.get(cells);
+        }
+        for (byte cell : cells) {
+            if (cell < 0 || cell > size) throw new IOException("Valor fuera de rango en el tablero");
+        }
+        return new Board(size, cells);
+    }
+
+    public static int encodedLength(int size) {
+        int cells = size * size;
+        return 1 + (packsNibbles(size) ? (cells + 1) / 2 : cells);
+    }
+
+    private static boolean packsNibbles(int size) {
+        return size <= 15;
+    }
+
+    // La serialización Java pasa por Wire para no escribir la descripción de campos
+    // del byte[] y mantener Board inmutable
+    private Object writeReplace() {
+        return new Wire(this);
+    }
+
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("Board se serializa a través de Wire");
+    }
+
+    private static final class Wire implements Externalizable {
+        private static final long serialVersionUID = 1L;
+        private Board board;
+
+        public Wire() {
+        }
+
+        Wire(Board board) {
+            this.board = board;
+        }
+
+        @Override
+        public void writeExternal(ObjectOutput out) throws IOException {
+            byte[] bytes = board.toBytes();
+            out.writeShort(bytes.length);
+            out.write(bytes);
+        }
+
+        @Override
+        public void readExternal(ObjectInput in) throws IOException {
+            byte[] bytes = new byte[in.readUnsignedShort()];
+            in.readFully(bytes);
+            board = fromBytes(bytes, 0);
+        }
+
+        private Object readResolve() {
+            return board;
+        }
+    }
+}
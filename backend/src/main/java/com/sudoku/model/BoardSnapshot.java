@@ -0,0 +1,56 @@
+package com.sudoku.model;
+
+import java.io.Serializable;
+
+// Foto inmutable del tablero en una versión concreta. GameState publica una nueva
+// en cada cambio, así que se puede leer, serializar o difundir sin candados.
+public final class BoardSnapshot implements Serializable {
+    private static final long serialVersionUID = 2L;
+
+    private final Board board;
+    private final int version;
+    private final int emptyCells;
+
+    private BoardSnapshot(Board board, int version, int emptyCells) {
+        this.board = board;
+        this.version = version;
+        this.emptyCells = emptyCells;
+    }
+
+    public static BoardSnapshot of(Board board, int version) {
+        return new BoardSnapshot(board, version, board.countEmpty());
+    }
+
+    // Siguiente versión con una celda más rellena
+    public BoardSnapshot withMove(int row, int col, int value) {
+        return new BoardSnapshot(board.with(row, col, value), version + 1, emptyCells - 1);
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
+    public int get(int row, int col) {
+        return board.get(row, col);
+    }
+
+    public int[][] toArray() {
+        return board.toArray();
+    }
+
+    public int getSize() {
+        return board.getSize();
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public int getEmptyCells() {
+        return emptyCells;
+    }
+
+    public boolean isComplete() {
+        return emptyCells == 0;
+    }
+}
@@ -0,0 +1,287 @@
+package com.sudoku.model;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// Resolutor con candidatos en máscaras de bits, elección de la celda con menos
+// candidatos (MRV) y propagación de singles desnudos y ocultos en cada nodo.
+// No guarda estado entre llamadas, por lo que una instancia se comparte entre hilos.
+public class ConstraintPropagationSolver implements SudokuSolver {
+    public static final long DEFAULT_MAX_NODES = 200_000;
+
+    private final boolean randomize;
+    private final long maxNodes;
+
+    public ConstraintPropagationSolver() {
+        this(false, DEFAULT_MAX_NODES);
+    }
+
+    // randomize: prueba los candidatos en orden aleatorio (para generar tableros distintos)
+    // maxNodes: límite de nodos de búsqueda; al superarlo solve devuelve false
+    public ConstraintPropagationSolver(boolean randomize, long maxNodes) {
+        this.randomize = randomize;
+        this.maxNodes = maxNodes;
+    }
+
+    @Override
+    public boolean solve(int[][] board) {
+        Search search = new Search(board.length, randomize, maxNodes);
+        if (!search.load(board)) return false;
+        search.run(1);
+        if (search.solutions == 0) return false;
+        search.copySolution(board);
+        return true;
+    }
+
+    @Override
+    public int countSolutions(int[][] board, int limit) {
+        Search search = new Search(board.length, false, maxNodes);
+        if (!search.load(board)) return 0;
+        search.run(limit);
+        return search.aborted ? limit : Math.min(search.solutions, limit);
+    }
+
+    // Clasifica el puzzle según las técnicas que hacen falta para resolverlo
+    // sin búsqueda. Se asume que el puzzle tiene solución única.
+    public Difficulty grade(int[][] board) {
+        Search search = new Search(board.length, false, maxNodes);
+        if (!search.load(board)) return Difficulty.HARD;
+        if (search.propagate(false) && search.isSolved()) return Difficulty.EASY;
+        if (search.propagate(true) && search.isSolved()) return Difficulty.MEDIUM;
+        return Difficulty.HARD;
+    }
+
+    // Estado de trabajo de una resolución: tablero plano, máscaras y pila de deshacer
+    static final class Search {
+        final int size;
+        final int boxSize;
+        final int cells;
+        final int full;
+        final boolean randomize;
+        final long maxNodes;
+
+        final int[] grid;
+        final int[] rowUsed;
+        final int[] colUsed;
+        final int[] boxUsed;
+        final int[] rowOf;
+        final int[] colOf;
+        final int[] boxOf;
+        // units[u] = celdas de la unidad u (filas, luego columnas, luego cuadros)
+        final int[][] units;
+        final int[] trail;
+        int trailSize;
+
+        long nodes;
+        boolean aborted;
+        int solutions;
+        int[] solution;
+
+        Search(int size, boolean randomize, long maxNodes) {
+            this.size = size;
+            this.boxSize = (int) Math.sqrt(size);
+            this.cells = size * size;
+            this.full = (1 << size) - 1;
+            this.randomize = randomize;
+            this.maxNodes = maxNodes;
+            this.grid = new int[cells];
+            this.rowUsed = new int[size];
+            this.colUsed = new int[size];
+            this.boxUsed = new int[size];
+            this.rowOf = new int[cells];
+            this.colOf = new int[cells];
+            this.boxOf = new int[cells];
+            this.units = new int[size * 3][size];
+            this.trail = new int[cells];
+
+            int[] boxFill = new int[size];
+            for (int cell = 0; cell < cells; cell++) {
+                int row = cell / size;
+                int col = cell % size;
+                int box = (row / boxSize) * boxSize + col / boxSize;
+                rowOf[cell] = row;
+                colOf[cell] = col;
+                boxOf[cell] = box;
+                units[row][col] = cell;
+                units[size + col][row] = cell;
+                units[2 * size + box][boxFill[box]++] = cell;
+            }
+        }
+
+        // Carga las pistas del tablero. Devuelve false si se contradicen.
+        boolean load(int[][] board) {
+            for (int cell = 0; cell < cells; cell++) {
+                int value = board[rowOf[cell]][colOf[cell]];
+                if (value == 0) continue;
+                if (value < 0 || value > size) return false;
+                int bit = 1 << (value - 1);
+                if (((rowUsed[rowOf[cell]] | colUsed[colOf[cell]] | boxUsed[boxOf[cell]]) & bit) != 0) {
+                    return false;
+                }
+                grid[cell] = value;
+                rowUsed[rowOf[cell]] |= bit;
+                colUsed[colOf[cell]] |= bit;
+                boxUsed[boxOf[cell]] |= bit;
+            }
+            return true;
+        }
+
+        void copySolution(int[][] board) {
+            for (int cell = 0; cell < cells; cell++) {
+                board[rowOf[cell]][colOf[cell]] = solution[cell];
+            }
+        }
+
+        int candidates(int cell) {
+            return full & ~(rowUsed[rowOf[cell]] | colUsed[colOf[cell]] | boxUsed[boxOf[cell]]);
+        }
+
+        void place(int cell, int value) {
+            int bit = 1 << (value - 1);
+            grid[cell] = value;
+            rowUsed[rowOf[cell]] |= bit;
+            colUsed[colOf[cell]] |= bit;
+            boxUsed[boxOf[cell]] |= bit;
+            trail[trailSize++] = cell;
+        }
+
+        void undoTo(int mark) {
+            while (trailSize > mark) {
+                int cell = trail[--trailSize];
+                int bit = ~(1 << (grid[cell] - 1));
+                rowUsed[rowOf[cell]] &= bit;
+                colUsed[colOf[cell]] &= bit;
+                boxUsed[boxOf[cell]] &= bit;
+                grid[cell] = 0;
+            }
+        }
+
+        // Busca hasta encontrar 'limit' soluciones o agotar el presupuesto
+        void run(int limit) {
+            search(limit);
+        }
+
+        private void search(int limit) {
+            if (++nodes > maxNodes) {
+                aborted = true;
+                return;
+            }
+            int mark = trailSize;
+            if (!propagate(true)) {
+                undoTo(mark);
+                return;
+            }
+
+            // Celda vacía con menos candidatos
+            int best = -1;
+            int bestCount = Integer.MAX_VALUE;
+            for (int cell = 0; cell < cells && bestCount > 2; cell++) {
+                if (grid[cell] != 0) continue;
+                int count = Integer.bitCount(candidates(cell));
+                if (count < bestCount) {
+                    best = cell;
+                    bestCount = count;
+                }
+            }
+
+            if (best == -1) {
+                if (++solutions == 1) {
+                    solution = grid.clone();
+                }
+                undoTo(mark);
+                return;
+            }
+
+            int[] order = candidateOrder(candidates(best));
+            int afterPropagation = trailSize;
+            for (int value : order) {
+                place(best, value);
+                search(limit);
+                undoTo(afterPropagation);
+                if (solutions >= limit || aborted) break;
+            }
+            undoTo(mark);
+        }
+
+        private int[] candidateOrder(int mask) {
+            int[] values = new int[Integer.bitCount(mask)];
+            for (int i = 0; mask != 0; i++) {
+                int bit = Integer.lowestOneBit(mask);
+                values[i] = Integer.numberOfTrailingZeros(bit) + 1;
+                mask ^= bit;
+            }
+            if (randomize) {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = values.length - 1; i > 0; i--) {
+                    int j = random.nextInt(i + 1);
+                    int tmp = values[i];
+                    values[i] = values[j];
+                    values[j] = tmp;
+                }
+            }
+            return values;
+        }
+
+        boolean isSolved() {
+            for (int cell = 0; cell < cells; cell++) {
+                if (grid[cell] == 0) return false;
+            }
+            return true;
+        }
+
+        // Aplica singles desnudos (y ocultos si hiddenSingles) hasta que no haya cambios.
+        // Devuelve false si encuentra una contradicción.
+        boolean propagate(boolean hiddenSingles) {
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+
+                // Singles desnudos: celdas con un único candidato
+                for (int cell = 0; cell < cells; cell++) {
+                    if (grid[cell] != 0) continue;
+                    int mask = candidates(cell);
+                    if (mask == 0) return false;
+                    if ((mask & (mask - 1)) == 0) {
+                        place(cell, Integer.numberOfTrailingZeros(mask) + 1);
+                        changed = true;
+                    }
+                }
+
+                if (!hiddenSingles) continue;
+
+                // Singles ocultos: valores que solo caben en una celda de la unidad
+                for (int[] unit : units) {
+                    int once = 0;
+                    int twice = 0;
+                    int placed = 0;
+                    for (int cell : unit) {
+                        if (grid[cell] != 0) {
+                            placed |= 1 << (grid[cell] - 1);
+                            continue;
+                        }
+                        int mask = candidates(cell);
+                        twice |= once & mask;
+                        once |= mask;
+                    }
+                    int missing = full & ~placed;
+                    if ((once & missing) != missing) return false;
+                    int hidden = once & ~twice & missing;
+                    while (hidden != 0) {
+                        int bit = Integer.lowestOneBit(hidden);
+                        hidden ^= bit;
+                        int target = -1;
+                        for (int cell : unit) {
+                            if (grid[cell] == 0 && (candidates(cell) & bit) != 0) {
+                                target = cell;
+                                break;
+                            }
+                        }
+                        if (target == -1) return false;
+                        place(target, Integer.numberOfTrailingZeros(bit) + 1);
+                        changed = true;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+}
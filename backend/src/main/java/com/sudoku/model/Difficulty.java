@@ -0,0 +1,8 @@
+package com.sudoku.model;
+
+// Dificultad según las técnicas necesarias para resolver el puzzle
+public enum Difficulty {
+    EASY,   // basta con singles desnudos
+    MEDIUM, // requiere singles ocultos
+    HARD    // requiere búsqueda (prueba y error)
+}
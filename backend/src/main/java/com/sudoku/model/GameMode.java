@@ -0,0 +1,7 @@
+package com.sudoku.model;
+
+// Cómo se reparten los movimientos de una partida
+public enum GameMode {
+    TURNS, // por turnos, en el orden en que se sentaron los jugadores
+    RACE   // todos a la vez sobre el mismo tablero: la celda es del primero que la rellena bien
+}
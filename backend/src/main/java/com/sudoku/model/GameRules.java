@@ -0,0 +1,76 @@
+package com.sudoku.model;
+
+import java.io.Serializable;
+
+// Reglas de una sala: modo, asientos (de 2 a MAX_PLAYERS) y equipos (0 = cada uno por
+// su cuenta). Cada jugador entra en el equipo con menos miembros, así que con el turno
+// rotatorio los equipos se van alternando.
+public final class GameRules implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final int MAX_PLAYERS = 8;
+    // Las reglas de siempre: dos jugadores por turnos
+    public static final GameRules TWO_PLAYER_TURNS = new GameRules(GameMode.TURNS, 2, 0);
+
+    private final GameMode mode;
+    private final int maxPlayers;
+    private final int teams;
+
+    private GameRules(GameMode mode, int maxPlayers, int teams) {
+        this.mode = mode;
+        this.maxPlayers = maxPlayers;
+        this.teams = teams;
+    }
+
+    public static GameRules of(GameMode mode, int maxPlayers, int teams) {
+        if (mode == null) {
+            throw new IllegalArgumentException("Modo de juego no válido");
+        }
+        if (maxPlayers < 2 || maxPlayers > MAX_PLAYERS) {
+            throw new IllegalArgumentException("Número de jugadores no válido: " + maxPlayers);
+        }
+        if (teams != 0 && (teams < 2 || teams > maxPlayers || maxPlayers % teams != 0)) {
+            throw new IllegalArgumentException("Número de equipos no válido: " + teams);
+        }
+        if (mode == GameMode.TURNS && maxPlayers == 2 && teams == 0) {
+            return TWO_PLAYER_TURNS;
+        }
+        return new GameRules(mode, maxPlayers, teams);
+    }
+
+    public GameMode getMode() {
+        return mode;
+    }
+
+    public int getMaxPlayers() {
+        return maxPlayers;
+    }
+
+    public int getTeams() {
+        return teams;
+    }
+
+    // Identificador compacto, distinto para cada combinación de reglas (para el matchmaking)
+    public int key() {
+        return (mode.ordinal() * (MAX_PLAYERS + 1) + maxPlayers) * (MAX_PLAYERS + 1) + teams;
+    }
+
+    public static int keyCount() {
+        return GameMode.values().length * (MAX_PLAYERS + 1) * (MAX_PLAYERS + 1);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof GameRules && ((GameRules) other).key() == key();
+    }
+
+    @Override
+    public int hashCode() {
+        return key();
+    }
+
+    @Override
+    public String toString() {
+        return mode + "/" + maxPlayers + (teams > 0 ? "/" + teams + " equipos" : "");
+    }
+}
@@ -1,28 +1,103 @@
 package com.sudoku.model;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class GameState implements Serializable {
     private static final long serialVersionUID = 1L;
-    private int[][] board;
+    // Tablero publicado: se sustituye entero en cada cambio y nunca se modifica
+    private volatile BoardSnapshot snapshot;
+    // Movimientos desde el tablero actual, para espectadores que se ponen al día
+    private final MoveLog moveLog = new MoveLog();
     private final int size;
-    private int currentPlayerId;
+    private final Difficulty difficulty;
+    private final int boxSize;
+    // Máscaras de valores usados por fila, columna y cuadro (bit v-1 = valor v)
+    private final int[] rowMasks;
+    private final int[] colMasks;
+    private final int[] boxMasks;
+    private final GameRules rules;
+    // Se cambia bajo el monitor; volatile para leer el turno sin bloquear
+    private volatile int currentPlayerId;
     private final Map<Integer, String> players;
+    // Orden de turnos, equipo de cada jugador y celdas que ha ganado (protegidos por el monitor)
+    private final TurnOrder turnOrder = new TurnOrder();
+    private final Map<Integer, Integer> teamOf = new HashMap<>();
+    private final Map<Integer, Integer> cellsWon = new HashMap<>();
     private boolean gameStarted;
+    // Ya se anunció el inicio desde que se llenó la partida
+    private boolean startAnnounced;
 
     public GameState(int size) {
+        this(size, Difficulty.MEDIUM);
+    }
+
+    public GameState(int size, Difficulty difficulty) {
+        this(size, difficulty, GameRules.TWO_PLAYER_TURNS);
+    }
+
+    public GameState(int size, Difficulty difficulty, GameRules rules) {
+        this(size, difficulty, rules, null);
+    }
+
+    // Partida sobre un puzzle ya generado (el tablero pasa a ser de la partida)
+    public GameState(Puzzle puzzle) {
+        this(puzzle, GameRules.TWO_PLAYER_TURNS);
+    }
+
+    public GameState(Puzzle puzzle, GameRules rules) {
+        this(puzzle.getSize(), puzzle.getDifficulty(), rules, puzzle.getBoard());
+    }
+
+    private GameState(int size, Difficulty difficulty, GameRules rules, Board board) {
         this.size = size;
-        this.board = new int[size][size];
+        this.difficulty = difficulty;
+        this.rules = rules;
+        this.boxSize = (int) Math.sqrt(size);
+        this.rowMasks = new int[size];
+        this.colMasks = new int[size];
+        this.boxMasks = new int[size];
         this.players = new ConcurrentHashMap<>();
         this.currentPlayerId = -1;
         this.gameStarted = false;
-        initializeBoard();
+        if (board != null) {
+            setBoard(board);
+        } else {
+            initializeBoard();
+        }
     }
 
     public void initializeBoard() {
-        this.board = SudokuGenerator.generate(size);
+        // Puzzle con solución única, tomado del pool pregenerado
+        setBoard(PuzzlePool.getInstance().take(size, difficulty).getBoard());
+    }
+
+    // Recalcula las máscaras a partir del tablero
+    private void rebuildMasks(Board board) {
+        Arrays.fill(rowMasks, 0);
+        Arrays.fill(colMasks, 0);
+        Arrays.fill(boxMasks, 0);
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int value = board.get(row, col);
+                if (value != 0) {
+                    int bit = 1 << (value - 1);
+                    rowMasks[row] |= bit;
+                    colMasks[col] |= bit;
+                    boxMasks[boxIndex(row, col)] |= bit;
+                }
+            }
+        }
+    }
+
+    private int boxIndex(int row, int col) {
+        return (row / boxSize) * boxSize + col / boxSize;
     }
 
     // Métodos para manejar jugadores
@@ -30,116 +105,299 @@ public class GameState implements Serializable {
         return players;
     }
 
+    // La partida empieza sola cuando se ocupa el último asiento
     public synchronized void addPlayer(String sessionId, int playerId) {
-        players.put(playerId, sessionId);
-        if (players.size() == 1) {
-            this.currentPlayerId = playerId;
+        if (players.put(playerId, sessionId) != null) return;
+        turnOrder.add(playerId);
+        if (rules.getTeams() > 0) {
+            teamOf.put(playerId, smallestTeam());
         }
-        if (players.size() == 2) {
+        currentPlayerId = turnOrder.current();
+        if (players.size() == rules.getMaxPlayers()) {
             this.gameStarted = true;
         }
-        System.out.println("Jugador " + playerId + " añadido. Total jugadores: " + players.size());
     }
-    public void removePlayer(String sessionId) {
-        players.entrySet().removeIf(entry -> entry.getValue().equals(sessionId));
+
+    // Añade el jugador solo si queda un asiento libre (atómico frente a otros joins).
+    // Con playerId <= 0 se le da el número de asiento libre más bajo.
+    public synchronized boolean tryAddPlayer(String sessionId, int playerId) {
+        if (isFull()) return false;
+        if (playerId <= 0) {
+            playerId = 1;
+            while (players.containsKey(playerId)) playerId++;
+        }
+        addPlayer(sessionId, playerId);
+        return true;
+    }
+
+    public synchronized void removePlayer(String sessionId) {
+        Integer playerId = getPlayerId(sessionId);
+        if (playerId == null) return;
+        players.remove(playerId);
+        turnOrder.remove(playerId);
+        teamOf.remove(playerId);
+        currentPlayerId = turnOrder.current();
+        startAnnounced = false;
         if (players.isEmpty()) {
-            this.currentPlayerId = -1;
             this.gameStarted = false;
         }
     }
 
+    // Jugador sentado con esa sesión, o null
+    public Integer getPlayerId(String sessionId) {
+        for (Map.Entry<Integer, String> entry : players.entrySet()) {
+            if (entry.getValue().equals(sessionId)) return entry.getKey();
+        }
+        return null;
+    }
+
     public synchronized boolean isFull() {
-        return players.size() >= 2;
+        return players.size() >= rules.getMaxPlayers();
+    }
+
+    private int smallestTeam() {
+        int[] members = new int[rules.getTeams()];
+        teamOf.values().forEach(team -> members[team]++);
+        int smallest = 0;
+        for (int team = 1; team < members.length; team++) {
+            if (members[team] < members[smallest]) smallest = team;
+        }
+        return smallest;
     }
 
     // Métodos para manejar el juego
-    public boolean makeMove(int row, int col, int value) {
-        if (!isValidMove(row, col, value)) {
+    // Las escrituras se serializan en el monitor de la partida; las lecturas van
+    // a la foto publicada y no bloquean
+
+    // Comprueba turno y movimiento y lo aplica en un solo paso. En RACE no hay turnos:
+    // si dos jugadores van a por la misma celda, el primero que entra en el monitor se
+    // la queda y el otro recibe CELL_TAKEN.
+    public synchronized MoveResult play(int playerId, int row, int col, int value) {
+        if (!isGameStarted()) return MoveResult.NOT_STARTED;
+        if (!players.containsKey(playerId)) return MoveResult.NOT_YOUR_TURN;
+        if (rules.getMode() == GameMode.TURNS && playerId != currentPlayerId) return MoveResult.NOT_YOUR_TURN;
+        if (row < 0 || row >= size || col < 0 || col >= size) return MoveResult.INVALID;
+        if (snapshot.get(row, col) != 0) return MoveResult.CELL_TAKEN;
+        if (!fits(row, col, value)) return MoveResult.INVALID;
+        apply(row, col, value, playerId);
+        switchTurn();
+        return MoveResult.ACCEPTED;
+    }
+
+    // Sin comprobar turnos: el movimiento se apunta al jugador con el turno
+    public synchronized boolean makeMove(int row, int col, int value) {
+        if (!fits(row, col, value)) {
             return false;
         }
-        board[row][col] = value;
+        apply(row, col, value, currentPlayerId);
         return true;
     }
 
-    public boolean isValidMove(int row, int col, int value) {
+    private void apply(int row, int col, int value, int playerId) {
+        int bit = 1 << (value - 1);
+        rowMasks[row] |= bit;
+        colMasks[col] |= bit;
+        boxMasks[boxIndex(row, col)] |= bit;
+        snapshot = snapshot.withMove(row, col, value);
+        moveLog.append(snapshot.getVersion(), row, col, value, playerId);
+        cellsWon.merge(playerId, 1, Integer::sum);
+    }
+
+    // Toma el monitor como play: las máscaras solo se leen enteras y al día dentro de él
+    public synchronized boolean isValidMove(int row, int col, int value) {
+        return fits(row, col, value);
+    }
+
+    // Con el monitor ya tomado
+    private boolean fits(int row, int col, int value) {
         // Verificar rangos
         if (row < 0 || row >= size || col < 0 || col >= size || value < 1 || value > size) {
             return false;
         }
         
         // Celda ocupada
-        if (board[row][col] != 0) return false;
+        if (snapshot.get(row, col) != 0) return false;
         
-        // Verificar fila, columna y cuadro
-        return isValidInRow(row, value) 
-            && isValidInColumn(col, value) 
-            && isValidInBox(row, col, value);
-    }
-    // Métodos de validación de Sudoku
-    private boolean isValidInRow(int row, int value) {
-        for (int col = 0; col < size; col++) {
-            if (board[row][col] == value) return false;
-        }
-        return true;
+        // Verificar fila, columna y cuadro con una sola operación sobre las máscaras
+        int used = rowMasks[row] | colMasks[col] | boxMasks[boxIndex(row, col)];
+        return (used & (1 << (value - 1))) == 0;
     }
 
-    private boolean isValidInColumn(int col, int value) {
-        for (int row = 0; row < size; row++) {
-            if (board[row][col] == value) return false;
-        }
-        return true;
-    }
-
-    private boolean isValidInBox(int row, int col, int value) {
-        int boxSize = (int) Math.sqrt(size);
-        int boxRow = row - (row % boxSize); // Ejemplo: Si row=5 y boxSize=3 → 5 - 2 = 3
-        int boxCol = col - (col % boxSize);
-    
-        for (int i = boxRow; i < boxRow + boxSize; i++) {
-            for (int j = boxCol; j < boxCol + boxSize; j++) {
-                if (board[i][j] == value) {
-                    return false;
-                }
-            }
-        }
-        return true;
-    }
     // Métodos para verificar victoria
     public boolean isComplete() {
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                if (board[i][j] == 0) return false;
-            }
-        }
-        return true;
+        return snapshot.isComplete();
     }
 
     // Getters y setters
-    public int[][] getBoard() { 
-        return board; 
+    // Foto inmutable del tablero y su versión, coherentes entre sí
+    public BoardSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public Board getBoard() { 
+        return snapshot.getBoard(); 
     }
     
     public void setBoard(int[][] board) { 
-        this.board = board; 
+        setBoard(Board.of(board));
+    }
+
+    public synchronized void setBoard(Board board) {
+        rebuildMasks(board);
+        // La versión sigue creciendo aunque se cambie el tablero entero
+        int version = snapshot == null ? 1 : snapshot.getVersion() + 1;
+        snapshot = BoardSnapshot.of(board, version);
+        moveLog.reset(version);
+        cellsWon.clear();
+    }
+
+    public MoveLog getMoveLog() {
+        return moveLog;
+    }
+
+    public int getBoardVersion() {
+        return snapshot.getVersion();
     }
     
+    public int getSize() {
+        return size;
+    }
+
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    public GameRules getRules() {
+        return rules;
+    }
+
+    // Equipo del jugador (desde 0), o -1 si la partida no tiene equipos
+    public synchronized int getTeam(int playerId) {
+        return teamOf.getOrDefault(playerId, -1);
+    }
+
+    // Celdas rellenadas por cada jugador desde que se puso el tablero
+    public synchronized Map<Integer, Integer> getCellsWon() {
+        return new HashMap<>(cellsWon);
+    }
+
+    // Jugador con más celdas (o, con equipos, un jugador del equipo con más celdas);
+    // a igualdad gana el que llegó antes. -1 si nadie ha movido.
+    public synchronized int getLeader() {
+        Map<Integer, Integer> score = new HashMap<>();
+        cellsWon.forEach((playerId, cells) ->
+            score.merge(rules.getTeams() > 0 ? teamOf.getOrDefault(playerId, -1) : playerId, cells, Integer::sum));
+        int leader = -1;
+        int best = 0;
+        for (Map.Entry<Integer, Integer> entry : score.entrySet()) {
+            if (entry.getValue() > best || (entry.getValue() == best && entry.getKey() < leader)) {
+                leader = entry.getKey();
+                best = entry.getValue();
+            }
+        }
+        if (rules.getTeams() == 0 || leader < 0) return leader;
+        for (Map.Entry<Integer, Integer> entry : cellsWon.entrySet()) {
+            if (teamOf.getOrDefault(entry.getKey(), -1) == leader) return entry.getKey();
+        }
+        return -1;
+    }
+
     public int getCurrentPlayerId() { 
         return currentPlayerId; 
     }
+
+    // Si el jugador puede mover ahora: en RACE cualquiera sentado, por turnos solo el actual
+    public boolean isTurnOf(int playerId) {
+        if (rules.getMode() == GameMode.RACE) return players.containsKey(playerId);
+        return currentPlayerId == playerId;
+    }
     
-    public void setCurrentPlayer(int id) { 
-        this.currentPlayerId = id; 
+    public synchronized void setCurrentPlayer(int id) { 
+        turnOrder.setCurrent(id);
+        this.currentPlayerId = turnOrder.current(); 
     }
     
     public synchronized boolean isGameStarted() {
         return gameStarted && isFull();
     }
     
-    public void setGameStarted(boolean started) { 
+    public synchronized void setGameStarted(boolean started) { 
         this.gameStarted = started; 
     }
+
+    // Empieza la partida si está llena. Devuelve true solo la primera vez desde que se
+    // llenó, para que, si varios jugadores entran a la vez, el inicio se anuncie una vez.
+    public synchronized boolean markStarted() {
+        if (!isFull() || startAnnounced) return false;
+        gameStarted = true;
+        startAnnounced = true;
+        return true;
+    }
     
-    public void switchTurn() { 
-        currentPlayerId = (currentPlayerId == 1) ? 2 : 1; 
+    // Estado completo en binario, para el diario de movimientos: reglas, tablero y versión,
+    // asientos en orden con su sesión y equipo, turno, celdas ganadas e inicio. No incluye
+    // el MoveLog: la partida leída empieza su registro en la versión guardada.
+    public synchronized void writeTo(ByteBuffer out) {
+        out.put((byte) difficulty.ordinal());
+        out.put((byte) rules.getMode().ordinal());
+        out.put((byte) rules.getMaxPlayers());
+        out.put((byte) rules.getTeams());
+        out.putInt(snapshot.getVersion());
+        snapshot.getBoard().writeTo(out);
+        out.put((byte) turnOrder.seats().size());
+        for (int playerId : turnOrder.seats()) {
+            out.putInt(playerId);
+            out.put((byte) getTeam(playerId));
+            byte[] session = players.get(playerId).getBytes(StandardCharsets.UTF_8);
+            out.putShort((short) session.length);
+            out.put(session);
+        }
+        out.putInt(currentPlayerId);
+        out.putInt(cellsWon.size());
+        cellsWon.forEach((playerId, cells) -> {
+            out.putInt(playerId);
+            out.putShort((short) (int) cells);
+        });
+        out.put((byte) ((gameStarted ? 1 : 0) | (startAnnounced ? 2 : 0)));
+    }
+
+    public static GameState readFrom(ByteBuffer in) throws IOException {
+        try {
+            Difficulty difficulty = Difficulty.values()[in.get()];
+            GameRules rules = GameRules.of(GameMode.values()[in.get()], in.get(), in.get());
+            int version = in.getInt();
+            Board board = Board.readFrom(in);
+            GameState game = new GameState(board.getSize(), difficulty, rules, board);
+            game.snapshot = BoardSnapshot.of(board, version);
+            game.moveLog.reset(version);
+            int seats = in.get();
+            for (int seat = 0; seat < seats; seat++) {
+                int playerId = in.getInt();
+                int team = in.get();
+                byte[] session = new byte[in.getShort()];
+                in.get(session);
+                game.addPlayer(new String(session, StandardCharsets.UTF_8), playerId);
+                if (team >= 0) game.teamOf.put(playerId, team);
+            }
+            game.setCurrentPlayer(in.getInt());
+            int won = in.getInt();
+            for (int i = 0; i < won; i++) {
+                game.cellsWon.put(in.getInt(), (int) in.getShort());
+            }
+            int flags = in.get();
+            game.gameStarted = (flags & 1) != 0;
+            game.startAnnounced = (flags & 2) != 0;
+            return game;
+        } catch (RuntimeException e) {
+            throw new IOException("Partida codificada no válida", e);
+        }
+    }
+
+    // Pasa el turno al siguiente asiento (los ids no tienen por qué ser 1 y 2). En RACE
+    // no hay turnos.
+    public synchronized void switchTurn() { 
+        if (rules.getMode() == GameMode.RACE) return;
+        turnOrder.advance();
+        currentPlayerId = turnOrder.current();
     }
 }
\ No newline at end of file
@@ -0,0 +1,89 @@
+package com.sudoku.model;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+// Movimientos de una partida desde que se puso el tablero, indexados por versión: el
+// movimiento i lleva el tablero a la versión baseVersion + i + 1. Como cada celda se
+// rellena una sola vez, el registro nunca pasa de size*size entradas.
+// Lo escribe GameState bajo su monitor; los lectores (espectadores) copian rangos
+// bajo el de MoveLog, sin bloquear la partida. Escribir no despierta a nadie: los
+// que esperan en awaitNewer los avisa el publicador por lotes con signal().
+public class MoveLog implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private long[] moves = new long[0];
+    private int count;
+    private int baseVersion;
+
+    // Empieza de nuevo a partir del tablero con esta versión
+    synchronized void reset(int version) {
+        baseVersion = version;
+        count = 0;
+    }
+
+    synchronized void append(int version, int row, int col, int value, int playerId) {
+        if (version != baseVersion + count + 1) {
+            // No debería pasar: la partida serializa las escrituras
+            throw new IllegalStateException("Versión fuera de orden: " + version);
+        }
+        if (count == moves.length) {
+            moves = Arrays.copyOf(moves, Math.max(8, count * 2));
+        }
+        moves[count++] = pack(row, col, value, playerId);
+    }
+
+    public synchronized int getLatestVersion() {
+        return baseVersion + count;
+    }
+
+    // Movimientos con versión mayor que knownVersion, como mucho 'max'. Devuelve null
+    // si el lector está antes del tablero actual o a más de 'max' movimientos: le sale
+    // más barato el tablero completo.
+    public synchronized long[] since(int knownVersion, int max) {
+        int latest = baseVersion + count;
+        if (knownVersion >= latest) return new long[0];
+        if (knownVersion < baseVersion || latest - knownVersion > max) return null;
+        return Arrays.copyOfRange(moves, knownVersion - baseVersion, count);
+    }
+
+    // Espera hasta timeoutMs a que haya una versión mayor que knownVersion
+    public synchronized boolean awaitNewer(int knownVersion, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        long remaining = timeoutMs;
+        while (baseVersion + count <= knownVersion && remaining > 0) {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+        return baseVersion + count > knownVersion;
+    }
+
+    public synchronized void signal() {
+        notifyAll();
+    }
+
+    // Versión del tablero tras el movimiento 'index' de un rango devuelto por since
+    public static int versionOf(int knownVersion, int index) {
+        return knownVersion + index + 1;
+    }
+
+    public static int row(long move) {
+        return (int) (move >>> 16) & 0xFF;
+    }
+
+    public static int col(long move) {
+        return (int) (move >>> 8) & 0xFF;
+    }
+
+    public static int value(long move) {
+        return (int) move & 0xFF;
+    }
+
+    public static int playerId(long move) {
+        return (int) (move >>> 32);
+    }
+
+    private static long pack(int row, int col, int value, int playerId) {
+        return ((long) playerId << 32) | (row << 16) | (col << 8) | value;
+    }
+}
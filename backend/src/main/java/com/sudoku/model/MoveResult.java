@@ -0,0 +1,11 @@
+package com.sudoku.model;
+
+// Resultado de GameState.play
+public enum MoveResult {
+    ACCEPTED,
+    NOT_STARTED,   // faltan jugadores
+    NOT_YOUR_TURN, // o el jugador no está sentado en la partida
+    CELL_TAKEN,    // otro jugador rellenó la celda antes (en RACE, perdió la carrera)
+    INVALID,       // fuera de rango o repite un valor en fila, columna o cuadro
+    NO_GAME        // el jugador no está en ninguna partida (solo GameEngine)
+}
@@ -0,0 +1,38 @@
+package com.sudoku.model;
+
+import java.io.Serializable;
+
+// Puzzle generado junto con su solución única y la dificultad medida.
+// Se guarda en Board para que el pool ocupe un byte por celda.
+public class Puzzle implements Serializable {
+    private static final long serialVersionUID = 2L;
+    private final Board board;
+    private final Board solution;
+    private final Difficulty difficulty;
+
+    public Puzzle(int[][] board, int[][] solution, Difficulty difficulty) {
+        this(Board.of(board), Board.of(solution), difficulty);
+    }
+
+    public Puzzle(Board board, Board solution, Difficulty difficulty) {
+        this.board = board;
+        this.solution = solution;
+        this.difficulty = difficulty;
+    }
+
+    public int getSize() {
+        return board.getSize();
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
+    public Board getSolution() {
+        return solution;
+    }
+
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+}
@@ -0,0 +1,235 @@
+package com.sudoku.model;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.ObjectName;
+
+// Puzzles pregenerados por tamaño y dificultad. Un ejecutor en segundo plano
+// rellena cada cola hasta la marca alta cuando baja de la marca baja; si la cola
+// está vacía el puzzle se genera en el hilo que lo pide.
+// El generador puede quedarse por debajo de la dificultad pedida, así que cada puzzle
+// va a la cola de la dificultad con la que se clasificó. Una dificultad que no sale
+// nunca para un tamaño (en 4x4 todos son EASY) se marca como inalcanzable y se sirve
+// con la más difícil de las inferiores que tenga puzzles.
+public class PuzzlePool implements PuzzlePoolMXBean {
+    public static final int[] SIZES = {4, 9, 16};
+
+    private static final int LOW_WATERMARK = Integer.getInteger("sudoku.pool.lowWatermark", 4);
+    private static final int HIGH_WATERMARK = Integer.getInteger("sudoku.pool.highWatermark", 16);
+    private static final int REFILL_THREADS = Integer.getInteger("sudoku.pool.threads", 1);
+    // Puzzles seguidos de otra dificultad tras los que se deja de rellenar una cola
+    private static final int MAX_REGRADED = 32;
+    // Intentos al generar en el hilo que pide, si la cola está vacía
+    private static final int TAKE_ATTEMPTS = 4;
+
+    private static final PuzzlePool instance = new PuzzlePool(LOW_WATERMARK, HIGH_WATERMARK, REFILL_THREADS);
+
+    private final int lowWatermark;
+    private final int highWatermark;
+    private final ExecutorService refillExecutor;
+    private final Map<Integer, Slot[]> slots = new TreeMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong refills = new AtomicLong();
+    private final AtomicLong regraded = new AtomicLong();
+
+    // Cola de un par tamaño/dificultad
+    private static final class Slot {
+        final int size;
+        final Difficulty difficulty;
+        final Queue<Puzzle> puzzles = new ConcurrentLinkedQueue<>();
+        final AtomicInteger available = new AtomicInteger();
+        final AtomicBoolean refilling = new AtomicBoolean();
+        // El generador no llega a esta dificultad con este tamaño
+        volatile boolean unreachable;
+
+        Slot(int size, Difficulty difficulty) {
+            this.size = size;
+            this.difficulty = difficulty;
+        }
+    }
+
+    public PuzzlePool(int lowWatermark, int highWatermark, int refillThreads) {
+        this.lowWatermark = lowWatermark;
+        this.highWatermark = highWatermark;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.refillExecutor = Executors.newFixedThreadPool(refillThreads, runnable -> {
+            Thread thread = new Thread(runnable, "puzzle-pool-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        for (int size : SIZES) {
+            Slot[] bySize = new Slot[Difficulty.values().length];
+            for (Difficulty difficulty : Difficulty.values()) {
+                bySize[difficulty.ordinal()] = new Slot(size, difficulty);
+            }
+            slots.put(size, bySize);
+        }
+    }
+
+    public static PuzzlePool getInstance() {
+        return instance;
+    }
+
+    // Llena todas las colas en segundo plano y registra las métricas en JMX
+    public void start() {
+        for (Slot[] bySize : slots.values()) {
+            for (Slot slot : bySize) {
+                scheduleRefill(slot);
+            }
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                .registerMBean(this, new ObjectName("com.sudoku:type=PuzzlePool"));
+        } catch (Exception e) {
+            System.err.println("No se pudieron registrar las métricas del pool: " + e.getMessage());
+        }
+    }
+
+    public Puzzle take(int size, Difficulty difficulty) {
+        Slot[] bySize = slots.get(size);
+        if (bySize == null) {
+            // Tamaño sin pool: generación directa
+            misses.incrementAndGet();
+            return SudokuGenerator.generate(size, difficulty);
+        }
+        // La cola que sirve la petición, que también es la que hay que rellenar
+        Slot slot = serving(bySize, difficulty);
+        Puzzle puzzle = poll(slot);
+        if (puzzle != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            puzzle = generate(bySize, slot.difficulty);
+        }
+        if (slot.available.get() <= lowWatermark) {
+            scheduleRefill(slot);
+        }
+        return puzzle;
+    }
+
+    // La de la dificultad pedida o, si es inalcanzable, la más difícil de las inferiores
+    // que no lo sea (EASY siempre sirve)
+    private static Slot serving(Slot[] bySize, Difficulty difficulty) {
+        int index = difficulty.ordinal();
+        while (index > 0 && bySize[index].unreachable) {
+            index--;
+        }
+        return bySize[index];
+    }
+
+    private Puzzle poll(Slot slot) {
+        Puzzle puzzle = slot.puzzles.poll();
+        if (puzzle != null) slot.available.decrementAndGet();
+        return puzzle;
+    }
+
+    // Generación directa: los de otra dificultad se guardan en su cola y, si ninguno sale
+    // con la pedida, se devuelve el último con la que tiene
+    private Puzzle generate(Slot[] bySize, Difficulty difficulty) {
+        Puzzle puzzle = null;
+        for (int attempt = 0; attempt < TAKE_ATTEMPTS; attempt++) {
+            if (puzzle != null) store(bySize, puzzle);
+            puzzle = SudokuGenerator.generate(bySize[0].size, difficulty);
+            if (puzzle.getDifficulty() == difficulty || bySize[difficulty.ordinal()].unreachable) break;
+            regraded.incrementAndGet();
+        }
+        return puzzle;
+    }
+
+    // Guarda el puzzle en la cola de su dificultad si no está llena; devuelve esa cola o
+    // null si se descartó
+    private Slot store(Slot[] bySize, Puzzle puzzle) {
+        Slot slot = bySize[puzzle.getDifficulty().ordinal()];
+        if (slot.available.get() >= highWatermark) return null;
+        slot.puzzles.offer(puzzle);
+        slot.available.incrementAndGet();
+        refills.incrementAndGet();
+        return slot;
+    }
+
+    private void scheduleRefill(Slot slot) {
+        if (slot.unreachable || !slot.refilling.compareAndSet(false, true)) return;
+        Slot[] bySize = slots.get(slot.size);
+        refillExecutor.execute(() -> {
+            try {
+                int offTarget = 0;
+                while (slot.available.get() < highWatermark) {
+                    Puzzle puzzle = SudokuGenerator.generate(slot.size, slot.difficulty);
+                    if (puzzle.getDifficulty() == slot.difficulty) {
+                        store(bySize, puzzle);
+                        offTarget = 0;
+                        continue;
+                    }
+                    regraded.incrementAndGet();
+                    store(bySize, puzzle);
+                    if (++offTarget >= MAX_REGRADED) {
+                        slot.unreachable = true;
+                        System.err.println("Pool " + slot.size + "/" + slot.difficulty + ": el generador no alcanza esa dificultad");
+                        break;
+                    }
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Error rellenando el pool " + slot.size + "/" + slot.difficulty + ": " + e.getMessage());
+            } finally {
+                slot.refilling.set(false);
+            }
+        });
+    }
+
+    public void shutdown() {
+        refillExecutor.shutdownNow();
+    }
+
+    @Override
+    public long getHits() {
+        return hits.get();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public long getRefills() {
+        return refills.get();
+    }
+
+    @Override
+    public long getRegraded() {
+        return regraded.get();
+    }
+
+    @Override
+    public int getAvailable() {
+        int total = 0;
+        for (Slot[] bySize : slots.values()) {
+            for (Slot slot : bySize) {
+                total += slot.available.get();
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public Map<String, Integer> getAvailableBySlot() {
+        Map<String, Integer> available = new TreeMap<>();
+        for (Slot[] bySize : slots.values()) {
+            for (Slot slot : bySize) {
+                available.put(slot.size + "/" + slot.difficulty, slot.available.get());
+            }
+        }
+        return available;
+    }
+}
@@ -0,0 +1,15 @@
+package com.sudoku.model;
+
+import java.util.Map;
+
+// Métricas del pool de puzzles expuestas por JMX (com.sudoku:type=PuzzlePool)
+public interface PuzzlePoolMXBean {
+    long getHits();
+    long getMisses();
+    long getRefills();
+    // Puzzles generados para una dificultad que se clasificaron con otra
+    long getRegraded();
+    int getAvailable();
+    // Puzzles listos por "tamaño/dificultad", por ejemplo "9/MEDIUM"
+    Map<String, Integer> getAvailableBySlot();
+}
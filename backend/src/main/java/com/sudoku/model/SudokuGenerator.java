@@ -2,17 +2,113 @@
 package com.sudoku.model;
 
 import java.util.Random;
+import java.util.concurrent.TimeUnit;
 
 public class SudokuGenerator {
     private static final Random random = new Random();
+    // Presupuesto corto con reinicios desde una diagonal nueva: evita las colas
+    // largas de la búsqueda en 16x16 (algunos tableros iniciales son mucho más costosos)
+    private static final long RESTART_NODE_BUDGET = 2_000;
+    private static final int MAX_ATTEMPTS = 20;
+    private static volatile SudokuSolver solver = new ConstraintPropagationSolver(true, RESTART_NODE_BUDGET);
 
+    // Modo de solución única: presupuesto de tiempo por puzzle (-Dsudoku.generator.budgetMs)
+    // y de nodos por comprobación de unicidad
+    public static final long DEFAULT_BUDGET_MS = Long.getLong("sudoku.generator.budgetMs", 50);
+    private static final long UNIQUENESS_NODE_BUDGET = 2_000;
+    private static final ConstraintPropagationSolver checker =
+        new ConstraintPropagationSolver(false, UNIQUENESS_NODE_BUDGET);
+
+    public static SudokuSolver getSolver() {
+        return solver;
+    }
+
+    public static void setSolver(SudokuSolver newSolver) {
+        solver = newSolver;
+    }
+
+    // Solo el tablero de un puzzle MEDIUM de solución única, como los de las partidas
     public static int[][] generate(int size) {
-        int[][] board = new int[size][size];
-        fillDiagonal(board, size);
-        if (solveSudoku(board, size)) {
-            removeNumbers(board, size);
+        return generate(size, Difficulty.MEDIUM).getBoard().toArray();
+    }
+
+    public static Puzzle generate(int size, Difficulty difficulty) {
+        return generate(size, difficulty, DEFAULT_BUDGET_MS);
+    }
+
+    // Quita pistas en orden aleatorio mientras la solución siga siendo única y la
+    // dificultad no supere la pedida. Si se agota el presupuesto devuelve el puzzle
+    // alcanzado hasta ese momento, con la dificultad que realmente tiene.
+    public static Puzzle generate(int size, Difficulty difficulty, long budgetMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        int[][] solution = generateSolution(size);
+        int[][] board = copyOf(solution);
+        int clues = size * size;
+        int minClues = minClues(size, difficulty);
+
+        for (int cell : shuffledCells(size)) {
+            if (clues <= minClues || System.nanoTime() > deadline) break;
+            int row = cell / size;
+            int col = cell % size;
+            int value = board[row][col];
+            board[row][col] = 0;
+            if (keepsUniqueSolution(board, difficulty)) {
+                clues--;
+            } else {
+                board[row][col] = value;
+            }
+        }
+        return new Puzzle(board, solution, checker.grade(board));
+    }
+
+    // Si el puzzle se resuelve solo con propagación la solución es única y no hace
+    // falta contar soluciones; la búsqueda (parando en 2) solo se usa para HARD.
+    private static boolean keepsUniqueSolution(int[][] board, Difficulty target) {
+        Difficulty grade = checker.grade(board);
+        if (grade.compareTo(target) > 0) return false;
+        return grade != Difficulty.HARD || checker.countSolutions(board, 2) == 1;
+    }
+
+    private static int minClues(int size, Difficulty difficulty) {
+        switch (difficulty) {
+            case EASY: return size * size * 45 / 100;
+            case MEDIUM: return size * size * 35 / 100;
+            default: return 0;
+        }
+    }
+
+    private static int[] shuffledCells(int size) {
+        int[] cells = new int[size * size];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = i;
+        }
+        for (int i = cells.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = cells[i];
+            cells[i] = cells[j];
+            cells[j] = tmp;
+        }
+        return cells;
+    }
+
+    private static int[][] copyOf(int[][] board) {
+        int[][] copy = new int[board.length][];
+        for (int row = 0; row < board.length; row++) {
+            copy[row] = board[row].clone();
         }
-        return board;
+        return copy;
+    }
+
+    // Tablero completo y válido
+    private static int[][] generateSolution(int size) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            int[][] board = new int[size][size];
+            fillDiagonal(board, size);
+            if (solver.solve(board)) {
+                return board;
+            }
+        }
+        throw new IllegalStateException("No se pudo generar un tablero de " + size + "x" + size);
     }
 
     private static void fillDiagonal(int[][] board, int size) {
@@ -45,75 +141,4 @@ public class SudokuGenerator {
         }
         return true;
     }
-
-    private static void removeNumbers(int[][] board, int size) {
-        int numbersToRemove = (size == 9) ? 40 : (size * size) / 2; // Ajuste según tamaño
-        while (numbersToRemove > 0) {
-            int row = random.nextInt(size);
-            int col = random.nextInt(size);
-            if (board[row][col] != 0) {
-                board[row][col] = 0;
-                numbersToRemove--;
-            }
-        }
-    }
-
-    private static boolean solveSudoku(int[][] board, int size) {
-        int row = -1, col = -1;
-        boolean isEmpty = false;
-        
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                if (board[i][j] == 0) {
-                    row = i;
-                    col = j;
-                    isEmpty = true;
-                    break;
-                }
-            }
-            if (isEmpty) break;
-        }
-
-        if (!isEmpty) return true;
-
-        for (int num = 1; num <= size; num++) {
-            if (isSafe(board, row, col, num, size)) {
-                board[row][col] = num;
-                if (solveSudoku(board, size)) return true;
-                board[row][col] = 0;
-            }
-        }
-        return false;
-    }
-
-    private static boolean isSafe(int[][] board, int row, int col, int num, int size) {
-        return !usedInRow(board, row, num, size) &&
-               !usedInCol(board, col, num, size) &&
-               !usedInBox(board, row - row % (int)Math.sqrt(size), 
-                         col - col % (int)Math.sqrt(size), num, size);
-    }
-
-    private static boolean usedInRow(int[][] board, int row, int num, int size) {
-        for (int col = 0; col < size; col++) {
-            if (board[row][col] == num) return true;
-        }
-        return false;
-    }
-
-    private static boolean usedInCol(int[][] board, int col, int num, int size) {
-        for (int row = 0; row < size; row++) {
-            if (board[row][col] == num) return true;
-        }
-        return false;
-    }
-
-    private static boolean usedInBox(int[][] board, int boxStartRow, int boxStartCol, int num, int size) {
-        int sqrt = (int) Math.sqrt(size);
-        for (int i = 0; i < sqrt; i++) {
-            for (int j = 0; j < sqrt; j++) {
-                if (board[boxStartRow + i][boxStartCol + j] == num) return true;
-            }
-        }
-        return false;
-    }
 }
\ No newline at end of file
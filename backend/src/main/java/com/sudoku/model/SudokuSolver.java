@@ -0,0 +1,13 @@
+package com.sudoku.model;
+
+// Estrategia de resolución usada por SudokuGenerator.
+// Las implementaciones deben poder compartirse entre hilos.
+public interface SudokuSolver {
+    // Resuelve el tablero en sitio. Devuelve false si no tiene solución
+    // o si se agotó el presupuesto de búsqueda de la implementación.
+    boolean solve(int[][] board);
+
+    // Cuenta soluciones sin modificar el tablero, deteniéndose al llegar a 'limit'.
+    // Si se agota el presupuesto de búsqueda devuelve 'limit' (se trata como no única).
+    int countSolutions(int[][] board, int limit);
+}
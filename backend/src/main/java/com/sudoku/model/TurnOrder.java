@@ -0,0 +1,52 @@
+package com.sudoku.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+// Asientos de una partida en orden de llegada y a quién le toca. El turno avanza en
+// círculo; si sale el jugador que tenía el turno, pasa al que se sentaba detrás.
+// No es thread-safe: lo protege el monitor de GameState.
+final class TurnOrder implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final List<Integer> seats = new ArrayList<>(GameRules.MAX_PLAYERS);
+    // Índice en seats, -1 si no hay nadie
+    private int current = -1;
+
+    void add(int playerId) {
+        seats.add(playerId);
+        if (current < 0) current = 0;
+    }
+
+    void remove(int playerId) {
+        int index = seats.indexOf(playerId);
+        if (index < 0) return;
+        seats.remove(index);
+        if (seats.isEmpty()) {
+            current = -1;
+        } else if (index < current) {
+            current--;
+        } else if (current >= seats.size()) {
+            current = 0;
+        }
+    }
+
+    void advance() {
+        if (!seats.isEmpty()) current = (current + 1) % seats.size();
+    }
+
+    void setCurrent(int playerId) {
+        int index = seats.indexOf(playerId);
+        if (index >= 0) current = index;
+    }
+
+    int current() {
+        return current < 0 ? -1 : seats.get(current);
+    }
+
+    // Jugadores en orden de asiento
+    List<Integer> seats() {
+        return seats;
+    }
+}
@@ -0,0 +1,148 @@
+package com.sudoku.server;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import com.sudoku.model.Board;
+import com.sudoku.server.GameWebSocketServer.GameMessage;
+
+// Fixed-layout binary frames for the hot messages, used by clients that negotiate the
+// "sudoku.bin.v1" subprotocol. Everything else stays JSON text on the same socket.
+// All integers are big-endian. Every frame starts with a one-byte type code:
+//   MAKE_MOVE   (c->s) playerId:int row:byte col:byte value:byte
+//   GAME_UPDATE (s->c) flags:byte boardVersion:int currentPlayer:int playerId:int
+//                      row:byte col:byte value:byte [board]
+//   GAME_START  (s->c) flags:byte playerId:int boardVersion:int board
+//   ERROR       (s->c) length:short utf8 bytes
+// flags: bit 0 = isMyTurn, bit 1 = a board follows. A board is encoded as in Board.writeTo.
+public final class BinaryProtocol {
+    public static final String SUBPROTOCOL = "sudoku.bin.v1";
+
+    public static final byte MAKE_MOVE = 1;
+    public static final byte GAME_UPDATE = 2;
+    public static final byte GAME_START = 3;
+    public static final byte ERROR = 4;
+
+    private static final int FLAG_MY_TURN = 1;
+    private static final int FLAG_BOARD = 2;
+    // Largest frame: GAME_UPDATE with a 16x16 board
+    public static final int MAX_FRAME = 20 + Board.encodedLength(16);
+    private static final int MAX_ERROR_BYTES = MAX_FRAME - 3;
+
+    private BinaryProtocol() {
+    }
+
+    public static boolean supports(String type) {
+        return typeCode(type) != 0;
+    }
+
+    // Writes the message into 'out' and flips it for sending. Returns false (leaving
+    // 'out' untouched) if the type has no binary layout.
+    public static boolean encode(GameMessage message, ByteBuffer out) {
+        byte code = typeCode(message.type);
+        switch (code) {
+            case MAKE_MOVE:
+                out.put(code).putInt(message.playerId)
+                    .put((byte) message.row).put((byte) message.col).put((byte) message.value);
+                break;
+            case GAME_UPDATE:
+                out.put(code).put(flags(message))
+                    .putInt(message.boardVersion).putInt(message.currentPlayer).putInt(message.playerId)
+                    .put((byte) message.row).put((byte) message.col).put((byte) message.value);
+                if (message.board != null) message.board.writeTo(out);
+                break;
+            case GAME_START:
+                out.put(code).put(flags(message)).putInt(message.playerId).putInt(message.boardVersion);
+                message.board.writeTo(out);
+                break;
+            case ERROR:
+                byte[] text = message.error == null ? new byte[0] : message.error.getBytes(StandardCharsets.UTF_8);
+                int length = Math.min(text.length, MAX_ERROR_BYTES);
+                out.put(code).putShort((short) length).put(text, 0, length);
+                break;
+            default:
+                return false;
+        }
+        out.flip();
+        return true;
+    }
+
+    // Rewrites the per-recipient fields of an encoded frame: the isMyTurn flag of
+    // GAME_UPDATE and GAME_START, and the playerId of GAME_START (on GAME_UPDATE it is
+    // the mover). Positions are absolute, so 'frame' may already be flipped.
+    public static void setRecipient(ByteBuffer frame, int playerId, boolean myTurn) {
+        byte code = frame.get(0);
+        if (code != GAME_UPDATE && code != GAME_START) return;
+        int flags = frame.get(1);
+        frame.put(1, (byte) (myTurn ? flags | FLAG_MY_TURN : flags & ~FLAG_MY_TURN));
+        if (code == GAME_START) frame.putInt(2, playerId);
+    }
+
+    public static GameMessage decode(ByteBuffer in) throws IOException {
+        try {
+            byte code = in.get();
+            switch (code) {
+                case MAKE_MOVE: {
+                    GameMessage message = new GameMessage("MAKE_MOVE");
+                    message.playerId = in.getInt();
+                    message.row = in.get();
+                    message.col = in.get();
+                    message.value = in.get();
+                    return message;
+                }
+                case GAME_UPDATE: {
+                    GameMessage message = new GameMessage("GAME_UPDATE");
+                    int flags = in.get();
+                    message.isMyTurn = (flags & FLAG_MY_TURN) != 0;
+                    message.boardVersion = in.getInt();
+                    message.currentPlayer = in.getInt();
+                    message.playerId = in.getInt();
+                    message.row = in.get();
+                    message.col = in.get();
+                    message.value = in.get();
+                    if ((flags & FLAG_BOARD) != 0) message.board = Board.readFrom(in);
+                    return message;
+                }
+                case GAME_START: {
+                    GameMessage message = new GameMessage("GAME_START");
+                    int flags = in.get();
+                    message.isMyTurn = (flags & FLAG_MY_TURN) != 0;
+                    message.playerId = in.getInt();
+                    message.boardVersion = in.getInt();
+                    message.board = Board.readFrom(in);
+                    return message;
+                }
+                case ERROR: {
+                    GameMessage message = new GameMessage("ERROR");
+                    byte[] text = new byte[in.getShort() & 0xFFFF];
+                    in.get(text);
+                    message.error = new String(text, StandardCharsets.UTF_8);
+                    return message;
+                }
+                default:
+                    throw new IOException("Unknown binary frame type " + code);
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated binary frame", e);
+        }
+    }
+
+    private static byte typeCode(String type) {
+        if (type == null) return 0;
+        switch (type) {
+            case "MAKE_MOVE": return MAKE_MOVE;
+            case "GAME_UPDATE": return GAME_UPDATE;
+            case "GAME_START": return GAME_START;
+            case "ERROR": return ERROR;
+            default: return 0;
+        }
+    }
+
+    private static byte flags(GameMessage message) {
+        int flags = message.isMyTurn ? FLAG_MY_TURN : 0;
+        if (message.board != null) flags |= FLAG_BOARD;
+        return (byte) flags;
+    }
+}
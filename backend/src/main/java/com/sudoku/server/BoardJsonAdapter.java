@@ -0,0 +1,55 @@
+package com.sudoku.server;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.sudoku.model.Board;
+
+// Writes a Board as the same nested JSON array the frontend already reads, straight
+// from the byte cells with no intermediate int[][].
+public class BoardJsonAdapter extends TypeAdapter<Board> {
+
+    @Override
+    public void write(JsonWriter out, Board board) throws IOException {
+        if (board == null) {
+            out.nullValue();
+            return;
+        }
+        int size = board.getSize();
+        out.beginArray();
+        for (int row = 0; row < size; row++) {
+            out.beginArray();
+            for (int col = 0; col < size; col++) {
+                out.value(board.get(row, col));
+            }
+            out.endArray();
+        }
+        out.endArray();
+    }
+
+    @Override
+    public Board read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        List<int[]> rows = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            List<Integer> cells = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext()) {
+                cells.add(in.nextInt());
+            }
+            in.endArray();
+            rows.add(cells.stream().mapToInt(Integer::intValue).toArray());
+        }
+        in.endArray();
+        return Board.of(rows.toArray(new int[0][]));
+    }
+}
@@ -0,0 +1,36 @@
+package com.sudoku.server;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Bounded pool of equally sized heap buffers for outbound binary frames. When the
+// pool is empty a new buffer is allocated; when it is full a released buffer is dropped.
+public class ByteBufferPool {
+    private final BlockingQueue<ByteBuffer> free;
+    private final int bufferSize;
+
+    public ByteBufferPool(int maxPooled, int bufferSize) {
+        this.free = new ArrayBlockingQueue<>(maxPooled);
+        this.bufferSize = bufferSize;
+    }
+
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = free.poll();
+        if (buffer == null) {
+            buffer = ByteBuffer.allocate(bufferSize);
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    public void release(ByteBuffer buffer) {
+        if (buffer.capacity() == bufferSize) {
+            free.offer(buffer);
+        }
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+}
@@ -1,35 +1,90 @@
 package com.sudoku.server;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+import javax.management.ObjectName;
+import javax.websocket.CloseReason;
 import javax.websocket.OnClose;
 import javax.websocket.OnError;
 import javax.websocket.OnMessage;
 import javax.websocket.OnOpen;
+import javax.websocket.PongMessage;
 import javax.websocket.Session;
 import javax.websocket.server.ServerEndpoint;
 
 import com.google.gson.Gson;
+import com.google.gson.annotations.JsonAdapter;
+import com.sudoku.model.Board;
+import com.sudoku.model.BoardSnapshot;
+import com.sudoku.model.Difficulty;
+import com.sudoku.model.GameMode;
+import com.sudoku.model.GameRules;
 import com.sudoku.model.GameState;
+import com.sudoku.model.MoveLog;
+import com.sudoku.service.GameEngine;
+import com.sudoku.service.LeaseWheel;
+import com.sudoku.service.SpectatorFeed;
 
-@ServerEndpoint(value = "/game")
+// WebSocket adapter over the GameEngine, which owns games, matchmaking and turns and is
+// shared with the RMI service. Every session gets an engine player id when it connects;
+// engine events are delivered to the sessions of this endpoint only.
+// Clients that offer the BinaryProtocol subprotocol get binary frames for moves and
+// game updates; everyone else keeps the JSON protocol.
+// A dropped connection keeps its seat for the engine's grace window. The SESSION message
+// sent on connect carries a resume token; a new connection that sends RESUME with it and
+// its last boardVersion takes the seat back and gets only the moves it missed.
+// Every session holds a lease on the engine's LeaseWheel, renewed by anything it sends
+// (pongs included). Half-way through IDLE_MS of silence it is pinged; at IDLE_MS it is
+// cleaned up as if onClose had fired, which a dead connection may never do.
+@ServerEndpoint(value = "/game", subprotocols = {BinaryProtocol.SUBPROTOCOL})
 public class GameWebSocketServer {
-    private static final Map<String, Session> sessions = new ConcurrentHashMap<>();
-    private static final Map<String, String> sessionToGameMap = new ConcurrentHashMap<>();
-    private static final Map<String, GameState> games = new ConcurrentHashMap<>();
+    public static final long IDLE_MS = Long.getLong("sudoku.ws.idleMs", 60_000);
+    private static final GameEngine engine = GameEngine.getInstance();
+    // Engine player id of each session, and the session of each player id
+    private static final Map<String, Integer> sessionPlayers = new ConcurrentHashMap<>();
+    private static final Map<Integer, Session> sessions = new ConcurrentHashMap<>();
+    private static final Map<String, SessionOutbox> outboxes = new ConcurrentHashMap<>();
     private static final Gson gson = new Gson();
+    private static final ByteBufferPool buffers = new ByteBufferPool(256, BinaryProtocol.MAX_FRAME);
+    // Sessions waiting in the lobby; they leave it when they create or join a game
+    private static final LobbyBroadcaster lobby = new LobbyBroadcaster(engine::getOpenGames, gson);
+    // Spectators: the game each one watches, and one room per watched game
+    private static final Map<String, String> spectating = new ConcurrentHashMap<>();
+    private static final Map<String, SpectatorRoom> rooms = new ConcurrentHashMap<>();
+    private static final SpectatorFeed spectatorFeed = new SpectatorFeed();
+    private static final Map<String, LeaseWheel.Lease> leases = new ConcurrentHashMap<>();
+    private static final AtomicLong expiredSessions = new AtomicLong();
+
+    static {
+        engine.addListener(new EngineEvents());
+        registerMetrics();
+    }
     
     @OnOpen
     public void onOpen(Session session) {
-        sessions.put(session.getId(), session);
+        SessionOutbox outbox = new SessionOutbox(session, isBinary(session), gson, buffers,
+            () -> buildGameState(session));
+        int playerId = engine.newPlayerId();
+        outboxes.put(session.getId(), outbox);
+        leases.put(session.getId(), engine.getLeaseWheel().add(IDLE_MS, new SessionLease(session)));
+        sessionPlayers.put(session.getId(), playerId);
+        sessions.put(playerId, session);
+        lobby.subscribe(session.getId(), outbox);
+        GameMessage welcome = new GameMessage("SESSION", null, playerId);
+        welcome.resumeToken = engine.resumeToken(playerId);
+        sendToSession(session, welcome);
         sendAvailableGames(session);
     }
     
     @OnMessage
     public void onMessage(String message, Session session) {
+        touch(session);
         try {
             GameMessage gameMessage = gson.fromJson(message, GameMessage.class);
             handleGameMessage(gameMessage, session);
@@ -38,16 +93,81 @@ public class GameWebSocketServer {
         }
     }
     
+    @OnMessage
+    public void onBinaryMessage(ByteBuffer message, Session session) {
+        touch(session);
+        try {
+            handleGameMessage(BinaryProtocol.decode(message), session);
+        } catch (Exception e) {
+            sendError(session, "Error processing message: " + e.getMessage());
+        }
+    }
+
+    // Answer to the idle ping
+    @OnMessage
+    public void onPong(PongMessage pong, Session session) {
+        touch(session);
+    }
+
     @OnClose
     public void onClose(Session session) {
-        String gameId = sessionToGameMap.get(session.getId());
-        if (gameId != null) {
-            handlePlayerDisconnect(session, gameId);
+        release(session);
+    }
+
+    // Drops everything held for the session. Runs from onClose and when its lease
+    // expires, so it must be safe to run twice.
+    private static void release(Session session) {
+        LeaseWheel.Lease lease = leases.remove(session.getId());
+        if (lease != null) lease.cancel();
+        Integer playerId = sessionPlayers.remove(session.getId());
+        if (playerId != null) {
+            // The seat is kept for the grace window and the engine tells the other players
+            // (on any transport). If another session already resumed this player, the
+            // check on the game's shard sees it and nothing happens.
+            engine.disconnect(playerId, () -> sessions.remove(playerId, session));
+            if (engine.gameIdOf(playerId) == null) sessions.remove(playerId, session);
         }
-        sessions.remove(session.getId());
-        sessionToGameMap.remove(session.getId());
+        lobby.unsubscribe(session.getId());
+        stopSpectating(session);
+        SessionOutbox outbox = outboxes.remove(session.getId());
+        if (outbox != null) outbox.close();
     }
     
+    private static void touch(Session session) {
+        LeaseWheel.Lease lease = leases.get(session.getId());
+        if (lease != null) lease.touch();
+    }
+
+    // Called on the lease wheel thread: sending a ping and closing are asynchronous
+    private static final class SessionLease implements LeaseWheel.Holder {
+        private final Session session;
+
+        SessionLease(Session session) {
+            this.session = session;
+        }
+
+        @Override
+        public void idle(LeaseWheel.Lease lease) {
+            try {
+                session.getAsyncRemote().sendPing(ByteBuffer.allocate(0));
+            } catch (IOException | RuntimeException e) {
+                // Nothing to ping; the lease expires at IDLE_MS anyway
+            }
+        }
+
+        @Override
+        public void expired(LeaseWheel.Lease lease) {
+            expiredSessions.incrementAndGet();
+            // The seat is kept for the engine's grace window, as with any dropped connection
+            release(session);
+            try {
+                session.close(new CloseReason(CloseReason.CloseCodes.GOING_AWAY, "Idle"));
+            } catch (IOException | RuntimeException e) {
+                // Already gone
+            }
+        }
+    }
+
     @OnError
     public void onError(Session session, Throwable throwable) {
         System.err.println("Error in session " + session.getId() + ": " + throwable.getMessage());
@@ -59,7 +179,7 @@ public class GameWebSocketServer {
                 createGame(message, session);
                 break;
             case "JOIN_GAME":
-                joinGame(session);
+                joinGame(message, session);
                 break;
             case "MAKE_MOVE":
                 handleMove(message, session);
@@ -67,143 +187,408 @@ public class GameWebSocketServer {
             case "GET_AVAILABLE_GAMES":
                 sendAvailableGames(session);
                 break;
+            case "SPECTATE":
+                spectate(message, session);
+                break;
+            case "RESYNC":
+                // Client detected a boardVersion gap: send it the full board
+                sendGameState(session);
+                break;
+            case "RESUME":
+                resume(message, session);
+                break;
+        }
+    }
+
+    // Takes the seat of the token's player after a reconnect. The catch-up is built on the
+    // game's shard, so the RESUMED moves end exactly where the live GAME_UPDATEs start.
+    private void resume(GameMessage message, Session session) {
+        int playerId = engine.playerOf(message.resumeToken);
+        Integer fresh = sessionPlayers.get(session.getId());
+        if (playerId < 0 || fresh == null) {
+            sendError(session, "Token de reanudación no válido");
+            return;
+        }
+        boolean rebind = fresh != playerId;
+        int knownVersion = message.boardVersion;
+        engine.resume(playerId, game -> {
+            Session previous = sessions.put(playerId, session);
+            if (rebind) {
+                sessionPlayers.put(session.getId(), playerId);
+                sessions.remove(fresh, session);
+            }
+            if (previous != null && previous != session) {
+                // The old connection has not noticed it is gone yet
+                sessionPlayers.remove(previous.getId(), playerId);
+                CompletableFuture.runAsync(() -> closeReplaced(previous));
+            }
+            lobby.unsubscribe(session.getId());
+            stopSpectating(session);
+            sendToSession(session, resumed(game, playerId, knownVersion));
+        }).whenComplete((game, error) -> {
+            if (error != null || game == null) {
+                sendError(session, "No hay partida que reanudar");
+            } else if (rebind) {
+                // The id handed out on connect is not needed any more
+                engine.leave(fresh);
+            }
+        });
+    }
+
+    // Moves after the client's version in the MOVES layout, or the full board if it is
+    // too far behind or has none
+    private static GameMessage resumed(GameState game, int playerId, int knownVersion) {
+        long[] moves = game.getMoveLog().since(knownVersion, GameEngine.RESUME_MAX_MOVES);
+        GameMessage message;
+        if (moves == null) {
+            message = new GameMessage("RESUMED");
+            BoardSnapshot snapshot = game.getSnapshot();
+            message.board = snapshot.getBoard();
+            message.boardVersion = snapshot.getVersion();
+        } else {
+            message = SpectatorRoom.movesMessage(knownVersion, moves);
+            message.type = "RESUMED";
+        }
+        message.gameId = engine.gameIdOf(playerId);
+        message.playerId = playerId;
+        message.resumeToken = engine.resumeToken(playerId);
+        message.currentPlayer = game.getCurrentPlayerId();
+        message.isMyTurn = game.isTurnOf(playerId);
+        message.team = game.getTeam(playerId);
+        return message;
+    }
+
+    private static void closeReplaced(Session session) {
+        try {
+            session.close(new CloseReason(CloseReason.CloseCodes.NORMAL_CLOSURE, "Resumed elsewhere"));
+        } catch (IOException e) {
+            // Already gone
         }
     }
 
     private void createGame(GameMessage message, Session session) {
-        String gameId = UUID.randomUUID().toString();
-        GameState gameState = new GameState(message.size);
-        gameState.addPlayer(session.getId(), 1);
-        games.put(gameId, gameState);
-        sessionToGameMap.put(session.getId(), gameId);
+        Integer playerId = sessionPlayers.get(session.getId());
+        GameRules rules = rulesOf(message, session);
+        if (playerId == null || rules == null) return;
+        stopSpectating(session);
+        String gameId = engine.createGame(playerId, message.size, Difficulty.MEDIUM, rules);
+        lobby.unsubscribe(session.getId());
         
         // Notify creator
-        sendToSession(session, new GameMessage("GAME_CREATED", gameId, 1));
-        broadcastAvailableGames();
-    }
-
-    private void joinGame(Session session) {
-        // Find available game
-        for (Map.Entry<String, GameState> entry : games.entrySet()) {
-            GameState game = entry.getValue();
-            if (!game.isFull()) {
-                String gameId = entry.getKey();
-                game.addPlayer(session.getId(), 2);
-                sessionToGameMap.put(session.getId(), gameId);
-                
-                // Start game
-                startGame(gameId);
+        sendToSession(session, new GameMessage("GAME_CREATED", gameId, playerId));
+    }
+
+    private void joinGame(GameMessage message, Session session) {
+        Integer playerId = sessionPlayers.get(session.getId());
+        GameRules rules = rulesOf(message, session);
+        if (playerId == null || rules == null) return;
+        stopSpectating(session);
+        // Take an open game from the matchmaking queue (any size if none requested). The
+        // seat is taken on the game's shard and the reply is sent from there. If this
+        // player fills the game, the engine starts it and GAME_START goes out through
+        // EngineEvents, to WebSocket and RMI players alike.
+        engine.join(playerId, message.size, Difficulty.MEDIUM, rules).whenComplete((open, error) -> {
+            if (error != null || open == null) {
+                sendError(session, "No hay partidas disponibles");
                 return;
             }
-        }
-        sendError(session, "No hay partidas disponibles");
-    }
+            lobby.unsubscribe(session.getId());
 
-    private void startGame(String gameId) {
-        GameState game = games.get(gameId);
-        if (game == null) return;
+            GameState game = open.getGame();
+            if (!game.isGameStarted()) {
+                // Room still has free seats: the game starts when the last one is taken
+                GameMessage joined = new GameMessage("GAME_JOINED", open.getGameId(), playerId);
+                joined.team = game.getTeam(playerId);
+                sendToSession(session, joined);
+            }
+        });
+    }
 
-        // Generate board and start game
-        game.initializeBoard();
-        game.setCurrentPlayer(1);
-        game.setGameStarted(true);
+    // Rules requested by CREATE_GAME / JOIN_GAME; two players taking turns when none are
+    // given. Sends an error and returns null if they are not valid.
+    private GameRules rulesOf(GameMessage message, Session session) {
+        if (message.mode == null && message.maxPlayers == null && message.teams == null) {
+            return GameRules.TWO_PLAYER_TURNS;
+        }
+        try {
+            GameMode mode = message.mode == null ? GameMode.TURNS : GameMode.valueOf(message.mode);
+            return GameRules.of(mode, message.maxPlayers == null ? 2 : message.maxPlayers,
+                message.teams == null ? 0 : message.teams);
+        } catch (IllegalArgumentException e) {
+            sendError(session, "Reglas no válidas: " + e.getMessage());
+            return null;
+        }
+    }
 
-        // Notify both players
-        game.getPlayers().forEach((playerId, sessionId) -> {
-            Session playerSession = sessions.get(sessionId);
-            if (playerSession != null) {
-                GameMessage startMessage = new GameMessage("GAME_START");
-                startMessage.playerId = playerId;
-                startMessage.board = game.getBoard();
-                startMessage.isMyTurn = playerId == 1;
-                sendToSession(playerSession, startMessage);
+    // Watch a game without taking a seat. The spectator gets the board on the next batch
+    // and then MOVES messages with every move after it.
+    private void spectate(GameMessage message, Session session) {
+        GameState game = engine.getGame(message.gameId);
+        if (game == null) {
+            sendError(session, "La partida no existe");
+            return;
+        }
+        Integer playerId = sessionPlayers.get(session.getId());
+        if (playerId == null || engine.gameIdOf(playerId) != null) {
+            sendError(session, "Ya estás jugando una partida");
+            return;
+        }
+        SessionOutbox outbox = outboxes.get(session.getId());
+        if (outbox == null) return;
+        stopSpectating(session);
+        lobby.unsubscribe(session.getId());
+        spectating.put(session.getId(), message.gameId);
+        rooms.compute(message.gameId, (gameId, room) -> {
+            if (room == null) {
+                room = new SpectatorRoom();
+                spectatorFeed.watch(gameId, game, room);
             }
+            room.join(session.getId(), outbox);
+            return room;
         });
-        
-        broadcastAvailableGames();
     }
 
-    private void handleMove(GameMessage message, Session session) {
-        String gameId = sessionToGameMap.get(session.getId());
+    private static void stopSpectating(Session session) {
+        String gameId = spectating.remove(session.getId());
         if (gameId == null) return;
+        rooms.computeIfPresent(gameId, (id, room) -> {
+            room.leave(session.getId());
+            if (!room.isEmpty()) return room;
+            spectatorFeed.unwatch(id);
+            return null;
+        });
+    }
 
-        
-        GameState game = games.get(gameId);
-        if (game == null) return;
-
-        if (game.getCurrentPlayerId() != message.playerId) {
-            sendError(session, "No es tu turno");
-            return;
-        }
+    private void handleMove(GameMessage message, Session session) {
+        Integer playerId = sessionPlayers.get(session.getId());
+        if (playerId == null) return;
 
-        if (game.makeMove(message.row, message.col, message.value)) {
-            game.switchTurn(); // Cambiar turno antes de notificar
-            broadcastGameState(gameId); // Notificar a ambos jugadores
-        } else {
-            sendError(session, "Movimiento inválido");
-        }
+        // The player comes from the session, not from the message. This thread only
+        // queues the move: the engine checks the turn and applies it on the game's shard,
+        // where concurrent RACE moves on the same cell are settled in arrival order and
+        // the later ones get CELL_TAKEN. Accepted moves come back to every player through
+        // EngineEvents; rejections are answered from the shard.
+        engine.makeMove(playerId, message.row, message.col, message.value).thenAccept(result -> {
+            switch (result) {
+                case ACCEPTED:
+                case NO_GAME:
+                    break;
+                case NOT_STARTED:
+                    sendError(session, "La partida no ha empezado");
+                    break;
+                case NOT_YOUR_TURN:
+                    sendError(session, "No es tu turno");
+                    break;
+                case CELL_TAKEN:
+                    sendError(session, "Celda ya ocupada");
+                    break;
+                default:
+                    sendError(session, "Movimiento inválido");
+            }
+        });
     }
 
+    // O(1): the matchmaker counts open games as they are offered and claimed. Lobby
+    // sessions also get the count from the LobbyBroadcaster whenever it changes.
     private void sendAvailableGames(Session session) {
-        int availableGames = (int) games.values().stream()
-            .filter(game -> !game.isFull())
-            .count();
-        
-        GameMessage message = new GameMessage("AVAILABLE_GAMES");
-        message.availableGames = availableGames;
-        sendToSession(session, message);
+        sendToSession(session, lobby.current());
     }
 
-    private void broadcastAvailableGames() {
-        sessions.values().forEach(this::sendAvailableGames);
+    private void sendGameState(Session session) {
+        GameMessage stateMessage = buildGameState(session);
+        if (stateMessage == null) {
+            sendError(session, "No estás en ninguna partida");
+            return;
+        }
+        sendToSession(session, stateMessage);
+    }
+
+    // Full GAME_UPDATE for the session's game, or null if it is not in one
+    private static GameMessage buildGameState(Session session) {
+        Integer playerId = sessionPlayers.get(session.getId());
+        String gameId = playerId == null ? null : engine.gameIdOf(playerId);
+        if (gameId == null) gameId = spectating.get(session.getId());
+        GameState game = engine.getGame(gameId);
+        if (game == null) return null;
+
+        GameMessage stateMessage = new GameMessage("GAME_UPDATE");
+        BoardSnapshot snapshot = game.getSnapshot();
+        stateMessage.board = snapshot.getBoard();
+        stateMessage.boardVersion = snapshot.getVersion();
+        stateMessage.currentPlayer = game.getCurrentPlayerId();
+        stateMessage.isMyTurn = playerId != null && game.isTurnOf(playerId);
+        return stateMessage;
     }
 
     public void broadcastGameState(String gameId) {
-        GameState game = games.get(gameId);
+        GameState game = engine.getGame(gameId);
         if (game == null) return;
     
         GameMessage stateMessage = new GameMessage("GAME_UPDATE");
-        stateMessage.board = game.getBoard();
+        BoardSnapshot snapshot = game.getSnapshot();
+        stateMessage.board = snapshot.getBoard();
+        stateMessage.boardVersion = snapshot.getVersion();
         stateMessage.currentPlayer = game.getCurrentPlayerId();
-    
-        // Enviar a todos los jugadores en el juego
-        game.getPlayers().forEach((playerId, sessionId) -> {
-            Session playerSession = sessions.get(sessionId);
+        // Enviar a todos los jugadores en el juego; el mensaje compartido no se modifica
+        sendToPlayers(game, new SharedFrame(stateMessage));
+    }
+
+    // Sends this endpoint's copy of an event to the game's WebSocket players; the others
+    // belong to another transport
+    private static void sendToPlayers(GameState game, SharedFrame frame) {
+        game.getPlayers().keySet().forEach(playerId -> {
+            Session playerSession = sessions.get(playerId);
             if (playerSession != null) {
-                stateMessage.isMyTurn = (game.getCurrentPlayerId() == playerId);
-                sendToSession(playerSession, stateMessage);
+                sendToSession(playerSession, frame, playerId, game.isTurnOf(playerId));
             }
         });
     }
-    private void handlePlayerDisconnect(Session session, String gameId) {
-        GameState game = games.get(gameId);
-        if (game != null) {
-            game.removePlayer(session.getId());
-            if (game.getPlayers().isEmpty()) {
-                games.remove(gameId);
-            } else {
-
-                // Notify remaining player
-                game.getPlayers().forEach((playerId, sessionId) -> {
-                    Session playerSession = sessions.get(sessionId);
-                    if (playerSession != null) {
-                        sendToSession(playerSession, new GameMessage("PLAYER_DISCONNECTED"));
-                    }
-                });
+
+    private static void sendToPlayers(GameState game, GameMessage message) {
+        game.getPlayers().keySet().forEach(playerId -> {
+            Session playerSession = sessions.get(playerId);
+            if (playerSession != null) {
+                sendToSession(playerSession, message);
             }
-            broadcastAvailableGames();
+        });
+    }
+
+    // Engine events, called on the game's shard. Sending only queues on the session
+    // outboxes, so it never blocks the shard.
+    private static final class EngineEvents implements GameEngine.Listener {
+        @Override
+        public void gameStarted(String gameId, GameState game) {
+            // One immutable snapshot gives every player the same board and version, and it
+            // is encoded once; each copy only differs in playerId and isMyTurn
+            BoardSnapshot snapshot = game.getSnapshot();
+            GameMessage startMessage = new GameMessage("GAME_START");
+            startMessage.board = snapshot.getBoard();
+            startMessage.boardVersion = snapshot.getVersion();
+            sendToPlayers(game, new SharedFrame(startMessage));
+        }
+
+        // Sends only the move and the resulting boardVersion. Clients apply it to their
+        // copy of the board and send RESYNC if they missed a version.
+        @Override
+        public void moveMade(String gameId, GameState game, int playerId, int row, int col, int value, int boardVersion) {
+            GameMessage update = new GameMessage("GAME_UPDATE");
+            update.row = row;
+            update.col = col;
+            update.value = value;
+            update.playerId = playerId;
+            update.boardVersion = boardVersion;
+            update.currentPlayer = game.getCurrentPlayerId();
+            sendToPlayers(game, new SharedFrame(update));
+        }
+
+        @Override
+        public void gameOver(String gameId, GameState game, int winnerId) {
+            sendToPlayers(game, new GameMessage("GAME_OVER", gameId, winnerId));
+        }
+
+        @Override
+        public void playerLeft(String gameId, GameState game, int playerId) {
+            // Notify remaining players. Events of different games come from different
+            // shards, so this can reach a player after the GAME_START of their next game:
+            // the gameId lets the client ignore it.
+            sendToPlayers(game, new GameMessage("PLAYER_DISCONNECTED", gameId, playerId));
+        }
+
+        @Override
+        public void playerDisconnected(String gameId, GameState game, int playerId) {
+            // The seat is kept: the player may still come back within the grace window.
+            // PLAYER_DISCONNECTED is sent if it does not.
+            sendToPlayers(game, new GameMessage("PLAYER_AWAY", gameId, playerId));
+        }
+
+        @Override
+        public void playerReconnected(String gameId, GameState game, int playerId) {
+            sendToPlayers(game, new GameMessage("PLAYER_RECONNECTED", gameId, playerId));
+        }
+
+        @Override
+        public void gameExpired(String gameId, GameState game) {
+            // Players go back to the lobby
+            sendToPlayers(game, new GameMessage("GAME_EXPIRED", gameId, 0));
+            game.getPlayers().keySet().forEach(playerId -> {
+                Session playerSession = sessions.get(playerId);
+                SessionOutbox outbox = playerSession == null ? null : outboxes.get(playerSession.getId());
+                if (outbox != null) lobby.subscribe(playerSession.getId(), outbox);
+            });
+        }
+
+        @Override
+        public void gameClosed(String gameId) {
+            // Spectators stay connected but the game will not change any more
+            if (rooms.remove(gameId) != null) spectatorFeed.unwatch(gameId);
         }
     }
 
-    private void sendToSession(Session session, GameMessage message) {
+    private static void registerMetrics() {
         try {
-            session.getBasicRemote().sendText(gson.toJson(message));
-        } catch (IOException e) {
-            System.err.println("Error sending message to session " + session.getId() + ": " + e.getMessage());
+            ManagementFactory.getPlatformMBeanServer()
+                .registerMBean(new Metrics(), new ObjectName("com.sudoku:type=WebSocketSessions"));
+        } catch (Exception e) {
+            System.err.println("Could not register WebSocket metrics: " + e.getMessage());
         }
     }
 
-    private void sendError(Session session, String error) {
+    private static final class Metrics implements WebSocketSessionsMXBean {
+        @Override
+        public int getSessions() {
+            return outboxes.size();
+        }
+
+        @Override
+        public int getPlayers() {
+            return sessions.size();
+        }
+
+        @Override
+        public int getLobbySessions() {
+            return lobby.getSubscribers();
+        }
+
+        @Override
+        public int getSpectators() {
+            return spectating.size();
+        }
+
+        @Override
+        public long getQueuedFrames() {
+            long queued = 0;
+            for (SessionOutbox outbox : outboxes.values()) {
+                queued += outbox.getPending();
+            }
+            return queued;
+        }
+
+        @Override
+        public long getExpiredSessions() {
+            return expiredSessions.get();
+        }
+    }
+
+    // Encodes now and queues for an asynchronous write; never blocks on the socket
+    private static void sendToSession(Session session, GameMessage message) {
+        SessionOutbox outbox = outboxes.get(session.getId());
+        if (outbox != null) {
+            outbox.send(message);
+        }
+    }
+
+    private static void sendToSession(Session session, SharedFrame frame, int playerId, boolean myTurn) {
+        SessionOutbox outbox = outboxes.get(session.getId());
+        if (outbox != null) {
+            outbox.send(frame, playerId, myTurn);
+        }
+    }
+
+    private static boolean isBinary(Session session) {
+        return BinaryProtocol.SUBPROTOCOL.equals(session.getNegotiatedSubprotocol());
+    }
+
+    private static void sendError(Session session, String error) {
         GameMessage errorMessage = new GameMessage("ERROR");
         errorMessage.error = error;
         sendToSession(session, errorMessage);
@@ -211,25 +596,39 @@ public class GameWebSocketServer {
 
     
     // Clase interna para mensajes del juego
-    private static class GameMessage {
-        String type;
-        int size;
-        String gameId;
-        int playerId;
-        int[][] board;
-        int row;
-        int col;
-        int value;
-        boolean isMyTurn;
-        int currentPlayer;
-        int availableGames;
-        String error;
-
-        GameMessage(String type) {
+    public static class GameMessage {
+        public String type;
+        public int size;
+        public String gameId;
+        public int playerId;
+        // Only set on GAME_START and full GAME_UPDATE snapshots
+        @JsonAdapter(BoardJsonAdapter.class)
+        public Board board;
+        public int boardVersion;
+        public int row;
+        public int col;
+        public int value;
+        public boolean isMyTurn;
+        public int currentPlayer;
+        public int availableGames;
+        // MOVES (spectators): boardVersion, row, col, value, playerId for each move
+        public int[] moves;
+        // CREATE_GAME / JOIN_GAME rules: "TURNS" or "RACE", seats (2-8) and teams (0 = none).
+        // Boxed so they are left out of every other message.
+        public String mode;
+        public Integer maxPlayers;
+        public Integer teams;
+        // GAME_JOINED: the player's team, -1 without teams
+        public Integer team;
+        // SESSION / RESUMED: token to send back in RESUME after a reconnect
+        public String resumeToken;
+        public String error;
+
+        public GameMessage(String type) {
             this.type = type;
         }
 
-        GameMessage(String type, String gameId, int playerId) {
+        public GameMessage(String type, String gameId, int playerId) {
             this.type = type;
             this.gameId = gameId;
             this.playerId = playerId;
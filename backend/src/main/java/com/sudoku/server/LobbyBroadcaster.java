@@ -0,0 +1,69 @@
+package com.sudoku.server;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import com.google.gson.Gson;
+import com.sudoku.server.GameWebSocketServer.GameMessage;
+
+// Keeps lobby sessions (connected but not in a game) up to date with the number of
+// open games. Game events do not push anything themselves: a single daemon thread
+// reads the count every INTERVAL_MS and, only when it changed, serializes one
+// AVAILABLE_GAMES message and queues that same text on every lobby outbox.
+public class LobbyBroadcaster {
+    public static final long INTERVAL_MS = Long.getLong("sudoku.ws.lobbyIntervalMs", 250);
+
+    private final Map<String, SessionOutbox> subscribers = new ConcurrentHashMap<>();
+    private final IntSupplier openGames;
+    private final Gson gson;
+    private final ScheduledExecutorService ticker;
+    // Only touched by the ticker thread
+    private int published = -1;
+
+    public LobbyBroadcaster(IntSupplier openGames, Gson gson) {
+        this.openGames = openGames;
+        this.gson = gson;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "lobby-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, INTERVAL_MS, INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public void subscribe(String sessionId, SessionOutbox outbox) {
+        subscribers.put(sessionId, outbox);
+    }
+
+    public void unsubscribe(String sessionId) {
+        subscribers.remove(sessionId);
+    }
+
+    public int getSubscribers() {
+        return subscribers.size();
+    }
+
+    // AVAILABLE_GAMES with the current count, for a session that asks directly
+    public GameMessage current() {
+        GameMessage message = new GameMessage("AVAILABLE_GAMES");
+        message.availableGames = openGames.getAsInt();
+        return message;
+    }
+
+    private void tick() {
+        try {
+            GameMessage message = current();
+            if (message.availableGames == published) return;
+            published = message.availableGames;
+            String json = gson.toJson(message);
+            subscribers.values().forEach(outbox -> outbox.sendText(message.type, json));
+        } catch (RuntimeException e) {
+            // An exception would cancel the scheduled task
+            System.err.println("Error broadcasting lobby: " + e.getMessage());
+        }
+    }
+}
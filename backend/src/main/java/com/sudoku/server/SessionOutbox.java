@@ -0,0 +1,257 @@
+package com.sudoku.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.websocket.CloseReason;
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+
+import com.google.gson.Gson;
+import com.sudoku.server.GameWebSocketServer.GameMessage;
+
+// Bounded outbound queue for one WebSocket session. Messages are encoded when they are
+// queued and written with getAsyncRemote(), one frame in flight at a time, so the caller
+// never blocks on a slow socket. Only the latest AVAILABLE_GAMES is kept, and a full
+// GAME_UPDATE board replaces any GAME_UPDATE or spectator MOVES still pending. If the
+// queue fills up, pending move updates collapse into one snapshot from 'resync'. A
+// session that still cannot keep up, or whose current write has been pending longer
+// than SEND_TIMEOUT_MS, is closed.
+// Tyrus may run endpoint callbacks (e.g. onClose) inside a send, so the outbox lock is
+// only held to pick the next frame, never while calling into the container.
+public class SessionOutbox {
+    public static final int QUEUE_CAPACITY = Integer.getInteger("sudoku.ws.queueCapacity", 64);
+    public static final long SEND_TIMEOUT_MS = Long.getLong("sudoku.ws.sendTimeoutMs", 5_000);
+
+    private static final class Frame {
+        final String type;
+        // GAME_UPDATE carrying the whole board
+        final boolean snapshot;
+        final String text;
+        final ByteBuffer binary;
+
+        Frame(GameMessage message, String text, ByteBuffer binary) {
+            this(message.type, "GAME_UPDATE".equals(message.type) && message.board != null, text, binary);
+        }
+
+        Frame(String type, boolean snapshot, String text, ByteBuffer binary) {
+            this.type = type;
+            this.snapshot = snapshot;
+            this.text = text;
+            this.binary = binary;
+        }
+    }
+
+    private final Session session;
+    private final boolean binary;
+    private final Gson gson;
+    private final ByteBufferPool buffers;
+    private final Supplier<GameMessage> resync;
+    private final Deque<Frame> pending = new ArrayDeque<>();
+    private boolean inFlight;
+    private long inFlightSince;
+    private boolean closed;
+
+    // resync builds a full GAME_UPDATE for this session, or returns null if it has no game
+    public SessionOutbox(Session session, boolean binary, Gson gson, ByteBufferPool buffers,
+                         Supplier<GameMessage> resync) {
+        this.session = session;
+        this.binary = binary;
+        this.gson = gson;
+        this.buffers = buffers;
+        this.resync = resync;
+        session.getAsyncRemote().setSendTimeout(SEND_TIMEOUT_MS);
+    }
+
+    public void send(GameMessage message) {
+        send(encode(message));
+    }
+
+    // Queues this session's copy of an event encoded once for all its recipients
+    public void send(SharedFrame shared, int playerId, boolean myTurn) {
+        GameMessage message = shared.getMessage();
+        if (binary && BinaryProtocol.supports(message.type)) {
+            ByteBuffer buffer = buffers.acquire();
+            shared.writeBinary(buffer, playerId, myTurn);
+            send(new Frame(message, null, buffer));
+        } else {
+            send(new Frame(message, shared.json(playerId, myTurn), null));
+        }
+    }
+
+    // Queues JSON text the caller already serialized once for many sessions. Only for
+    // types without a binary layout, which binary clients also receive as text.
+    public void sendText(String type, String json) {
+        send(new Frame(type, false, json, null));
+    }
+
+    private void send(Frame frame) {
+        boolean stalled = false;
+        boolean overflow = false;
+        Frame next = null;
+        synchronized (this) {
+            if (closed) {
+                release(frame);
+                return;
+            }
+            // The container does not always time out a write whose peer stopped reading
+            if (inFlight && System.nanoTime() - inFlightSince > TimeUnit.MILLISECONDS.toNanos(SEND_TIMEOUT_MS)) {
+                release(frame);
+                discardPending();
+                stalled = true;
+            } else if (!enqueue(frame)) {
+                overflow = true;
+            } else {
+                next = claimNext();
+            }
+        }
+        if (stalled) {
+            closeSession("Slow consumer: write pending for more than " + SEND_TIMEOUT_MS + " ms");
+        } else if (overflow) {
+            overflow(frame);
+        } else if (next != null) {
+            write(next);
+        }
+    }
+
+    public synchronized int getPending() {
+        return pending.size();
+    }
+
+    // Drops everything still queued; used when the session is gone
+    public synchronized void close() {
+        discardPending();
+    }
+
+    private void discardPending() {
+        closed = true;
+        pending.forEach(this::release);
+        pending.clear();
+    }
+
+    private Frame encode(GameMessage message) {
+        if (binary && BinaryProtocol.supports(message.type)) {
+            ByteBuffer buffer = buffers.acquire();
+            BinaryProtocol.encode(message, buffer);
+            return new Frame(message, null, buffer);
+        }
+        return new Frame(message, gson.toJson(message), null);
+    }
+
+    // Applies the coalescing rules. Returns false if the frame does not fit.
+    private boolean enqueue(Frame frame) {
+        if ("AVAILABLE_GAMES".equals(frame.type)) {
+            removePending("AVAILABLE_GAMES");
+        } else if (frame.snapshot) {
+            removePending("GAME_UPDATE");
+            removePending("MOVES");
+        }
+        if (pending.size() >= QUEUE_CAPACITY) return false;
+        pending.addLast(frame);
+        return true;
+    }
+
+    // Queue full: a full board makes the pending move updates redundant; if that does
+    // not free enough room the client is too slow and gets disconnected
+    private void overflow(Frame frame) {
+        boolean moveUpdate = "GAME_UPDATE".equals(frame.type) || "MOVES".equals(frame.type);
+        GameMessage snapshot = moveUpdate ? resync.get() : null;
+        release(frame);
+        if (snapshot != null) {
+            Frame replacement = encode(snapshot);
+            Frame next;
+            synchronized (this) {
+                if (closed) {
+                    release(replacement);
+                    return;
+                }
+                if (!enqueue(replacement)) {
+                    release(replacement);
+                    replacement = null;
+                }
+                next = claimNext();
+            }
+            if (next != null) write(next);
+            if (replacement != null) return;
+        }
+        if (markClosed()) closeSession("Slow consumer: outbound queue full");
+    }
+
+    private void removePending(String type) {
+        for (Iterator<Frame> it = pending.iterator(); it.hasNext();) {
+            Frame queued = it.next();
+            if (queued.type.equals(type)) {
+                it.remove();
+                release(queued);
+            }
+        }
+    }
+
+    // Called with the lock held. Returns the frame the caller must write, if any.
+    private Frame claimNext() {
+        if (inFlight || closed) return null;
+        Frame frame = pending.pollFirst();
+        if (frame != null) {
+            inFlight = true;
+            inFlightSince = System.nanoTime();
+        }
+        return frame;
+    }
+
+    private void write(Frame frame) {
+        try {
+            RemoteEndpoint.Async remote = session.getAsyncRemote();
+            if (frame.binary != null) {
+                remote.sendBinary(frame.binary, result -> completed(frame, result));
+            } else {
+                remote.sendText(frame.text, result -> completed(frame, result));
+            }
+        } catch (RuntimeException e) {
+            // The session was closed underneath us; onClose cleans up
+            release(frame);
+            close();
+        }
+    }
+
+    private void completed(Frame frame, SendResult result) {
+        release(frame);
+        if (!result.isOK()) {
+            if (markClosed() && session.isOpen()) {
+                closeSession("Slow consumer: " + result.getException());
+            }
+            return;
+        }
+        Frame next;
+        synchronized (this) {
+            inFlight = false;
+            next = claimNext();
+        }
+        if (next != null) write(next);
+    }
+
+    // Returns true only for the caller that actually closed the outbox
+    private synchronized boolean markClosed() {
+        if (closed) return false;
+        discardPending();
+        return true;
+    }
+
+    private void closeSession(String reason) {
+        System.err.println("Closing session " + session.getId() + ". " + reason);
+        try {
+            session.close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, "Slow consumer"));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error closing session " + session.getId() + ": " + e.getMessage());
+        }
+    }
+
+    private void release(Frame frame) {
+        if (frame.binary != null) buffers.release(frame.binary);
+    }
+}
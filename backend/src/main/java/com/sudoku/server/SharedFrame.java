@@ -0,0 +1,80 @@
+package com.sudoku.server;
+
+import java.nio.ByteBuffer;
+import java.util.Set;
+
+import com.google.gson.ExclusionStrategy;
+import com.google.gson.FieldAttributes;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.sudoku.server.GameWebSocketServer.GameMessage;
+
+// One game event encoded once for all of its recipients. Only isMyTurn, and on
+// GAME_START the recipient's playerId, differ between players: the JSON is serialized
+// without them and they are appended per recipient, and the binary frame is copied
+// and patched in place. Each encoding is built on first use.
+public final class SharedFrame {
+    private static final Gson withoutTurn = withoutFields("isMyTurn");
+    private static final Gson withoutRecipient = withoutFields("isMyTurn", "playerId");
+
+    private final GameMessage message;
+    // GAME_START carries the recipient's playerId; GAME_UPDATE carries the mover's
+    private final boolean perPlayerId;
+    // Common JSON without the closing brace
+    private String jsonPrefix;
+    // When only isMyTurn varies there are just two texts: [false, true]
+    private final String[] jsonByTurn = new String[2];
+    private ByteBuffer binary;
+
+    public SharedFrame(GameMessage message) {
+        this.message = message;
+        this.perPlayerId = "GAME_START".equals(message.type);
+    }
+
+    public GameMessage getMessage() {
+        return message;
+    }
+
+    public synchronized String json(int playerId, boolean myTurn) {
+        if (jsonPrefix == null) {
+            String json = (perPlayerId ? withoutRecipient : withoutTurn).toJson(message);
+            jsonPrefix = json.substring(0, json.length() - 1);
+        }
+        if (perPlayerId) {
+            return jsonPrefix + ",\"playerId\":" + playerId + ",\"isMyTurn\":" + myTurn + "}";
+        }
+        int turn = myTurn ? 1 : 0;
+        if (jsonByTurn[turn] == null) {
+            jsonByTurn[turn] = jsonPrefix + ",\"isMyTurn\":" + myTurn + "}";
+        }
+        return jsonByTurn[turn];
+    }
+
+    // Copies the frame for one recipient into 'out' and flips it. Returns false if the
+    // message type has no binary layout.
+    public synchronized boolean writeBinary(ByteBuffer out, int playerId, boolean myTurn) {
+        if (!BinaryProtocol.supports(message.type)) return false;
+        if (binary == null) {
+            binary = ByteBuffer.allocate(BinaryProtocol.MAX_FRAME);
+            BinaryProtocol.encode(message, binary);
+        }
+        out.put(binary.duplicate()).flip();
+        BinaryProtocol.setRecipient(out, playerId, myTurn);
+        return true;
+    }
+
+    private static Gson withoutFields(String... names) {
+        Set<String> skipped = Set.of(names);
+        return new GsonBuilder().setExclusionStrategies(new ExclusionStrategy() {
+            @Override
+            public boolean shouldSkipField(FieldAttributes field) {
+                return field.getDeclaringClass() == GameMessage.class && skipped.contains(field.getName());
+            }
+
+            @Override
+            public boolean shouldSkipClass(Class<?> type) {
+                return false;
+            }
+        }).create();
+    }
+}
@@ -0,0 +1,90 @@
+package com.sudoku.server;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.sudoku.model.BoardSnapshot;
+import com.sudoku.model.GameState;
+import com.sudoku.model.MoveLog;
+import com.sudoku.server.GameWebSocketServer.GameMessage;
+import com.sudoku.service.SpectatorFeed;
+
+// WebSocket spectators of one game. Each batch from the SpectatorFeed becomes one MOVES
+// message (or a full GAME_UPDATE if too many moves piled up), encoded once and queued on
+// every member's outbox. Newcomers wait in 'joining' until the next batch and get a
+// snapshot taken on the feed thread after that batch went out, so their first MOVES
+// always comes after their board; moves they already have are older than its version.
+public class SpectatorRoom implements SpectatorFeed.Room {
+    private final Map<String, SessionOutbox> members = new ConcurrentHashMap<>();
+    private final Map<String, SessionOutbox> joining = new ConcurrentHashMap<>();
+
+    public void join(String sessionId, SessionOutbox outbox) {
+        joining.put(sessionId, outbox);
+    }
+
+    public void leave(String sessionId) {
+        members.remove(sessionId);
+        joining.remove(sessionId);
+    }
+
+    public boolean isEmpty() {
+        return members.isEmpty() && joining.isEmpty();
+    }
+
+    public int size() {
+        return members.size() + joining.size();
+    }
+
+    @Override
+    public void publish(GameState game, int publishedVersion, int latestVersion) {
+        if (latestVersion != publishedVersion && !members.isEmpty()) {
+            long[] moves = game.getMoveLog().since(publishedVersion, SpectatorFeed.MAX_MOVES_PER_BATCH);
+            GameMessage batch = moves == null
+                ? snapshot(game)
+                : movesMessage(publishedVersion, Arrays.copyOf(moves, Math.min(moves.length, latestVersion - publishedVersion)));
+            broadcast(members, new SharedFrame(batch));
+        }
+        if (!joining.isEmpty()) {
+            SharedFrame board = new SharedFrame(snapshot(game));
+            for (Iterator<Map.Entry<String, SessionOutbox>> it = joining.entrySet().iterator(); it.hasNext();) {
+                Map.Entry<String, SessionOutbox> entry = it.next();
+                it.remove();
+                entry.getValue().send(board, 0, false);
+                members.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private static void broadcast(Map<String, SessionOutbox> outboxes, SharedFrame frame) {
+        outboxes.values().forEach(outbox -> outbox.send(frame, 0, false));
+    }
+
+    private static GameMessage snapshot(GameState game) {
+        BoardSnapshot snapshot = game.getSnapshot();
+        GameMessage message = new GameMessage("GAME_UPDATE");
+        message.board = snapshot.getBoard();
+        message.boardVersion = snapshot.getVersion();
+        message.currentPlayer = game.getCurrentPlayerId();
+        return message;
+    }
+
+    // boardVersion is the version after the last move; each move carries its own. Also
+    // used for the catch-up of a resumed session.
+    static GameMessage movesMessage(int knownVersion, long[] moves) {
+        GameMessage message = new GameMessage("MOVES");
+        message.moves = new int[moves.length * 5];
+        for (int i = 0; i < moves.length; i++) {
+            long move = moves[i];
+            int offset = i * 5;
+            message.moves[offset] = MoveLog.versionOf(knownVersion, i);
+            message.moves[offset + 1] = MoveLog.row(move);
+            message.moves[offset + 2] = MoveLog.col(move);
+            message.moves[offset + 3] = MoveLog.value(move);
+            message.moves[offset + 4] = MoveLog.playerId(move);
+        }
+        message.boardVersion = MoveLog.versionOf(knownVersion, moves.length - 1);
+        return message;
+    }
+}
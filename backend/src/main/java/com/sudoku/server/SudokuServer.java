@@ -3,13 +3,34 @@ package com.sudoku.server;
 import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
 
+import org.glassfish.tyrus.server.Server;
+
+import com.sudoku.model.PuzzlePool;
+import com.sudoku.service.GameEngine;
 import com.sudoku.service.SudokuServiceImpl;
 
+// RMI y WebSocket en el mismo proceso, sobre el mismo GameEngine: un jugador RMI y uno
+// WebSocket pueden coincidir en una partida
 public class SudokuServer {
+    private static final int WS_PORT = Integer.getInteger("sudoku.ws.port", 8025);
+
     public static void main(String[] args) {
         try {
+            // Pregenerar puzzles en segundo plano para que crear partidas no espere al generador
+            PuzzlePool.getInstance().start();
+
+            // Al parar, volcar al diario lo que quede pendiente
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    GameEngine.getInstance().shutdown();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "shutdown"));
+
             // Crear e iniciar el servicio RMI
             SudokuServiceImpl sudokuService = new SudokuServiceImpl();
+            sudokuService.register();
             
             // Crear el registro RMI en el puerto 1099
             Registry registry = LocateRegistry.createRegistry(1099);
@@ -18,6 +39,11 @@ public class SudokuServer {
             registry.rebind("SudokuService", sudokuService);
             
             System.out.println("Servidor Sudoku RMI iniciado en el puerto 1099");
+
+            // Endpoint WebSocket en ws://localhost:8025/websockets/game
+            Server webSocketServer = new Server("localhost", WS_PORT, "/websockets", null, GameWebSocketServer.class);
+            webSocketServer.start();
+            System.out.println("Servidor WebSocket iniciado en el puerto " + WS_PORT);
             System.out.println("Esperando conexiones de clientes...");
 
             // Mantener el servidor corriendo
@@ -0,0 +1,14 @@
+package com.sudoku.server;
+
+// WebSocket sessions held in memory, exposed over JMX (com.sudoku:type=WebSocketSessions)
+public interface WebSocketSessionsMXBean {
+    int getSessions();
+    // Sessions bound to an engine player id
+    int getPlayers();
+    int getLobbySessions();
+    int getSpectators();
+    // Frames waiting in the session outboxes
+    long getQueuedFrames();
+    // Sessions cleaned up because their lease expired
+    long getExpiredSessions();
+}
@@ -0,0 +1,639 @@
+package com.sudoku.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import javax.management.ObjectName;
+
+import com.sudoku.model.Difficulty;
+import com.sudoku.model.GameMode;
+import com.sudoku.model.GameRules;
+import com.sudoku.model.GameState;
+import com.sudoku.model.MoveResult;
+import com.sudoku.model.Puzzle;
+
+// Partidas, matchmaking y eventos de juego, compartidos por todos los transportes. RMI y
+// WebSocket son adaptadores: traducen sus mensajes a llamadas al motor y registran un
+// Listener que entrega los eventos a sus propios jugadores, así que jugadores de los dos
+// transportes pueden coincidir en la misma partida.
+// Los ids de jugador son globales y los reparte el motor. Todos los cambios de una
+// partida (sentar, mover, salir) se ejecutan como comandos en su hilo de GameShards, y
+// los eventos se publican desde ese mismo hilo, así que se aplican y llegan en el orden
+// en que se encolaron sin bloquear a nadie; las partidas de otros shards van en paralelo.
+// Los hilos de los transportes solo encolan y, si necesitan el resultado, reciben un
+// CompletableFuture.
+// Con -Dsudoku.journal.dir cada cambio se apunta además en el MoveJournal desde el hilo
+// de la partida, y al arrancar se reconstruyen las partidas a partir de él. Un movimiento
+// se confirma al que lo hizo cuando ya está en disco.
+// Un jugador que pierde la conexión conserva el asiento durante RESUME_GRACE_MS: si vuelve
+// con su token de reanudación recibe los movimientos que se perdió (del MoveLog de la
+// partida) o el tablero completo, sin volver a pasar por el matchmaking.
+// Las partidas sin actividad durante GAME_IDLE_MS se cierran, con sus jugadores dentro:
+// un cliente que desaparece sin salir no deja la partida en memoria para siempre.
+public class GameEngine implements GameEngineMXBean {
+    // Los ids de jugador se apuntan en el diario por bloques, para no repetirlos tras una caída
+    private static final int PLAYER_ID_BLOCK = 1024;
+    // Plazo para volver tras una desconexión; con 0 se abandona la partida en el acto
+    public static final long RESUME_GRACE_MS = Long.getLong("sudoku.resume.graceMs", 30_000);
+    // Al reanudar, más movimientos perdidos que estos se sustituyen por el tablero completo
+    public static final int RESUME_MAX_MOVES = Integer.getInteger("sudoku.resume.maxMoves", 64);
+    // Una partida sin ningún cambio durante este tiempo se cierra; con 0 nunca
+    public static final long GAME_IDLE_MS = Long.getLong("sudoku.engine.gameIdleMs", 30 * 60_000);
+    private static final GameEngine instance = createShared();
+
+    // Eventos de las partidas. Cada transporte entrega el evento solo a los jugadores
+    // que son suyos e ignora el resto. Se llaman desde el hilo de la partida: no deben
+    // bloquear.
+    public interface Listener {
+        void gameStarted(String gameId, GameState game);
+        void moveMade(String gameId, GameState game, int playerId, int row, int col, int value, int boardVersion);
+        void gameOver(String gameId, GameState game, int winnerId);
+        // La partida sigue con los demás y vuelve a estar en el matchmaking
+        void playerLeft(String gameId, GameState game, int playerId);
+        // Se fue el último jugador, o se cerró la partida por inactividad
+        void gameClosed(String gameId);
+        // Perdió la conexión pero conserva el asiento hasta que vuelva o pase el plazo
+        default void playerDisconnected(String gameId, GameState game, int playerId) {
+        }
+        default void playerReconnected(String gameId, GameState game, int playerId) {
+        }
+        // Se va a cerrar por inactividad; los jugadores aún están sentados. Le sigue gameClosed.
+        default void gameExpired(String gameId, GameState game) {
+        }
+    }
+
+    private final Map<String, GameState> games = new ConcurrentHashMap<>();
+    private final Map<Integer, String> playerToGame = new ConcurrentHashMap<>();
+    private final Matchmaker matchmaker = new Matchmaker();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicInteger lastPlayerId = new AtomicInteger();
+    private final GameShards shards;
+    // null sin diario
+    private final MoveJournal journal;
+    // Crear una partida (apuntarla y publicarla) va con el de lectura; el cambio de
+    // segmento de la compactación, con el de escritura
+    private final ReadWriteLock journalLock = new ReentrantReadWriteLock();
+    // Último id apuntado en el diario (protegido por lastPlayerId)
+    private volatile int reservedPlayerIds;
+    private final ResumeTokens resumeTokens;
+    // Plazos de gracia, inactividad de las partidas y arrendamientos de los transportes
+    private final LeaseWheel leases = new LeaseWheel("lease-wheel");
+    // Jugadores desconectados que conservan el asiento, con el plazo que los saca
+    private final Map<Integer, LeaseWheel.Lease> disconnected = new ConcurrentHashMap<>();
+    // Inactividad de cada partida; se renueva con cada comando en su hilo
+    private final Map<String, LeaseWheel.Lease> gameLeases = new ConcurrentHashMap<>();
+    private final AtomicLong expiredGames = new AtomicLong();
+
+    public GameEngine() {
+        this(GameShards.SHARDS);
+    }
+
+    public GameEngine(int shardCount) {
+        this.shards = new GameShards(shardCount);
+        this.journal = null;
+        this.resumeTokens = new ResumeTokens();
+    }
+
+    // Reconstruye las partidas del diario y sigue escribiendo en él
+    public GameEngine(int shardCount, MoveJournal journal) throws IOException {
+        this.shards = new GameShards(shardCount);
+        this.journal = journal;
+        // Con la clave junto al diario, los tokens siguen valiendo tras reiniciar
+        this.resumeTokens = ResumeTokens.open(journal.getDirectory().resolve("resume.key"));
+        recover();
+        journal.start(() -> CompletableFuture.runAsync(() -> compact().whenComplete((done, error) -> {
+            if (error != null) {
+                System.err.println("Error compactando el diario: " + error.getMessage());
+                journal.compactionFailed();
+            }
+        })));
+    }
+
+    private static GameEngine createShared() {
+        GameEngine engine;
+        if (MoveJournal.DIR == null) {
+            engine = new GameEngine();
+        } else {
+            try {
+                engine = new GameEngine(GameShards.SHARDS, new MoveJournal(Paths.get(MoveJournal.DIR), MoveJournal.FSYNC));
+            } catch (IOException e) {
+                throw new IllegalStateException("No se pudo abrir el diario de partidas: " + e.getMessage(), e);
+            }
+            engine.journal.register();
+            System.out.println("Diario de partidas en " + MoveJournal.DIR + ": " + engine.games.size()
+                + " partidas recuperadas en " + engine.journal.getRecoveryMillis() + " ms");
+        }
+        engine.shards.register();
+        engine.register();
+        return engine;
+    }
+
+    // Motor del proceso, compartido por el servicio RMI y el endpoint WebSocket
+    public static GameEngine getInstance() {
+        return instance;
+    }
+
+    public GameShards getShards() {
+        return shards;
+    }
+
+    public MoveJournal getJournal() {
+        return journal;
+    }
+
+    // Rueda compartida para los arrendamientos de jugadores y sesiones de los transportes
+    public LeaseWheel getLeaseWheel() {
+        return leases;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public int newPlayerId() {
+        int playerId = lastPlayerId.incrementAndGet();
+        if (journal != null && playerId > reservedPlayerIds) {
+            synchronized (lastPlayerId) {
+                if (playerId > reservedPlayerIds) {
+                    reservedPlayerIds = (playerId / PLAYER_ID_BLOCK + 1) * PLAYER_ID_BLOCK;
+                    journal.playerIds(reservedPlayerIds);
+                }
+            }
+        }
+        return playerId;
+    }
+
+    // Crea una partida con el jugador sentado y la publica en el matchmaking. Si el
+    // jugador estaba en otra partida, la abandona. El tablero se toma del pool en el hilo
+    // del llamador; la partida no la ve nadie más hasta que se publica.
+    public String createGame(int playerId, int size, Difficulty difficulty, GameRules rules) {
+        return open(playerId, new GameState(size, difficulty, rules));
+    }
+
+    // Igual, sobre un puzzle ya generado
+    public String createGame(int playerId, Puzzle puzzle, GameRules rules) {
+        return open(playerId, new GameState(puzzle, rules));
+    }
+
+    private String open(int playerId, GameState game) {
+        leave(playerId);
+        String gameId = UUID.randomUUID().toString();
+        game.addPlayer(sessionKey(playerId), playerId);
+        journalLock.readLock().lock();
+        try {
+            if (journal != null) journal.game(gameId, game);
+            games.put(gameId, game);
+        } finally {
+            journalLock.readLock().unlock();
+        }
+        watch(gameId);
+        playerToGame.put(playerId, gameId);
+        matchmaker.offer(gameId, game);
+        return gameId;
+    }
+
+    // Sienta al jugador en una partida abierta de ese tamaño, dificultad y reglas
+    // (size 0 = cualquier tamaño, solo con las reglas por defecto). El resultado es null
+    // si no hay ninguna. Si con él se llena la partida, los listeners reciben gameStarted.
+    public CompletableFuture<Matchmaker.OpenGame> join(int playerId, int size, Difficulty difficulty, GameRules rules) {
+        leave(playerId);
+        return claimNext(playerId, size, difficulty, rules);
+    }
+
+    // Prueba las partidas abiertas una a una: el asiento se ocupa en el hilo de cada una
+    private CompletableFuture<Matchmaker.OpenGame> claimNext(int playerId, int size, Difficulty difficulty,
+                                                             GameRules rules) {
+        Matchmaker.OpenGame open;
+        if (size > 0) {
+            open = matchmaker.next(size, difficulty, rules);
+        } else {
+            open = rules.equals(GameRules.TWO_PLAYER_TURNS) ? matchmaker.nextAny() : null;
+        }
+        if (open == null) return CompletableFuture.completedFuture(null);
+
+        return shards.submit(open.getGameId(), () -> seat(open, playerId))
+            .thenCompose(seated -> seated
+                ? CompletableFuture.completedFuture(open)
+                : claimNext(playerId, size, difficulty, rules));
+    }
+
+    // En el hilo de la partida
+    private boolean seat(Matchmaker.OpenGame open, int playerId) {
+        String gameId = open.getGameId();
+        GameState game = open.getGame();
+        if (games.get(gameId) != game || !game.tryAddPlayer(sessionKey(playerId), playerId)) {
+            // Cerrada o llena mientras esperaba en la cola
+            matchmaker.discard(open);
+            return false;
+        }
+        playerToGame.put(playerId, gameId);
+        touch(gameId);
+        if (journal != null) journal.join(gameId, playerId);
+        matchmaker.seated(open);
+        // El tablero ya se tomó del pool al crear la partida
+        if (game.markStarted()) {
+            publish(listener -> listener.gameStarted(gameId, game));
+        }
+        return true;
+    }
+
+    // Comprueba y aplica el movimiento y lo publica. Al completarse el tablero gana, por
+    // turnos, quien lo completó, y en RACE quien más celdas ganó. Con diario, un
+    // movimiento aceptado se devuelve cuando ya es durable; el hilo de la partida no espera.
+    public CompletableFuture<MoveResult> makeMove(int playerId, int row, int col, int value) {
+        String gameId = playerToGame.get(playerId);
+        if (gameId == null) return CompletableFuture.completedFuture(MoveResult.NO_GAME);
+
+        CompletableFuture<MoveResult> applied = shards.submit(gameId, () -> {
+            GameState game = games.get(gameId);
+            if (game == null) return MoveResult.NO_GAME;
+
+            MoveResult result = game.play(playerId, row, col, value);
+            if (result != MoveResult.ACCEPTED) return result;
+
+            touch(gameId);
+            if (journal != null) journal.move(gameId, playerId, row, col, value);
+            int version = game.getBoardVersion();
+            publish(listener -> listener.moveMade(gameId, game, playerId, row, col, value, version));
+            if (game.isComplete()) {
+                int winner = game.getRules().getMode() == GameMode.RACE ? game.getLeader() : playerId;
+                publish(listener -> listener.gameOver(gameId, game, winner));
+            }
+            return result;
+        });
+        if (journal == null) return applied;
+        return applied.thenCompose(result -> result == MoveResult.ACCEPTED
+            ? journal.durable().thenApply(done -> result)
+            : CompletableFuture.completedFuture(result));
+    }
+
+    // El jugador deja de estar en la partida en cuanto se llama; los demás reciben
+    // playerLeft cuando el hilo de la partida procesa la salida
+    public CompletableFuture<Void> leave(int playerId) {
+        LeaseWheel.Lease grace = disconnected.remove(playerId);
+        if (grace != null) grace.cancel();
+        return leaveSeat(playerId);
+    }
+
+    private CompletableFuture<Void> leaveSeat(int playerId) {
+        String gameId = playerToGame.remove(playerId);
+        if (gameId == null) return CompletableFuture.completedFuture(null);
+
+        return shards.submit(gameId, () -> {
+            GameState game = games.get(gameId);
+            if (game == null) return null;
+
+            game.removePlayer(sessionKey(playerId));
+            if (journal != null) journal.leave(gameId, playerId);
+            touch(gameId);
+            if (game.getPlayers().isEmpty()) {
+                games.remove(gameId);
+                unwatch(gameId);
+                matchmaker.cancel(gameId);
+                publish(listener -> listener.gameClosed(gameId));
+            } else {
+                // Queda un asiento libre, salvo que la partida ya haya terminado
+                if (!game.isComplete()) matchmaker.offer(gameId, game);
+                publish(listener -> listener.playerLeft(gameId, game, playerId));
+            }
+            return null;
+        });
+    }
+
+    // Token con el que el jugador puede volver a su partida tras perder la conexión
+    public String resumeToken(int playerId) {
+        return resumeTokens.issue(playerId);
+    }
+
+    // Jugador del token, o -1 si no es válido
+    public int playerOf(String resumeToken) {
+        return resumeTokens.verify(resumeToken);
+    }
+
+    public void disconnect(int playerId) {
+        disconnect(playerId, () -> true);
+    }
+
+    // El jugador perdió la conexión: conserva el asiento durante RESUME_GRACE_MS y después
+    // abandona la partida. En el hilo de la partida se comprueba antes con 'gone' que el
+    // transporte no lo haya reconectado ya (por ejemplo con otra sesión que reanudó antes
+    // de que se cerrara la vieja).
+    public void disconnect(int playerId, BooleanSupplier gone) {
+        String gameId = playerToGame.get(playerId);
+        if (gameId == null) return;
+        if (RESUME_GRACE_MS <= 0) {
+            leave(playerId);
+            return;
+        }
+        shards.submit(gameId, () -> {
+            if (!gone.getAsBoolean()) return null;
+            GameState game = games.get(gameId);
+            if (game == null || !gameId.equals(playerToGame.get(playerId))) return null;
+            startGrace(playerId);
+            publish(listener -> listener.playerDisconnected(gameId, game, playerId));
+            return null;
+        });
+    }
+
+    private void startGrace(int playerId) {
+        disconnected.compute(playerId, (id, previous) -> {
+            if (previous != null) previous.cancel();
+            return leases.add(RESUME_GRACE_MS, lease -> expire(id, lease));
+        });
+    }
+
+    // Pasó el plazo sin volver. Dentro de compute, para que no se cruce con un resume.
+    private void expire(int playerId, LeaseWheel.Lease grace) {
+        disconnected.computeIfPresent(playerId, (id, current) -> {
+            if (current != grace) return current;
+            leaveSeat(id);
+            return null;
+        });
+    }
+
+    // Vuelve a conectar al jugador con su partida. 'attach' se ejecuta en el hilo de la
+    // partida, así que entre lo que envíe (el tablero o los movimientos desde la versión
+    // que tenía el cliente) y los eventos siguientes no se pierde ni se repite ningún
+    // movimiento. El resultado es la partida, o null si el jugador ya no está en ninguna.
+    public CompletableFuture<GameState> resume(int playerId, Consumer<GameState> attach) {
+        String gameId = playerToGame.get(playerId);
+        if (gameId == null) return CompletableFuture.completedFuture(null);
+
+        return shards.submit(gameId, () -> {
+            boolean[] wasDisconnected = {false};
+            disconnected.computeIfPresent(playerId, (id, grace) -> {
+                grace.cancel();
+                wasDisconnected[0] = true;
+                return null;
+            });
+            GameState game = games.get(gameId);
+            // Se le acabó el plazo mientras esperaba en la cola
+            if (game == null || !gameId.equals(playerToGame.get(playerId))) return null;
+            touch(gameId);
+            attach.accept(game);
+            if (wasDisconnected[0]) publish(listener -> listener.playerReconnected(gameId, game, playerId));
+            return game;
+        });
+    }
+
+    // Ejecuta 'command' con la partida del jugador en el hilo de esa partida, en orden con
+    // sus movimientos y eventos. No se ejecuta si el jugador ya no está en ninguna.
+    public CompletableFuture<Void> inGameOf(int playerId, Consumer<GameState> command) {
+        String gameId = playerToGame.get(playerId);
+        if (gameId == null) return CompletableFuture.completedFuture(null);
+
+        return shards.submit(gameId, () -> {
+            GameState game = games.get(gameId);
+            if (game != null && gameId.equals(playerToGame.get(playerId))) command.accept(game);
+            return null;
+        });
+    }
+
+    // Vigila la inactividad de una partida nueva o recuperada
+    private void watch(String gameId) {
+        if (GAME_IDLE_MS <= 0) return;
+        LeaseWheel.Lease previous = gameLeases.put(gameId, leases.add(GAME_IDLE_MS,
+            lease -> shards.execute(gameId, () -> reap(gameId, lease))));
+        if (previous != null) previous.cancel();
+    }
+
+    private void unwatch(String gameId) {
+        LeaseWheel.Lease lease = gameLeases.remove(gameId);
+        if (lease != null) lease.cancel();
+    }
+
+    private void touch(String gameId) {
+        LeaseWheel.Lease lease = gameLeases.get(gameId);
+        if (lease != null) lease.touch();
+    }
+
+    // En el hilo de la partida: la cierra con los jugadores que queden, como si salieran
+    // todos a la vez. Si hubo actividad después de que venciera el plazo, sigue abierta.
+    private void reap(String gameId, LeaseWheel.Lease lease) {
+        GameState game = games.get(gameId);
+        if (game == null || gameLeases.get(gameId) != lease) return;
+        if (lease.getIdleMillis() < GAME_IDLE_MS) {
+            watch(gameId);
+            return;
+        }
+        publish(listener -> listener.gameExpired(gameId, game));
+        for (Integer playerId : new ArrayList<>(game.getPlayers().keySet())) {
+            game.removePlayer(sessionKey(playerId));
+            playerToGame.remove(playerId, gameId);
+            LeaseWheel.Lease grace = disconnected.remove(playerId);
+            if (grace != null) grace.cancel();
+            if (journal != null) journal.leave(gameId, playerId);
+        }
+        games.remove(gameId);
+        gameLeases.remove(gameId);
+        matchmaker.cancel(gameId);
+        expiredGames.incrementAndGet();
+        publish(listener -> listener.gameClosed(gameId));
+    }
+
+    // Registra las métricas en JMX
+    public void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                .registerMBean(this, new ObjectName("com.sudoku:type=GameEngine"));
+        } catch (Exception e) {
+            System.err.println("No se pudieron registrar las métricas del motor: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public int getResidentGames() {
+        return games.size();
+    }
+
+    @Override
+    public int getSeatedPlayers() {
+        return playerToGame.size();
+    }
+
+    // Jugadores desconectados que conservan el asiento
+    @Override
+    public int getDisconnectedPlayers() {
+        return disconnected.size();
+    }
+
+    @Override
+    public long getExpiredGames() {
+        return expiredGames.get();
+    }
+
+    @Override
+    public int getLeases() {
+        return leases.getLeases();
+    }
+
+    @Override
+    public long getExpiredLeases() {
+        return leases.getExpired();
+    }
+
+    // Compacta el diario: pasa a un segmento nuevo, escribe en él el estado completo de
+    // cada partida (desde su hilo, así queda en orden con sus demás cambios) y, cuando todo
+    // es durable, borra los segmentos anteriores
+    public CompletableFuture<Void> compact() {
+        if (journal == null) return CompletableFuture.completedFuture(null);
+        int first;
+        journalLock.writeLock().lock();
+        try {
+            first = journal.rotate();
+            synchronized (lastPlayerId) {
+                journal.playerIds(reservedPlayerIds);
+            }
+        } finally {
+            journalLock.writeLock().unlock();
+        }
+        List<CompletableFuture<Void>> written = new ArrayList<>();
+        games.forEach((gameId, game) -> written.add(shards.submit(gameId, () -> {
+            if (games.get(gameId) == game) journal.game(gameId, game);
+            return null;
+        })));
+        return CompletableFuture.allOf(written.toArray(CompletableFuture<?>[]::new))
+            .thenCompose(done -> journal.durable())
+            .thenRun(() -> {
+                try {
+                    journal.compacted(first);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+    }
+
+    // Para los hilos de partida (esperando a que terminen sus comandos) y después escribe
+    // lo que quede pendiente en el diario
+    public void shutdown() throws InterruptedException {
+        leases.shutdown();
+        shards.shutdown();
+        if (journal != null) journal.close();
+    }
+
+    // Aplica el diario sobre el motor vacío, sin publicar eventos, y vuelve a ofrecer en
+    // el matchmaking las partidas con asientos libres
+    private void recover() throws IOException {
+        journal.replay(new MoveJournal.Replay() {
+            @Override
+            public void game(String gameId, GameState game) {
+                GameState previous = games.put(gameId, game);
+                if (previous != null) {
+                    previous.getPlayers().keySet().forEach(playerId -> playerToGame.remove(playerId, gameId));
+                }
+                game.getPlayers().keySet().forEach(playerId -> seated(gameId, playerId));
+            }
+
+            @Override
+            public void join(String gameId, int playerId) {
+                GameState game = games.get(gameId);
+                if (game == null || !game.tryAddPlayer(sessionKey(playerId), playerId)) return;
+                seated(gameId, playerId);
+                game.markStarted();
+            }
+
+            @Override
+            public void move(String gameId, int playerId, int row, int col, int value) {
+                GameState game = games.get(gameId);
+                if (game != null && game.play(playerId, row, col, value) != MoveResult.ACCEPTED) {
+                    System.err.println("Movimiento del diario rechazado en la partida " + gameId);
+                }
+            }
+
+            @Override
+            public void leave(String gameId, int playerId) {
+                GameState game = games.get(gameId);
+                if (game == null) return;
+                game.removePlayer(sessionKey(playerId));
+                // Pudo entrar ya en otra partida
+                playerToGame.remove(playerId, gameId);
+                if (game.getPlayers().isEmpty()) games.remove(gameId);
+            }
+
+            @Override
+            public void playerIds(int reserved) {
+                lastPlayerId.accumulateAndGet(reserved, Math::max);
+            }
+
+            private void seated(String gameId, int playerId) {
+                playerToGame.put(playerId, gameId);
+                lastPlayerId.accumulateAndGet(playerId, Math::max);
+            }
+        });
+        games.forEach((gameId, game) -> {
+            if (!game.isFull() && !game.isComplete()) matchmaker.offer(gameId, game);
+        });
+        reservedPlayerIds = lastPlayerId.get();
+        games.keySet().forEach(this::watch);
+        // Nadie está conectado aún: cada jugador tiene el plazo de gracia para volver
+        if (RESUME_GRACE_MS > 0) playerToGame.keySet().forEach(this::startGrace);
+    }
+
+    public GameState getGame(String gameId) {
+        return gameId == null ? null : games.get(gameId);
+    }
+
+    public String gameIdOf(int playerId) {
+        return playerToGame.get(playerId);
+    }
+
+    public GameState gameOf(int playerId) {
+        return getGame(playerToGame.get(playerId));
+    }
+
+    public Collection<GameState> getGames() {
+        return Collections.unmodifiableCollection(games.values());
+    }
+
+    // Ids de las partidas empezadas
+    public List<String> getActiveGames() {
+        List<String> active = new ArrayList<>();
+        games.forEach((gameId, game) -> {
+            if (game.isGameStarted()) active.add(gameId);
+        });
+        return active;
+    }
+
+    // Partidas con asientos libres, en O(1)
+    @Override
+    public int getOpenGames() {
+        return matchmaker.getOpenGames();
+    }
+
+    private void publish(Consumer<Listener> event) {
+        for (Listener listener : listeners) {
+            try {
+                event.accept(listener);
+            } catch (RuntimeException e) {
+                // Un transporte con problemas no debe dejar sin eventos a los demás
+                System.err.println("Error publicando evento: " + e.getMessage());
+            }
+        }
+    }
+
+    // Clave del jugador en GameState.getPlayers()
+    private static String sessionKey(int playerId) {
+        return String.valueOf(playerId);
+    }
+}
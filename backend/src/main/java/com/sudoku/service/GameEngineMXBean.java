@@ -0,0 +1,16 @@
+package com.sudoku.service;
+
+// Lo que tiene el motor en memoria, expuesto por JMX (com.sudoku:type=GameEngine)
+public interface GameEngineMXBean {
+    // Partidas en memoria, empezadas o no
+    int getResidentGames();
+    int getOpenGames();
+    // Jugadores sentados en alguna partida, conectados o no
+    int getSeatedPlayers();
+    int getDisconnectedPlayers();
+    // Partidas cerradas por inactividad
+    long getExpiredGames();
+    // Arrendamientos vigilados por la rueda (partidas, plazos de gracia, jugadores y sesiones)
+    int getLeases();
+    long getExpiredLeases();
+}
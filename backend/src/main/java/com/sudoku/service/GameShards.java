@@ -0,0 +1,176 @@
+package com.sudoku.service;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import javax.management.ObjectName;
+
+// Un hilo por shard; cada partida va siempre al mismo (por el hash de su id). Todos los
+// cambios de una partida se ejecutan en ese hilo, uno detrás de otro y en el orden en
+// que se encolaron, así que no compiten entre sí. Los hilos de los transportes solo
+// encolan comandos.
+public class GameShards implements GameShardsMXBean {
+    public static final int SHARDS = Integer.getInteger("sudoku.engine.shards",
+        Runtime.getRuntime().availableProcessors());
+    // Lo que shutdown espera a que se vacíen las colas
+    public static final long SHUTDOWN_TIMEOUT_MS = Long.getLong("sudoku.engine.shutdownTimeoutMs", 5_000);
+
+    private static final class Shard {
+        final ExecutorService executor;
+        final AtomicInteger depth = new AtomicInteger();
+
+        Shard(int index) {
+            executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "game-shard-" + index);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        }
+    }
+
+    private final Shard[] shards;
+    private final AtomicInteger maxDepth = new AtomicInteger();
+    private final AtomicLong executed = new AtomicLong();
+
+    public GameShards(int count) {
+        shards = new Shard[Math.max(1, count)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(i);
+        }
+    }
+
+    // Un comando encolado y, si alguien espera su resultado, el futuro que hay que completar
+    private final class Command implements Runnable {
+        final Shard shard;
+        final String gameId;
+        final Runnable body;
+        final CompletableFuture<?> result;
+
+        Command(Shard shard, String gameId, Runnable body, CompletableFuture<?> result) {
+            this.shard = shard;
+            this.gameId = gameId;
+            this.body = body;
+            this.result = result;
+        }
+
+        @Override
+        public void run() {
+            shard.depth.decrementAndGet();
+            try {
+                body.run();
+            } catch (Throwable e) {
+                // Quien espera el resultado no puede quedarse bloqueado, ni siquiera por un Error
+                if (result != null) result.completeExceptionally(e);
+                if (e instanceof Error) throw (Error) e;
+                // Un comando que falla no debe parar el hilo del resto de partidas
+                System.err.println("Error en la partida " + gameId + ": " + e.getMessage());
+            } finally {
+                executed.incrementAndGet();
+            }
+        }
+
+        // El comando no llegó a ejecutarse
+        void reject(RejectedExecutionException e) {
+            shard.depth.decrementAndGet();
+            if (result != null) result.completeExceptionally(e);
+        }
+    }
+
+    // Encola un comando para la partida
+    public void execute(String gameId, Runnable command) {
+        enqueue(gameId, command, null);
+    }
+
+    // Encola un comando con resultado. Si los shards ya están parados, el futuro falla.
+    public <T> CompletableFuture<T> submit(String gameId, Supplier<T> command) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        enqueue(gameId, () -> result.complete(command.get()), result);
+        return result;
+    }
+
+    private void enqueue(String gameId, Runnable body, CompletableFuture<?> result) {
+        Shard shard = shardOf(gameId);
+        maxDepth.accumulateAndGet(shard.depth.incrementAndGet(), Math::max);
+        Command command = new Command(shard, gameId, body, result);
+        try {
+            shard.executor.execute(command);
+        } catch (RejectedExecutionException e) {
+            command.reject(e);
+            if (result == null) throw e;
+        }
+    }
+
+    // Registra las métricas en JMX
+    public void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                .registerMBean(this, new ObjectName("com.sudoku:type=GameShards"));
+        } catch (Exception e) {
+            System.err.println("No se pudieron registrar las métricas de los shards: " + e.getMessage());
+        }
+    }
+
+    // Deja terminar los comandos ya encolados durante SHUTDOWN_TIMEOUT_MS como mucho. Los
+    // que no lleguen a ejecutarse fallan sus futuros, para no dejar a nadie esperando.
+    // Al volver, ningún hilo de shard sigue ejecutando comandos (salvo uno colgado, que se
+    // avisa).
+    public void shutdown() throws InterruptedException {
+        for (Shard shard : shards) {
+            shard.executor.shutdown();
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SHUTDOWN_TIMEOUT_MS);
+        for (int i = 0; i < shards.length; i++) {
+            ExecutorService executor = shards[i].executor;
+            if (executor.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                continue;
+            }
+            List<Runnable> dropped = executor.shutdownNow();
+            RejectedExecutionException stopped = new RejectedExecutionException("Motor parado");
+            for (Runnable command : dropped) {
+                ((Command) command).reject(stopped);
+            }
+            System.err.println("Shard " + i + ": " + dropped.size() + " comandos descartados al parar");
+            if (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                System.err.println("Shard " + i + ": el comando en curso no termina");
+            }
+        }
+    }
+
+    private Shard shardOf(String gameId) {
+        return shards[(gameId.hashCode() & 0x7fffffff) % shards.length];
+    }
+
+    @Override
+    public int getShards() {
+        return shards.length;
+    }
+
+    @Override
+    public int[] getQueueDepths() {
+        int[] depths = new int[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            depths[i] = shards[i].depth.get();
+        }
+        return depths;
+    }
+
+    @Override
+    public int getMaxQueueDepth() {
+        return maxDepth.get();
+    }
+
+    @Override
+    public long getExecuted() {
+        return executed.get();
+    }
+}
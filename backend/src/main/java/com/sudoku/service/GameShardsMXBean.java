@@ -0,0 +1,11 @@
+package com.sudoku.service;
+
+// Métricas de los hilos de partida expuestas por JMX (com.sudoku:type=GameShards)
+public interface GameShardsMXBean {
+    int getShards();
+    // Comandos en cola ahora mismo, por hilo
+    int[] getQueueDepths();
+    // Mayor cola vista en cualquier hilo desde el arranque
+    int getMaxQueueDepth();
+    long getExecuted();
+}
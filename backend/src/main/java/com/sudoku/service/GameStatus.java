@@ -0,0 +1,32 @@
+package com.sudoku.service;
+
+import java.io.Serializable;
+
+import com.sudoku.model.Board;
+
+// Estado combinado de la partida de un jugador, para consultarlo en un solo viaje RMI
+public class GameStatus implements Serializable {
+    private static final long serialVersionUID = 2L;
+
+    public static final String NOT_IN_GAME = "NOT_IN_GAME";
+    public static final String WAITING = "WAITING";
+    public static final String PLAYING = "PLAYING";
+    public static final String FINISHED = "FINISHED";
+
+    public final String state;
+    public final int boardVersion;
+    public final int currentPlayerId;
+    // Solo se envía si el cliente tiene una versión anterior del tablero
+    public final Board board;
+
+    public GameStatus(String state, int boardVersion, int currentPlayerId, Board board) {
+        this.state = state;
+        this.boardVersion = boardVersion;
+        this.currentPlayerId = currentPlayerId;
+        this.board = board;
+    }
+
+    public static GameStatus notInGame() {
+        return new GameStatus(NOT_IN_GAME, -1, -1, null);
+    }
+}
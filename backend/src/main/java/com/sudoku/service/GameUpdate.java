@@ -2,25 +2,60 @@ package com.sudoku.service;
 
 import java.io.Serializable;
 
+import com.sudoku.model.Board;
+import com.sudoku.model.BoardSnapshot;
+
 public class GameUpdate implements Serializable {
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 3L;
     
     public final String type;
-    public final int[][] board;
+    public final Board board;
     public final String message;
+    // Versión del tablero tras esta actualización (-1 si no aplica)
+    public final int boardVersion;
+    // Movimiento incremental (MOVE_MADE sin tablero)
+    public final int row;
+    public final int col;
+    public final int value;
+    public final int playerId;
 
     // Constructor para actualizaciones de tablero
-    public GameUpdate(String type, int[][] board, String message) {
+    public GameUpdate(String type, Board board, String message) {
+        this(type, board, message, -1, -1, -1, 0, -1);
+    }
+
+    private GameUpdate(String type, Board board, String message, int boardVersion,
+                       int row, int col, int value, int playerId) {
         this.type = type;
         this.board = board;
         this.message = message;
+        this.boardVersion = boardVersion;
+        this.row = row;
+        this.col = col;
+        this.value = value;
+        this.playerId = playerId;
     }
 
     // Métodos estáticos de fábrica para crear diferentes tipos de actualizaciones
-    public static GameUpdate createBoardUpdate(String type, int[][] board) {
+    public static GameUpdate createBoardUpdate(String type, Board board) {
         return new GameUpdate(type, board, null);
     }
 
+    // Tablero completo: al empezar la partida o para resincronizar a un cliente
+    public static GameUpdate createSnapshot(String type, Board board, int boardVersion) {
+        return new GameUpdate(type, board, null, boardVersion, -1, -1, 0, -1);
+    }
+
+    // Tablero y versión de la foto publicada por la partida (inmutable, se comparte)
+    public static GameUpdate createSnapshot(String type, BoardSnapshot snapshot) {
+        return createSnapshot(type, snapshot.getBoard(), snapshot.getVersion());
+    }
+
+    // Solo el movimiento; el cliente lo aplica si tiene la versión boardVersion - 1
+    public static GameUpdate createMoveUpdate(int boardVersion, int row, int col, int value, int playerId) {
+        return new GameUpdate("MOVE_MADE", null, null, boardVersion, row, col, value, playerId);
+    }
+
     public static GameUpdate createMessageUpdate(String type, String message) {
         return new GameUpdate(type, null, message);
     }
@@ -28,4 +63,8 @@ public class GameUpdate implements Serializable {
     public static GameUpdate createEmptyUpdate(String type) {
         return new GameUpdate(type, null, null);
     }
-}
\ No newline at end of file
+
+    public boolean isSnapshot() {
+        return board != null;
+    }
+}
@@ -0,0 +1,9 @@
+package com.sudoku.service;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+
+// Callback exportado por el cliente para recibir actualizaciones sin hacer polling
+public interface IGameListener extends Remote {
+    void onUpdate(GameUpdate update) throws RemoteException;
+}
@@ -13,8 +13,12 @@ public interface ISudokuService extends Remote {
     // Métodos para el juego multijugador
     int joinGame() throws RemoteException;
     boolean makeMove(int playerId, int row, int col, int value) throws RemoteException;
+    // Obsoletos: devuelven datos de la primera partida iniciada. Usar ISudokuServiceV2.
+    @Deprecated
     boolean isGameReady() throws RemoteException;
+    @Deprecated
     int getCurrentPlayerId() throws RemoteException;
+    @Deprecated
     int[][] getCurrentBoard() throws RemoteException;
     String getGameStatus(int playerId) throws RemoteException;
     void leaveGame(int playerId) throws RemoteException;
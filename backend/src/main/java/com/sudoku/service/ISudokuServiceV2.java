@@ -0,0 +1,57 @@
+package com.sudoku.service;
+
+import java.rmi.RemoteException;
+import java.util.List;
+
+import com.sudoku.model.GameRules;
+
+// Versión 2: todas las consultas de partida se resuelven por jugador en O(1),
+// en lugar de recorrer las partidas activas y devolver la primera iniciada.
+public interface ISudokuServiceV2 extends ISudokuService {
+    boolean isGameReady(int playerId) throws RemoteException;
+    int getCurrentPlayerId(int playerId) throws RemoteException;
+    int[][] getCurrentBoard(int playerId) throws RemoteException;
+
+    // Estado, turno y versión del tablero en una sola llamada. El tablero solo
+    // se incluye si es más nuevo que knownBoardVersion (usar -1 para pedirlo siempre).
+    GameStatus getStatus(int playerId, int knownBoardVersion) throws RemoteException;
+
+    // Notificaciones push: el cliente exporta un IGameListener y el servidor le envía
+    // las actualizaciones en lugar de que las pida con getUpdate
+    int joinGame(IGameListener listener) throws RemoteException;
+    // Como joinGame, en una sala con otras reglas (varios jugadores, equipos o RACE).
+    // La partida empieza cuando se ocupa el último asiento.
+    int joinGame(IGameListener listener, GameRules rules) throws RemoteException;
+    void registerListener(int playerId, IGameListener listener) throws RemoteException;
+    // Cualquier llamada con el id del jugador lo mantiene vivo; si pasa el plazo del
+    // servidor (-Dsudoku.rmi.leaseMs) sin ninguna se le da por caído. Los clientes con
+    // listener, que pueden pasar mucho tiempo sin llamar, deben llamar a heartbeat cada
+    // poco. Devuelve false si el servidor ya lo dio por caído: toca resumeGame.
+    boolean heartbeat(int playerId) throws RemoteException;
+    void unregisterListener(int playerId) throws RemoteException;
+
+    // Long-poll para clientes que no pueden exportar callbacks: espera hasta timeoutMs a
+    // que haya al menos una actualización y devuelve hasta maxItems de golpe, en orden.
+    // Cada MOVE_MADE es un solo movimiento y hay que aplicarlos todos. Si el lote trae un
+    // tablero completo (RESYNC), se quitan los tableros y MOVE_MADE anteriores a él, que
+    // ya incluye; los avisos se mantienen. Lista vacía si no hubo nada.
+    List<GameUpdate> getUpdates(int playerId, int maxItems, long timeoutMs) throws RemoteException;
+
+    // Espectadores: ven una partida sin ocupar asiento. getActiveGames da los ids de las
+    // partidas empezadas. spectate devuelve el tablero completo (RESYNC) si
+    // knownBoardVersion es -1 o se quedó muy atrás, y si no los MOVE_MADE posteriores en
+    // un solo lote. Si no hay nada nuevo espera hasta timeoutMs y devuelve una lista vacía.
+    List<String> getActiveGames() throws RemoteException;
+    List<GameUpdate> spectate(String gameId, int knownBoardVersion, long timeoutMs) throws RemoteException;
+
+    // Reanudar tras perder la conexión, sin volver a pasar por el matchmaking. El jugador
+    // conserva el asiento durante el plazo de gracia del servidor. joinGameSession es
+    // joinGame devolviendo también el token de reanudación, que solo recibe quien ocupa
+    // el asiento (quien lo presente pasa a ser ese jugador). resumeGame, con ese token y
+    // la última versión del tablero que vio el cliente, devuelve los MOVE_MADE que se
+    // perdió (o el tablero completo, RESYNC, si se quedó muy atrás) y los avisos
+    // pendientes, y registra el listener (null para seguir con polling).
+    PlayerSession joinGameSession(IGameListener listener, GameRules rules) throws RemoteException;
+    List<GameUpdate> resumeGame(String resumeToken, int knownBoardVersion, IGameListener listener)
+        throws RemoteException;
+}
@@ -0,0 +1,178 @@
+package com.sudoku.service;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Rueda de temporizadores (hashed timing wheel) para los arrendamientos de jugadores,
+// sesiones y partidas. Cada uno tiene un Lease que su dueño renueva con touch(): una
+// escritura volátil, sin tocar la rueda. Un solo hilo avanza la rueda cada TICK_MS y solo
+// mira los leases de la ranura que toca: si hubo señales de vida desde que se programó lo
+// vuelve a programar para lo que le queda de plazo, y si no, lo da por caducado. Añadir,
+// renovar y cancelar son O(1), y el trabajo del hilo depende de los plazos que vencen,
+// no de cuántos leases hay.
+// A mitad de plazo sin señales se avisa al dueño con idle(), por si quiere sondear al
+// cliente (un ping) antes de que caduque.
+public class LeaseWheel {
+    public static final long TICK_MS = Long.getLong("sudoku.lease.tickMs", 100);
+    // Potencia de dos: con ticks de 100 ms una vuelta son 51,2 s
+    private static final int SLOTS = 512;
+
+    // Se llama desde el hilo de la rueda: no debe bloquear
+    public interface Holder {
+        default void idle(Lease lease) {
+        }
+        void expired(Lease lease);
+    }
+
+    public final class Lease {
+        private final long ttlNanos;
+        private final Holder holder;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private volatile long lastSeen = System.nanoTime();
+        // Solo los toca el hilo de la rueda
+        private long dueTick;
+        private long probedAt;
+
+        private Lease(long ttlMillis, Holder holder) {
+            this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+            this.holder = holder;
+            this.probedAt = lastSeen - 1;
+        }
+
+        public void touch() {
+            lastSeen = System.nanoTime();
+        }
+
+        // Deja de vigilarlo; sale de la rueda cuando llegue a su ranura
+        public void cancel() {
+            if (done.compareAndSet(false, true)) live.decrementAndGet();
+        }
+
+        public boolean isActive() {
+            return !done.get();
+        }
+
+        public long getIdleMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastSeen);
+        }
+    }
+
+    private final long tickNanos = TimeUnit.MILLISECONDS.toNanos(TICK_MS);
+    // Solo los toca el hilo de la rueda
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final ArrayDeque<Lease>[] slots = new ArrayDeque[SLOTS];
+    private final Queue<Lease> added = new ConcurrentLinkedQueue<>();
+    private final long start = System.nanoTime();
+    private long tick;
+    private final Thread thread;
+    private final AtomicInteger live = new AtomicInteger();
+    private final AtomicLong expired = new AtomicLong();
+
+    public LeaseWheel(String name) {
+        for (int i = 0; i < SLOTS; i++) {
+            slots[i] = new ArrayDeque<>();
+        }
+        thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Empieza a vigilar algo que debe dar señales al menos cada ttlMillis
+    public Lease add(long ttlMillis, Holder holder) {
+        Lease lease = new Lease(ttlMillis, holder);
+        live.incrementAndGet();
+        added.add(lease);
+        return lease;
+    }
+
+    public void shutdown() {
+        thread.interrupt();
+    }
+
+    // Leases vigilados ahora mismo
+    public int getLeases() {
+        return live.get();
+    }
+
+    public long getExpired() {
+        return expired.get();
+    }
+
+    private void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                long sleep = start + (tick + 1) * tickNanos - System.nanoTime();
+                if (sleep > 0) TimeUnit.NANOSECONDS.sleep(sleep);
+                tick++;
+                for (Lease lease; (lease = added.poll()) != null;) {
+                    schedule(lease);
+                }
+                advance();
+            }
+        } catch (InterruptedException e) {
+            // Parada
+        }
+    }
+
+    // Revisa los leases de la ranura actual que vencen en esta vuelta
+    private void advance() {
+        int index = (int) (tick & (SLOTS - 1));
+        ArrayDeque<Lease> due = slots[index];
+        if (due.isEmpty()) return;
+        slots[index] = new ArrayDeque<>();
+        for (Lease lease : due) {
+            if (lease.done.get()) continue;
+            if (lease.dueTick > tick) {
+                // De una vuelta posterior
+                slots[index].add(lease);
+            } else {
+                check(lease);
+            }
+        }
+    }
+
+    private void check(Lease lease) {
+        long seen = lease.lastSeen;
+        long idle = System.nanoTime() - seen;
+        if (idle >= lease.ttlNanos) {
+            if (!lease.done.compareAndSet(false, true)) return;
+            live.decrementAndGet();
+            expired.incrementAndGet();
+            notify(lease, false);
+            return;
+        }
+        if (idle >= lease.ttlNanos / 2 && lease.probedAt != seen) {
+            lease.probedAt = seen;
+            notify(lease, true);
+        }
+        schedule(lease);
+    }
+
+    // Siguiente revisión: a mitad de plazo desde la última señal, o al final si ya pasó
+    private void schedule(Lease lease) {
+        long seen = lease.lastSeen;
+        long half = seen + lease.ttlNanos / 2;
+        long at = System.nanoTime() < half && lease.probedAt != seen ? half : seen + lease.ttlNanos;
+        long dueTick = Math.max(tick + 1, (at - start + tickNanos - 1) / tickNanos);
+        lease.dueTick = dueTick;
+        slots[(int) (dueTick & (SLOTS - 1))].add(lease);
+    }
+
+    private static void notify(Lease lease, boolean idle) {
+        try {
+            if (idle) {
+                lease.holder.idle(lease);
+            } else {
+                lease.holder.expired(lease);
+            }
+        } catch (RuntimeException e) {
+            // Un dueño que falla no debe parar la rueda
+            System.err.println("Error al caducar un arrendamiento: " + e.getMessage());
+        }
+    }
+}
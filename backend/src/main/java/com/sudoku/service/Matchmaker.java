@@ -0,0 +1,129 @@
+package com.sudoku.service;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sudoku.model.Difficulty;
+import com.sudoku.model.GameRules;
+import com.sudoku.model.GameState;
+import com.sudoku.model.PuzzlePool;
+
+// Cola de partidas abiertas por tamaño, dificultad y reglas (modo, asientos y equipos).
+// Unirse es un poll sobre una cola sin bloqueos: cada partida abierta la toma un
+// solo jugador a la vez, así que dos jugadores no pueden competir por el último asiento.
+// GameEngine usa next/seated/discard para ocupar el asiento en el hilo de la partida.
+// El número de partidas abiertas se lleva en un contador que cambia con cada alta o baja
+// en openById, así que consultarlo es O(1).
+public class Matchmaker {
+    private final Map<Integer, Queue<OpenGame>> openGames = new ConcurrentHashMap<>();
+    private final Map<String, OpenGame> openById = new ConcurrentHashMap<>();
+    private final AtomicInteger openCount = new AtomicInteger();
+
+    // Partida publicada en la cola
+    public static final class OpenGame {
+        private final String gameId;
+        private final GameState game;
+        private final AtomicBoolean queued = new AtomicBoolean();
+        private volatile boolean cancelled;
+
+        OpenGame(String gameId, GameState game) {
+            this.gameId = gameId;
+            this.game = game;
+        }
+
+        public String getGameId() {
+            return gameId;
+        }
+
+        public GameState getGame() {
+            return game;
+        }
+    }
+
+    // Publica una partida con asientos libres. No hace nada si ya estaba en la cola.
+    public void offer(String gameId, GameState game) {
+        OpenGame open = openById.get(gameId);
+        if (open == null) {
+            OpenGame created = new OpenGame(gameId, game);
+            open = openById.putIfAbsent(gameId, created);
+            if (open == null) {
+                open = created;
+                openCount.incrementAndGet();
+            }
+        }
+        open.cancelled = false;
+        if (open.queued.compareAndSet(false, true)) {
+            queueFor(game.getSize(), game.getDifficulty(), game.getRules()).offer(open);
+        }
+    }
+
+    // Saca de la cola la siguiente partida abierta, sin sentar a nadie, para que el
+    // llamador ocupe el asiento en el hilo de la partida. Después tiene que llamar a
+    // seated o a discard. Devuelve null si no hay ninguna.
+    public OpenGame next(int size, Difficulty difficulty, GameRules rules) {
+        Queue<OpenGame> queue = openGames.get(key(size, difficulty, rules));
+        if (queue == null) return null;
+
+        OpenGame open;
+        while ((open = queue.poll()) != null) {
+            open.queued.set(false);
+            if (!open.cancelled) return open;
+        }
+        return null;
+    }
+
+    // Como next, probando todos los tamaños con las reglas y dificultad por defecto
+    public OpenGame nextAny() {
+        for (int size : PuzzlePool.SIZES) {
+            OpenGame open = next(size, Difficulty.MEDIUM, GameRules.TWO_PLAYER_TURNS);
+            if (open != null) return open;
+        }
+        return null;
+    }
+
+    // El jugador se sentó: la partida vuelve a la cola si aún le quedan asientos
+    public void seated(OpenGame open) {
+        if (open.game.isFull()) {
+            remove(open);
+        } else if (!open.cancelled && open.queued.compareAndSet(false, true)) {
+            queueFor(open.game.getSize(), open.game.getDifficulty(), open.game.getRules()).offer(open);
+        }
+    }
+
+    // Llena por otro camino o cerrada: se descarta
+    public void discard(OpenGame open) {
+        remove(open);
+    }
+
+    // Retira una partida (por ejemplo al quedarse sin jugadores). Se descarta al salir de la cola.
+    public void cancel(String gameId) {
+        OpenGame open = openById.remove(gameId);
+        if (open != null) {
+            openCount.decrementAndGet();
+            open.cancelled = true;
+        }
+    }
+
+    // Partidas con asientos libres
+    public int getOpenGames() {
+        return openCount.get();
+    }
+
+    private void remove(OpenGame open) {
+        if (openById.remove(open.gameId, open)) {
+            openCount.decrementAndGet();
+        }
+    }
+
+    private Queue<OpenGame> queueFor(int size, Difficulty difficulty, GameRules rules) {
+        return openGames.computeIfAbsent(key(size, difficulty, rules), k -> new ConcurrentLinkedQueue<>());
+    }
+
+    private static int key(int size, Difficulty difficulty, GameRules rules) {
+        return (size * Difficulty.values().length + difficulty.ordinal()) * GameRules.keyCount() + rules.key();
+    }
+}
@@ -0,0 +1,467 @@
+package com.sudoku.service;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import javax.management.ObjectName;
+
+import com.sudoku.model.GameState;
+
+// Diario de las partidas: registro binario de solo añadir con cada cambio (estado
+// completo al crear una partida, entradas, movimientos y salidas), para reconstruirlas
+// al arrancar después de una caída. Los hilos de partida solo copian el registro a un
+// buffer en memoria; un hilo escritor lo vuelca al fichero con una escritura y un fsync
+// para todo lo que llegó mientras hacía el anterior (group commit), así que nadie
+// espera un fsync propio.
+// El diario va en segmentos journal-N.log. Al compactar se pasa a un segmento nuevo, el
+// GameEngine escribe en él el estado completo de cada partida viva y se borran los
+// anteriores: la recuperación lee como mucho un segmento lleno más las partidas vivas.
+// La compactación se pide cuando el segmento pasa de compactBytes y del doble de lo que
+// ocupaba al terminar la anterior, para que un estado vivo grande no compacte sin parar.
+// Si al arrancar ya había segmentos (los que se acaban de leer) se pide una en seguida:
+// si no, los de cada ejecución anterior se quedarían para siempre.
+// Cada registro lleva longitud, CRC32, tipo y datos. La lectura de un segmento se para
+// en el primer registro incompleto o corrupto (la escritura que cortó la caída).
+// Si falla una escritura el diario queda roto para siempre: lo que viniera detrás del
+// registro cortado no se podría leer, así que no se escribe nada más, los registros
+// nuevos se descartan y durable() falla, y ningún cambio posterior se confirma.
+public class MoveJournal implements MoveJournalMXBean {
+    // Sin directorio no hay diario
+    public static final String DIR = System.getProperty("sudoku.journal.dir");
+    // Con false se escribe sin fsync: sobrevive a la caída del proceso, no a la de la máquina
+    public static final boolean FSYNC = Boolean.parseBoolean(System.getProperty("sudoku.journal.fsync", "true"));
+    // Tamaño mínimo del segmento para pedir una compactación
+    public static final long COMPACT_BYTES = Long.getLong("sudoku.journal.compactBytes", 64L << 20);
+
+    private static final byte GAME = 1;
+    private static final byte JOIN = 2;
+    private static final byte MOVE = 3;
+    private static final byte LEAVE = 4;
+    private static final byte PLAYER_IDS = 5;
+    // Longitud y CRC
+    private static final int HEADER = 8;
+
+    // Lo que se encuentra al leer el diario, en el orden en que se escribió
+    public interface Replay {
+        // Estado completo de una partida: nueva o en lugar de la que hubiera
+        void game(String gameId, GameState game);
+        void join(String gameId, int playerId);
+        void move(String gameId, int playerId, int row, int col, int value);
+        void leave(String gameId, int playerId);
+        // Ids de jugador repartidos hasta este
+        void playerIds(int reserved);
+    }
+
+    private final Path dir;
+    private final boolean fsync;
+    private final long compactBytes;
+
+    // Protegidos por lock
+    private final Object lock = new Object();
+    private ByteBuffer pending = ByteBuffer.allocate(1 << 16);
+    private final CRC32 crc = new CRC32();
+    // Se completan cuando lo que hay en pending, o lo que se está escribiendo, es durable
+    private CompletableFuture<Void> pendingDurable = new CompletableFuture<>();
+    private CompletableFuture<Void> writingDurable = CompletableFuture.completedFuture(null);
+    // Posición de pending en la que empieza el segmento pedido con rotate, o -1
+    private int rotateAt = -1;
+    private int lastSegment;
+    private boolean closed;
+    // Error de escritura que dejó el diario roto, o null
+    private IOException failed;
+
+    // Solo los toca el hilo escritor
+    private ByteBuffer writing = ByteBuffer.allocate(1 << 16);
+    private FileChannel channel;
+    private Runnable onSegmentFull;
+    private Thread writer;
+
+    // Los escribe el hilo escritor y se leen al terminar una compactación
+    private volatile int segment;
+    private volatile long segmentBytes;
+    // Hay una compactación pedida y sin terminar
+    private volatile boolean compacting;
+    private volatile long compactedBytes;
+    private final AtomicLong records = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong compactions = new AtomicLong();
+    private volatile long recoveredRecords;
+    private volatile long recoveryMillis;
+
+    public MoveJournal(Path dir, boolean fsync) throws IOException {
+        this(dir, fsync, COMPACT_BYTES);
+    }
+
+    public MoveJournal(Path dir, boolean fsync, long compactBytes) throws IOException {
+        this.dir = Files.createDirectories(dir);
+        this.fsync = fsync;
+        this.compactBytes = compactBytes;
+        List<Path> segments = segments();
+        lastSegment = segments.isEmpty() ? 0 : segmentNumber(segments.get(segments.size() - 1));
+    }
+
+    // Lee todos los segmentos en orden. Se llama antes de start.
+    public void replay(Replay handler) throws IOException {
+        long start = System.nanoTime();
+        CRC32 checksum = new CRC32();
+        long count = 0;
+        for (Path file : segments()) {
+            byte[] data = Files.readAllBytes(file);
+            ByteBuffer in = ByteBuffer.wrap(data);
+            while (in.remaining() > HEADER) {
+                int offset = in.position();
+                int length = in.getInt(offset);
+                if (length < 1 || length > in.remaining() - HEADER) break;
+                checksum.reset();
+                checksum.update(data, offset + HEADER, length);
+                if ((int) checksum.getValue() != in.getInt(offset + 4)) break;
+                read(ByteBuffer.wrap(data, offset + HEADER, length), handler);
+                in.position(offset + HEADER + length);
+                count++;
+            }
+            if (in.hasRemaining()) {
+                System.err.println("Diario cortado en " + file.getFileName() + ": se ignoran "
+                    + in.remaining() + " bytes");
+            }
+        }
+        recoveredRecords = count;
+        recoveryMillis = (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static void read(ByteBuffer record, Replay handler) throws IOException {
+        byte type = record.get();
+        if (type == PLAYER_IDS) {
+            handler.playerIds(record.getInt());
+            return;
+        }
+        String gameId = new UUID(record.getLong(), record.getLong()).toString();
+        switch (type) {
+            case GAME:
+                handler.game(gameId, GameState.readFrom(record));
+                break;
+            case JOIN:
+                handler.join(gameId, record.getInt());
+                break;
+            case MOVE:
+                handler.move(gameId, record.getInt(), record.get(), record.get(), record.get());
+                break;
+            case LEAVE:
+                handler.leave(gameId, record.getInt());
+                break;
+            default:
+                throw new IOException("Tipo de registro desconocido en el diario: " + type);
+        }
+    }
+
+    // Abre un segmento nuevo y arranca el hilo escritor. onSegmentFull pide una
+    // compactación: se llama desde ese hilo (y desde este, si había segmentos de antes),
+    // así que no debe bloquear, y no se vuelve a llamar hasta que se avise del final con
+    // compacted o compactionFailed.
+    public void start(Runnable onSegmentFull) throws IOException {
+        this.onSegmentFull = onSegmentFull;
+        boolean replayed;
+        synchronized (lock) {
+            replayed = lastSegment > 0;
+            openSegment(++lastSegment);
+        }
+        writer = new Thread(this::writeLoop, "move-journal");
+        writer.setDaemon(true);
+        writer.start();
+        if (replayed && onSegmentFull != null) {
+            compacting = true;
+            onSegmentFull.run();
+        }
+    }
+
+    public void game(String gameId, GameState game) {
+        append(GAME, gameId, game::writeTo);
+    }
+
+    public void join(String gameId, int playerId) {
+        append(JOIN, gameId, out -> out.putInt(playerId));
+    }
+
+    public void move(String gameId, int playerId, int row, int col, int value) {
+        append(MOVE, gameId, out -> {
+            out.putInt(playerId);
+            out.put((byte) row);
+            out.put((byte) col);
+            out.put((byte) value);
+        });
+    }
+
+    public void leave(String gameId, int playerId) {
+        append(LEAVE, gameId, out -> out.putInt(playerId));
+    }
+
+    public void playerIds(int reserved) {
+        append(PLAYER_IDS, null, out -> out.putInt(reserved));
+    }
+
+    private void append(byte type, String gameId, Consumer<ByteBuffer> data) {
+        UUID id = gameId == null ? null : UUID.fromString(gameId);
+        synchronized (lock) {
+            if (closed) throw new IllegalStateException("El diario está cerrado");
+            if (failed != null) return;
+            int start = pending.position();
+            if (pending.capacity() - start < 512) grow(start);
+            while (true) {
+                try {
+                    pending.position(start + HEADER);
+                    pending.put(type);
+                    if (id != null) {
+                        pending.putLong(id.getMostSignificantBits());
+                        pending.putLong(id.getLeastSignificantBits());
+                    }
+                    data.accept(pending);
+                    break;
+                } catch (BufferOverflowException e) {
+                    grow(start);
+                }
+            }
+            int length = pending.position() - start - HEADER;
+            crc.reset();
+            crc.update(pending.array(), start + HEADER, length);
+            pending.putInt(start, length);
+            pending.putInt(start + 4, (int) crc.getValue());
+            records.incrementAndGet();
+            if (start == 0) lock.notifyAll();
+        }
+    }
+
+    // Duplica pending conservando los registros completos (hasta 'used')
+    private void grow(int used) {
+        ByteBuffer bigger = ByteBuffer.allocate(pending.capacity() * 2);
+        bigger.put(pending.array(), 0, used);
+        pending = bigger;
+    }
+
+    // Se completa cuando todo lo añadido hasta ahora está en disco; falla si el diario
+    // está roto
+    public CompletableFuture<Void> durable() {
+        synchronized (lock) {
+            if (failed != null) return CompletableFuture.failedFuture(failed);
+            return pending.position() > 0 ? pendingDurable : writingDurable;
+        }
+    }
+
+    // Lo que se añada desde ahora va a un segmento nuevo; devuelve su número
+    public int rotate() {
+        synchronized (lock) {
+            if (rotateAt < 0) {
+                lastSegment++;
+                rotateAt = pending.position();
+                lock.notifyAll();
+            }
+            return lastSegment;
+        }
+    }
+
+    // El estado de todas las partidas vivas ya es durable en el segmento 'first' (el que
+    // devolvió rotate): borra los anteriores
+    public void compacted(int first) throws IOException {
+        for (Path file : segments()) {
+            if (segmentNumber(file) < first) Files.deleteIfExists(file);
+        }
+        compactions.incrementAndGet();
+        compactedBytes = segmentBytes;
+        compacting = false;
+    }
+
+    public void compactionFailed() {
+        compacting = false;
+    }
+
+    // Escribe lo pendiente y para el hilo escritor
+    public void close() throws InterruptedException {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        if (writer != null) writer.join();
+    }
+
+    private void writeLoop() {
+        while (true) {
+            CompletableFuture<Void> durable;
+            int rotate;
+            int next;
+            synchronized (lock) {
+                while (pending.position() == 0 && rotateAt < 0 && !closed) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (pending.position() == 0 && rotateAt < 0) break;
+                ByteBuffer full = pending;
+                pending = writing;
+                writing = full;
+                durable = pendingDurable;
+                pendingDurable = new CompletableFuture<>();
+                writingDurable = durable;
+                rotate = rotateAt;
+                next = lastSegment;
+                rotateAt = -1;
+            }
+            try {
+                writing.flip();
+                if (rotate >= 0) {
+                    int end = writing.limit();
+                    writing.limit(rotate);
+                    write(writing);
+                    openSegment(next);
+                    writing.limit(end);
+                }
+                write(writing);
+                durable.complete(null);
+            } catch (IOException e) {
+                System.err.println("Error escribiendo el diario, no se escribe nada más: " + e.getMessage());
+                CompletableFuture<Void> queued;
+                synchronized (lock) {
+                    failed = e;
+                    pending.clear();
+                    queued = pendingDurable;
+                }
+                durable.completeExceptionally(e);
+                queued.completeExceptionally(e);
+                break;
+            } finally {
+                writing.clear();
+            }
+            batches.incrementAndGet();
+            if (!compacting && onSegmentFull != null
+                    && segmentBytes >= Math.max(compactBytes, 2 * compactedBytes)) {
+                compacting = true;
+                onSegmentFull.run();
+            }
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Error cerrando el diario: " + e.getMessage());
+        }
+    }
+
+    private void write(ByteBuffer data) throws IOException {
+        if (!data.hasRemaining()) return;
+        int bytes = data.remaining();
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+        if (fsync) channel.force(false);
+        segmentBytes += bytes;
+        bytesWritten.addAndGet(bytes);
+    }
+
+    private void openSegment(int number) throws IOException {
+        if (channel != null) channel.close();
+        channel = FileChannel.open(segmentFile(number), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        if (fsync) {
+            // El fichero nuevo solo sobrevive a una caída si también se sincroniza el directorio
+            try (FileChannel directory = FileChannel.open(dir, StandardOpenOption.READ)) {
+                directory.force(true);
+            } catch (IOException e) {
+                // No todos los sistemas permiten abrir un directorio
+            }
+        }
+        segment = number;
+        segmentBytes = 0;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> segmentNumber(file) > 0)
+                .sorted(Comparator.comparingInt(MoveJournal::segmentNumber))
+                .collect(Collectors.toList());
+        }
+    }
+
+    private Path segmentFile(int number) {
+        return dir.resolve(String.format("journal-%08d.log", number));
+    }
+
+    private static int segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith("journal-") || !name.endsWith(".log")) return -1;
+        try {
+            return Integer.parseInt(name.substring(8, name.length() - 4));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public Path getDirectory() {
+        return dir;
+    }
+
+    // Registra las métricas en JMX
+    public void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                .registerMBean(this, new ObjectName("com.sudoku:type=MoveJournal"));
+        } catch (Exception e) {
+            System.err.println("No se pudieron registrar las métricas del diario: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public long getRecords() {
+        return records.get();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    @Override
+    public long getBatches() {
+        return batches.get();
+    }
+
+    @Override
+    public int getSegment() {
+        return segment;
+    }
+
+    @Override
+    public long getCompactions() {
+        return compactions.get();
+    }
+
+    @Override
+    public boolean isFailed() {
+        synchronized (lock) {
+            return failed != null;
+        }
+    }
+
+    @Override
+    public long getRecoveredRecords() {
+        return recoveredRecords;
+    }
+
+    @Override
+    public long getRecoveryMillis() {
+        return recoveryMillis;
+    }
+}
@@ -0,0 +1,17 @@
+package com.sudoku.service;
+
+// Métricas del diario de movimientos expuestas por JMX (com.sudoku:type=MoveJournal)
+public interface MoveJournalMXBean {
+    long getRecords();
+    long getBytesWritten();
+    // Escrituras (y fsync) hechas: cada una lleva todos los registros que llegaron mientras
+    // se escribía la anterior
+    long getBatches();
+    int getSegment();
+    long getCompactions();
+    // Una escritura falló y el diario ya no acepta registros
+    boolean isFailed();
+    // Registros leídos y tiempo de la recuperación al arrancar
+    long getRecoveredRecords();
+    long getRecoveryMillis();
+}
@@ -0,0 +1,17 @@
+package com.sudoku.service;
+
+import java.io.Serializable;
+
+// Respuesta de joinGameSession: el id del jugador y su token de reanudación. El token
+// solo viaja en esta respuesta, al cliente que ocupó el asiento.
+public class PlayerSession implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public final int playerId;
+    public final String resumeToken;
+
+    public PlayerSession(int playerId, String resumeToken) {
+        this.playerId = playerId;
+        this.resumeToken = resumeToken;
+    }
+}
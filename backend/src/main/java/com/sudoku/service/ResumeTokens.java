@@ -0,0 +1,98 @@
+package com.sudoku.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+// Tokens para volver a una partida tras una desconexión. El token es el id de jugador
+// firmado con HMAC-SHA256, así que no hace falta guardar nada por jugador: cualquiera
+// que lo presente es ese jugador. Con diario la clave se guarda a su lado, para que los
+// tokens sigan valiendo después de reiniciar el servidor.
+public class ResumeTokens {
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int KEY_BYTES = 32;
+    // Bastan 16 bytes de la firma
+    private static final int MAC_BYTES = 16;
+
+    private final SecretKeySpec key;
+    // Mac no es thread-safe: una instancia por hilo
+    private final ThreadLocal<Mac> macs;
+
+    // Clave aleatoria en memoria: los tokens valen hasta que se reinicia el servidor
+    public ResumeTokens() {
+        this(randomKey());
+    }
+
+    private ResumeTokens(byte[] key) {
+        this.key = new SecretKeySpec(key, ALGORITHM);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(this.key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 no disponible", e);
+            }
+        });
+    }
+
+    // Clave guardada en keyFile; la crea si no existe
+    public static ResumeTokens open(Path keyFile) throws IOException {
+        try {
+            Files.write(keyFile, randomKey(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE,
+                StandardOpenOption.SYNC);
+        } catch (FileAlreadyExistsException e) {
+            // Ya estaba: se usa la de antes
+        }
+        byte[] key = Files.readAllBytes(keyFile);
+        if (key.length != KEY_BYTES) throw new IOException("Clave de reanudación no válida: " + keyFile);
+        return new ResumeTokens(key);
+    }
+
+    public String issue(int playerId) {
+        ByteBuffer token = ByteBuffer.allocate(4 + MAC_BYTES);
+        token.putInt(playerId);
+        token.put(sign(playerId));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.array());
+    }
+
+    // Id de jugador del token, o -1 si no es válido
+    public int verify(String token) {
+        if (token == null) return -1;
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+        if (bytes.length != 4 + MAC_BYTES) return -1;
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int playerId = buffer.getInt();
+        byte[] mac = Arrays.copyOfRange(bytes, 4, bytes.length);
+        // Comparación en tiempo constante
+        return MessageDigest.isEqual(mac, sign(playerId)) ? playerId : -1;
+    }
+
+    private byte[] sign(int playerId) {
+        Mac mac = macs.get();
+        byte[] full = mac.doFinal(ByteBuffer.allocate(4).putInt(playerId).array());
+        return Arrays.copyOf(full, MAC_BYTES);
+    }
+
+    private static byte[] randomKey() {
+        byte[] key = new byte[KEY_BYTES];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+}
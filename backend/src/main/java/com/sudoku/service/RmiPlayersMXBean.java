@@ -0,0 +1,14 @@
+package com.sudoku.service;
+
+// Jugadores RMI en memoria, expuestos por JMX (com.sudoku:type=RmiPlayers)
+public interface RmiPlayersMXBean {
+    // Jugadores con cola de polling
+    int getPlayers();
+    int getListeners();
+    // Actualizaciones pendientes en las colas de polling y de los listeners
+    long getQueuedUpdates();
+    // Jugadores dados por caídos al caducar su arrendamiento
+    long getExpiredPlayers();
+    // Colas llenas cuyos cambios de tablero se sustituyeron por un RESYNC
+    long getCollapsedQueues();
+}
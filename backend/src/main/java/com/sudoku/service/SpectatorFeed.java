@@ -0,0 +1,83 @@
+package com.sudoku.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.sudoku.model.GameState;
+import com.sudoku.model.MoveLog;
+
+// Publica por lotes los movimientos de las partidas que tienen espectadores. Los
+// jugadores solo apuntan el movimiento en el MoveLog de la partida; un único hilo revisa
+// cada BATCH_MS la versión de cada partida observada y, si avanzó, despierta a los que
+// esperan en el MoveLog (long-poll RMI) y avisa a la sala del transporte, que codifica
+// el lote una vez para todos sus espectadores. Así el reparto no cuesta nada en el
+// hilo del movimiento por muchos espectadores que haya.
+public class SpectatorFeed {
+    public static final long BATCH_MS = Long.getLong("sudoku.spectator.batchMs", 50);
+    // Con más movimientos pendientes se manda el tablero completo
+    public static final int MAX_MOVES_PER_BATCH = Integer.getInteger("sudoku.spectator.maxMoves", 64);
+
+    // Espectadores de una partida en un transporte. Solo la llama el hilo del feed,
+    // una vez por lote, con la versión repartida en el lote anterior y la actual.
+    public interface Room {
+        void publish(GameState game, int publishedVersion, int latestVersion);
+    }
+
+    private static final class Watch {
+        final GameState game;
+        final Room room;
+        int published;
+
+        Watch(GameState game, Room room) {
+            this.game = game;
+            this.room = room;
+            this.published = game.getMoveLog().getLatestVersion();
+        }
+    }
+
+    private final Map<String, Watch> watched = new ConcurrentHashMap<>();
+
+    public SpectatorFeed() {
+        ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "spectator-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::publishAll, BATCH_MS, BATCH_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // Empieza a publicar la partida; no hace nada si ya se publicaba.
+    // 'room' es null si solo hay lectores por long-poll.
+    public void watch(String gameId, GameState game, Room room) {
+        watched.computeIfAbsent(gameId, id -> new Watch(game, room));
+    }
+
+    public void unwatch(String gameId) {
+        Watch watch = watched.remove(gameId);
+        if (watch != null) {
+            watch.game.getMoveLog().signal();
+        }
+    }
+
+    public int getWatchedGames() {
+        return watched.size();
+    }
+
+    private void publishAll() {
+        for (Watch watch : watched.values()) {
+            try {
+                MoveLog log = watch.game.getMoveLog();
+                int latest = log.getLatestVersion();
+                if (latest != watch.published) log.signal();
+                if (watch.room != null) watch.room.publish(watch.game, watch.published, latest);
+                watch.published = latest;
+            } catch (RuntimeException e) {
+                // Una excepción cancelaría la tarea periódica
+                System.err.println("Error publicando a espectadores: " + e.getMessage());
+            }
+        }
+    }
+}
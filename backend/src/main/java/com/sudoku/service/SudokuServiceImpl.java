@@ -1,66 +1,104 @@
 // SudokuServiceImpl.java
 package com.sudoku.service;
 
+import java.lang.management.ManagementFactory;
 import java.rmi.RemoteException;
 import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+import javax.management.ObjectName;
+
+import com.sudoku.model.Board;
+import com.sudoku.model.BoardSnapshot;
+import com.sudoku.model.Difficulty;
+import com.sudoku.model.GameRules;
 import com.sudoku.model.GameState;
+import com.sudoku.model.MoveLog;
+import com.sudoku.model.MoveResult;
+import com.sudoku.model.PuzzlePool;
 
-public class SudokuServiceImpl extends UnicastRemoteObject implements ISudokuService {
+// Adaptador RMI del GameEngine: las partidas, el matchmaking y los turnos son del motor,
+// que comparte con el endpoint WebSocket. Aquí solo quedan las colas de polling y los
+// listeners de los jugadores RMI, y los eventos del motor que les tocan. Las llamadas que
+// cambian una partida esperan a que su hilo de GameShards las ejecute.
+// Cada jugador RMI tiene un arrendamiento en la rueda del motor que renueva cualquier
+// llamada con su id (o heartbeat). Si caduca se le da por caído: se liberan su cola y su
+// listener y el motor le guarda el asiento durante el plazo de gracia, por si vuelve con
+// resumeGame. La cola de polling está acotada: si el cliente no la vacía, los cambios de
+// tablero pendientes se sustituyen por un RESYNC.
+public class SudokuServiceImpl extends UnicastRemoteObject
+        implements ISudokuServiceV2, GameEngine.Listener, RmiPlayersMXBean {
     private static final long serialVersionUID = 1L;
-    private final Map<String, GameState> activeGames = new ConcurrentHashMap<>();
-    private final Map<Integer, String> playerToGameMap = new ConcurrentHashMap<>();
+    // Tiempo sin llamadas tras el que se da por caído a un jugador
+    public static final long LEASE_MS = Long.getLong("sudoku.rmi.leaseMs", 60_000);
+    public static final int QUEUE_CAPACITY = Integer.getInteger("sudoku.rmi.queueCapacity", 256);
+    private final transient GameEngine engine;
     private final Map<Integer, BlockingQueue<GameUpdate>> playerUpdates = new ConcurrentHashMap<>();
-    private int lastPlayerId = 0;
+    private final transient Map<Integer, LeaseWheel.Lease> leases = new ConcurrentHashMap<>();
+    private final AtomicLong expiredPlayers = new AtomicLong();
+    private final AtomicLong collapsedQueues = new AtomicLong();
+    private final UpdateDispatcher dispatcher = new UpdateDispatcher(this::resyncAfterEviction);
+    // Despierta por lotes a los espectadores que esperan en spectate
+    private final SpectatorFeed spectators = new SpectatorFeed();
+    // Límite de espera de getUpdates para no retener hilos RMI indefinidamente
+    private static final long MAX_LONG_POLL_MS = 30_000;
 
     public SudokuServiceImpl() throws RemoteException {
+        this(GameEngine.getInstance());
+    }
+
+    public SudokuServiceImpl(GameEngine engine) throws RemoteException {
         super();
+        this.engine = engine;
+        engine.addListener(this);
     }
 
     @Override
     public int[][] generateBoard4x4() throws RemoteException {
-        GameState game = new GameState(4);
-        game.initializeBoard();
-        return game.getBoard();
+        return PuzzlePool.getInstance().take(4, Difficulty.MEDIUM).getBoard().toArray();
     }
 
     @Override
     public int[][] generateBoard9x9() throws RemoteException {
-        GameState game = new GameState(9);
-        game.initializeBoard();
-        return game.getBoard();
+        return PuzzlePool.getInstance().take(9, Difficulty.MEDIUM).getBoard().toArray();
     }
 
     @Override
     public int[][] generateBoard16x16() throws RemoteException {
-        GameState game = new GameState(16);
-        game.initializeBoard();
-        return game.getBoard();
+        return PuzzlePool.getInstance().take(16, Difficulty.MEDIUM).getBoard().toArray();
+    }
+
+    @Override
+    public int joinGame() throws RemoteException {
+        return joinGame(null);
+    }
+
+    @Override
+    public int joinGame(IGameListener listener) throws RemoteException {
+        return joinGame(listener, GameRules.TWO_PLAYER_TURNS);
     }
 
     @Override
-    public synchronized int joinGame() throws RemoteException {
+    public int joinGame(IGameListener listener, GameRules rules) throws RemoteException {
+        if (rules == null) throw new RemoteException("Reglas no válidas");
         try {
-            int playerId = ++lastPlayerId;
-            playerUpdates.put(playerId, new LinkedBlockingQueue<>());
-
-            String gameId = findOrCreateGame();
-            GameState game = activeGames.get(gameId);
-            game.addPlayer(String.valueOf(playerId), playerId);
-            playerToGameMap.put(playerId, gameId);
-
-            if (game.isFull()) {
-                game.initializeBoard();
-                game.setGameStarted(true);
-                notifyAllPlayers(gameId, "GAME_START");
+            int playerId = engine.newPlayerId();
+            admit(playerId, new LinkedBlockingQueue<>(QUEUE_CAPACITY));
+            // Antes de entrar en la partida, para no perder GAME_START
+            if (listener != null) {
+                dispatcher.register(playerId, listener);
             }
 
+            if (engine.join(playerId, 9, Difficulty.MEDIUM, rules).join() == null) {
+                engine.createGame(playerId, 9, Difficulty.MEDIUM, rules);
+            }
             return playerId;
         } catch (Exception e) {
             throw new RemoteException("Error al unirse al juego", e);
@@ -68,35 +106,66 @@ public class SudokuServiceImpl extends UnicastRemoteObject implements ISudokuSer
     }
 
     @Override
-    public synchronized boolean makeMove(int playerId, int row, int col, int value) throws RemoteException {
+    public boolean makeMove(int playerId, int row, int col, int value) throws RemoteException {
+        touch(playerId);
         try {
-            String gameId = playerToGameMap.get(playerId);
-            if (gameId == null) return false;
+            // El movimiento se aplica en el hilo de la partida; la llamada RMI espera el resultado
+            return engine.makeMove(playerId, row, col, value).join() == MoveResult.ACCEPTED;
+        } catch (Exception e) {
+            throw new RemoteException("Error al realizar movimiento", e);
+        }
+    }
 
-            GameState game = activeGames.get(gameId);
-            if (game == null || !game.isGameStarted()) return false;
+    @Override
+    public boolean isGameReady(int playerId) throws RemoteException {
+        touch(playerId);
+        GameState game = gameOf(playerId);
+        return game != null && game.isGameStarted();
+    }
 
-            if (game.getCurrentPlayerId() != playerId) return false;
+    @Override
+    public int getCurrentPlayerId(int playerId) throws RemoteException {
+        touch(playerId);
+        GameState game = gameOf(playerId);
+        if (game == null) return -1;
+        synchronized (game) {
+            return game.isGameStarted() ? game.getCurrentPlayerId() : -1;
+        }
+    }
 
-            if (game.makeMove(row, col, value)) {
-                game.switchTurn();
-                notifyAllPlayers(gameId, "MOVE_MADE");
-                
-                if (game.isComplete()) {
-                    notifyAllPlayers(gameId, "GAME_OVER:" + playerId);
-                }
-                return true;
+    @Override
+    public int[][] getCurrentBoard(int playerId) throws RemoteException {
+        touch(playerId);
+        GameState game = gameOf(playerId);
+        if (game == null) throw new RemoteException("No estás en ningún juego");
+        return game.getBoard().toArray();
+    }
+
+    @Override
+    public GameStatus getStatus(int playerId, int knownBoardVersion) throws RemoteException {
+        touch(playerId);
+        GameState game = gameOf(playerId);
+        if (game == null) return GameStatus.notInGame();
+        synchronized (game) {
+            String state;
+            if (game.isComplete()) {
+                state = GameStatus.FINISHED;
+            } else if (game.isGameStarted()) {
+                state = GameStatus.PLAYING;
+            } else {
+                state = GameStatus.WAITING;
             }
-            return false;
-        } catch (Exception e) {
-            throw new RemoteException("Error al realizar movimiento", e);
+            BoardSnapshot snapshot = game.getSnapshot();
+            Board board = snapshot.getVersion() > knownBoardVersion ? snapshot.getBoard() : null;
+            return new GameStatus(state, snapshot.getVersion(), game.getCurrentPlayerId(), board);
         }
     }
 
     @Override
-    public synchronized boolean isGameReady() throws RemoteException {
+    @Deprecated
+    public boolean isGameReady() throws RemoteException {
         try {
-            for (GameState game : activeGames.values()) {
+            for (GameState game : engine.getGames()) {
                 if (game.isGameStarted() && game.isFull()) {
                     return true;
                 }
@@ -108,11 +177,14 @@ public class SudokuServiceImpl extends UnicastRemoteObject implements ISudokuSer
     }
 
     @Override
-    public synchronized int getCurrentPlayerId() throws RemoteException {
+    @Deprecated
+    public int getCurrentPlayerId() throws RemoteException {
         try {
-            for (GameState game : activeGames.values()) {
-                if (game.isGameStarted()) {
-                    return game.getCurrentPlayerId();
+            for (GameState game : engine.getGames()) {
+                synchronized (game) {
+                    if (game.isGameStarted()) {
+                        return game.getCurrentPlayerId();
+                    }
                 }
             }
             return -1;
@@ -122,11 +194,14 @@ public class SudokuServiceImpl extends UnicastRemoteObject implements ISudokuSer
     }
 
     @Override
-    public synchronized int[][] getCurrentBoard() throws RemoteException {
+    @Deprecated
+    public int[][] getCurrentBoard() throws RemoteException {
         try {
-            for (Map.Entry<String, GameState> entry : activeGames.entrySet()) {
-                if (entry.getValue().isGameStarted()) {
-                    return entry.getValue().getBoard();
+            for (GameState game : engine.getGames()) {
+                synchronized (game) {
+                    if (game.isGameStarted()) {
+                        return game.getBoard().toArray();
+                    }
                 }
             }
             throw new RemoteException("No hay juego activo");
@@ -137,18 +212,20 @@ public class SudokuServiceImpl extends UnicastRemoteObject implements ISudokuSer
 
     @Override
     public String getGameStatus(int playerId) throws RemoteException {
+        touch(playerId);
         try {
-            String gameId = playerToGameMap.get(playerId);
-            if (gameId == null) return "No estás en ningún juego";
+            if (engine.gameIdOf(playerId) == null) return "No estás en ningún juego";
 
-            GameState game = activeGames.get(gameId);
+            GameState game = engine.gameOf(playerId);
             if (game == null) return "El juego no existe";
 
-            if (!game.isGameStarted()) return "Esperando a otro jugador...";
+            synchronized (game) {
+                if (!game.isGameStarted()) return "Esperando a otro jugador...";
 
-            return game.getCurrentPlayerId() == playerId ? 
-                   "Es tu turno" : 
-                   "📄🔢 Esperando al otro jugador...";
+                return game.isTurnOf(playerId) ? 
+                       "Es tu turno" : 
+                       "📄🔢 Esperando al otro jugador...";
+            }
         } catch (Exception e) {
             throw new RemoteException("Error al obtener estado del juego", e);
         }
@@ -157,24 +234,15 @@ public class SudokuServiceImpl extends UnicastRemoteObject implements ISudokuSer
     @Override
     public void leaveGame(int playerId) throws RemoteException {
         try {
-            String gameId = playerToGameMap.remove(playerId);
-            if (gameId != null) {
-                GameState game = activeGames.get(gameId);
-                if (game != null) {
-                    game.removePlayer(String.valueOf(playerId));
-                    notifyAllPlayers(gameId, "PLAYER_DISCONNECTED");
-                    if (game.getPlayers().isEmpty()) {
-                        activeGames.remove(gameId);
-                    }
-                }
-            }
-            playerUpdates.remove(playerId);
+            engine.leave(playerId).join();
+            release(playerId);
         } catch (Exception e) {
             throw new RemoteException("Error al abandonar el juego", e);
         }
     }
     @Override
     public GameUpdate getUpdate(int playerId) throws RemoteException {
+        touch(playerId);
         try {
             BlockingQueue<GameUpdate> updates = playerUpdates.get(playerId);
             if (updates != null) {
@@ -189,34 +257,301 @@ public class SudokuServiceImpl extends UnicastRemoteObject implements ISudokuSer
         }
     }
 
-    private void notifyAllPlayers(String gameId, String type) {
-        GameState game = activeGames.get(gameId);
-        if (game == null) return;
+    @Override
+    public List<GameUpdate> getUpdates(int playerId, int maxItems, long timeoutMs) throws RemoteException {
+        touch(playerId);
+        BlockingQueue<GameUpdate> updates = playerUpdates.get(playerId);
+        List<GameUpdate> batch = new ArrayList<>();
+        if (updates == null || maxItems <= 0) return batch;
+        try {
+            GameUpdate first = updates.poll(Math.min(timeoutMs, MAX_LONG_POLL_MS), TimeUnit.MILLISECONDS);
+            if (first == null) return batch;
+            batch.add(first);
+            updates.drainTo(batch, maxItems - 1);
+            return coalesceBoardUpdates(batch);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            batch.add(GameUpdate.createMessageUpdate("ERROR", e.getMessage()));
+            return batch;
+        }
+    }
+
+    // Un tablero completo deja obsoletos los tableros y movimientos anteriores del lote
+    private static List<GameUpdate> coalesceBoardUpdates(List<GameUpdate> batch) {
+        int lastSnapshot = -1;
+        for (int i = batch.size() - 1; i >= 0 && lastSnapshot == -1; i--) {
+            if (batch.get(i).isSnapshot()) lastSnapshot = i;
+        }
+        if (lastSnapshot <= 0) return batch;
+        List<GameUpdate> coalesced = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            GameUpdate update = batch.get(i);
+            boolean boardChange = update.isSnapshot() || "MOVE_MADE".equals(update.type);
+            if (i >= lastSnapshot || !boardChange) {
+                coalesced.add(update);
+            }
+        }
+        return coalesced;
+    }
+
+    @Override
+    public List<String> getActiveGames() throws RemoteException {
+        return engine.getActiveGames();
+    }
+
+    @Override
+    public List<GameUpdate> spectate(String gameId, int knownBoardVersion, long timeoutMs) throws RemoteException {
+        GameState game = engine.getGame(gameId);
+        if (game == null) throw new RemoteException("La partida no existe");
+        // No hay estado por espectador: cada uno lee del MoveLog desde su versión
+        spectators.watch(gameId, game, null);
+        try {
+            game.getMoveLog().awaitNewer(knownBoardVersion, Math.min(timeoutMs, MAX_LONG_POLL_MS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return movesSince(game, knownBoardVersion, SpectatorFeed.MAX_MOVES_PER_BATCH);
+    }
+
+    // Movimientos posteriores a knownBoardVersion, o el tablero completo si son más de 'max'
+    private static List<GameUpdate> movesSince(GameState game, int knownBoardVersion, int max) {
+        List<GameUpdate> batch = new ArrayList<>();
+        long[] moves = game.getMoveLog().since(knownBoardVersion, max);
+        if (moves == null) {
+            batch.add(GameUpdate.createSnapshot("RESYNC", game.getSnapshot()));
+            return batch;
+        }
+        for (int i = 0; i < moves.length; i++) {
+            long move = moves[i];
+            batch.add(GameUpdate.createMoveUpdate(MoveLog.versionOf(knownBoardVersion, i),
+                MoveLog.row(move), MoveLog.col(move), MoveLog.value(move), MoveLog.playerId(move)));
+        }
+        return batch;
+    }
+
+    @Override
+    public PlayerSession joinGameSession(IGameListener listener, GameRules rules) throws RemoteException {
+        int playerId = joinGame(listener, rules);
+        return new PlayerSession(playerId, engine.resumeToken(playerId));
+    }
+
+    @Override
+    public List<GameUpdate> resumeGame(String resumeToken, int knownBoardVersion, IGameListener listener)
+            throws RemoteException {
+        int playerId = engine.playerOf(resumeToken);
+        if (playerId < 0) throw new RemoteException("Token de reanudación no válido");
+        List<GameUpdate> catchUp = new ArrayList<>();
+        GameState game;
+        try {
+            game = engine.resume(playerId, resumed -> {
+                // En el hilo de la partida: los eventos siguientes van ya a la cola nueva
+                BlockingQueue<GameUpdate> previous = admit(playerId, new LinkedBlockingQueue<>(QUEUE_CAPACITY));
+                if (listener != null) {
+                    dispatcher.register(playerId, listener);
+                } else {
+                    dispatcher.unregister(playerId);
+                }
+                catchUp.addAll(movesSince(resumed, knownBoardVersion, GameEngine.RESUME_MAX_MOVES));
+                if (previous != null) {
+                    // Los cambios de tablero ya van en catchUp; el resto de avisos se conserva
+                    for (GameUpdate update : previous) {
+                        if (!update.isSnapshot() && !"MOVE_MADE".equals(update.type)) catchUp.add(update);
+                    }
+                    // Despierta un getUpdates de la conexión anterior
+                    previous.offer(GameUpdate.createEmptyUpdate("NO_UPDATE"));
+                }
+            }).join();
+        } catch (Exception e) {
+            throw new RemoteException("Error al reanudar la partida", e);
+        }
+        if (game == null) throw new RemoteException("No hay partida que reanudar");
+        return catchUp;
+    }
+
+    @Override
+    public boolean heartbeat(int playerId) throws RemoteException {
+        touch(playerId);
+        return playerUpdates.containsKey(playerId);
+    }
+
+    @Override
+    public void registerListener(int playerId, IGameListener listener) throws RemoteException {
+        touch(playerId);
+        if (!playerUpdates.containsKey(playerId)) {
+            throw new RemoteException("Jugador desconocido: " + playerId);
+        }
+        dispatcher.register(playerId, listener);
+    }
+
+    @Override
+    public void unregisterListener(int playerId) throws RemoteException {
+        touch(playerId);
+        dispatcher.unregister(playerId);
+    }
+
+    // Si se descarta el listener, el tablero actual queda en la cola de polling
+    // para que el cliente pueda recuperarse con getUpdate
+    private void resyncAfterEviction(int playerId) {
+        // En el hilo de la partida: un MOVE_MADE posterior no puede llegar antes que un
+        // RESYNC hecho con el tablero anterior
+        engine.inGameOf(playerId, game -> {
+            BlockingQueue<GameUpdate> updates = playerUpdates.get(playerId);
+            if (updates != null) enqueue(playerId, updates, GameUpdate.createSnapshot("RESYNC", game.getSnapshot()));
+        });
+    }
+
+    // Da de alta la cola del jugador y empieza a vigilarlo. Devuelve la cola anterior.
+    private BlockingQueue<GameUpdate> admit(int playerId, BlockingQueue<GameUpdate> updates) {
+        BlockingQueue<GameUpdate> previous = playerUpdates.put(playerId, updates);
+        LeaseWheel.Lease lease = engine.getLeaseWheel().add(LEASE_MS, expired -> expire(playerId, expired));
+        LeaseWheel.Lease replaced = leases.put(playerId, lease);
+        if (replaced != null) replaced.cancel();
+        return previous;
+    }
+
+    private void touch(int playerId) {
+        LeaseWheel.Lease lease = leases.get(playerId);
+        if (lease != null) lease.touch();
+    }
+
+    // Sin llamadas durante LEASE_MS: se libera lo que ocupa y el motor le guarda el asiento
+    // durante el plazo de gracia. En el hilo de la rueda.
+    private void expire(int playerId, LeaseWheel.Lease lease) {
+        if (!leases.remove(playerId, lease)) return;
+        expiredPlayers.incrementAndGet();
+        BlockingQueue<GameUpdate> updates = playerUpdates.remove(playerId);
+        if (updates != null) updates.clear();
+        dispatcher.unregister(playerId);
+        engine.disconnect(playerId);
+    }
 
-        GameUpdate update;
-        if (type.startsWith("GAME_OVER:")) {
-            update = GameUpdate.createMessageUpdate(type, type);
-        } else {
-            update = GameUpdate.createBoardUpdate(type, game.getBoard());
+    private void release(int playerId) {
+        LeaseWheel.Lease lease = leases.remove(playerId);
+        if (lease != null) lease.cancel();
+        BlockingQueue<GameUpdate> updates = playerUpdates.remove(playerId);
+        if (updates != null) {
+            // Despierta un getUpdates que siga esperando en esta cola
+            updates.clear();
+            updates.offer(GameUpdate.createEmptyUpdate("NO_UPDATE"));
         }
+        dispatcher.unregister(playerId);
+    }
+
+    // Cola llena: el cliente no la está vaciando. Los cambios de tablero pendientes se
+    // sustituyen por un RESYNC con el tablero actual y se conservan los demás avisos.
+    private void enqueue(int playerId, BlockingQueue<GameUpdate> updates, GameUpdate update) {
+        if (updates.offer(update)) return;
+        GameState game = gameOf(playerId);
+        List<GameUpdate> pending = new ArrayList<>();
+        updates.drainTo(pending);
+        for (GameUpdate queued : pending) {
+            if (!isBoardChange(queued)) updates.offer(queued);
+        }
+        if (game != null) updates.offer(GameUpdate.createSnapshot("RESYNC", game.getSnapshot()));
+        if (!isBoardChange(update)) updates.offer(update);
+        collapsedQueues.incrementAndGet();
+    }
+
+    private static boolean isBoardChange(GameUpdate update) {
+        return update.isSnapshot() || "MOVE_MADE".equals(update.type);
+    }
+
+    // Eventos del motor. Solo se entregan a los jugadores RMI de la partida: los ids
+    // que no tienen cola de polling son de otro transporte.
+    @Override
+    public void gameStarted(String gameId, GameState game) {
+        notifyPlayers(game, GameUpdate.createSnapshot("GAME_START", game.getSnapshot()));
+    }
+
+    @Override
+    public void moveMade(String gameId, GameState game, int playerId, int row, int col, int value, int boardVersion) {
+        // Solo el movimiento, no el tablero completo
+        notifyPlayers(game, GameUpdate.createMoveUpdate(boardVersion, row, col, value, playerId));
+    }
+
+    @Override
+    public void gameOver(String gameId, GameState game, int winnerId) {
+        String type = "GAME_OVER:" + winnerId;
+        notifyPlayers(game, GameUpdate.createMessageUpdate(type, type));
+    }
+
+    @Override
+    public void playerLeft(String gameId, GameState game, int playerId) {
+        notifyPlayers(game, GameUpdate.createSnapshot("PLAYER_DISCONNECTED", game.getSnapshot()));
+    }
+
+    @Override
+    public void playerDisconnected(String gameId, GameState game, int playerId) {
+        // Conserva el asiento; si no vuelve a tiempo llega PLAYER_DISCONNECTED
+        notifyPlayers(game, GameUpdate.createMessageUpdate("PLAYER_AWAY", String.valueOf(playerId)));
+    }
+
+    @Override
+    public void playerReconnected(String gameId, GameState game, int playerId) {
+        notifyPlayers(game, GameUpdate.createMessageUpdate("PLAYER_RECONNECTED", String.valueOf(playerId)));
+    }
+
+    @Override
+    public void gameExpired(String gameId, GameState game) {
+        notifyPlayers(game, GameUpdate.createMessageUpdate("GAME_EXPIRED", gameId));
+    }
 
+    @Override
+    public void gameClosed(String gameId) {
+        spectators.unwatch(gameId);
+    }
+
+    private void notifyPlayers(GameState game, GameUpdate update) {
         game.getPlayers().forEach((playerId, sessionId) -> {
-            BlockingQueue<GameUpdate> updates = playerUpdates.get(Integer.parseInt(sessionId));
+            if (dispatcher.dispatch(playerId, update)) return;
+            BlockingQueue<GameUpdate> updates = playerUpdates.get(playerId);
             if (updates != null) {
-                updates.offer(update);
+                enqueue(playerId, updates, update);
             }
         });
     }
 
-    private String findOrCreateGame() {
-        for (Map.Entry<String, GameState> entry : activeGames.entrySet()) {
-            if (!entry.getValue().isFull()) {
-                return entry.getKey();
-            }
+    // Registra las métricas en JMX
+    public void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                .registerMBean(this, new ObjectName("com.sudoku:type=RmiPlayers"));
+        } catch (Exception e) {
+            System.err.println("No se pudieron registrar las métricas RMI: " + e.getMessage());
         }
-        String gameId = UUID.randomUUID().toString();
-        activeGames.put(gameId, new GameState(9));
-        return gameId;
+    }
+
+    @Override
+    public int getPlayers() {
+        return playerUpdates.size();
+    }
+
+    @Override
+    public int getListeners() {
+        return dispatcher.getListeners();
+    }
+
+    @Override
+    public long getQueuedUpdates() {
+        long queued = dispatcher.getQueued();
+        for (BlockingQueue<GameUpdate> updates : playerUpdates.values()) {
+            queued += updates.size();
+        }
+        return queued;
+    }
+
+    @Override
+    public long getExpiredPlayers() {
+        return expiredPlayers.get();
+    }
+
+    @Override
+    public long getCollapsedQueues() {
+        return collapsedQueues.get();
+    }
+
+    private GameState gameOf(int playerId) {
+        return engine.gameOf(playerId);
     }
 
 }
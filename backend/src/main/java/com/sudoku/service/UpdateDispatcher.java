@@ -0,0 +1,134 @@
+package com.sudoku.service;
+
+import java.rmi.RemoteException;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+// Envía las actualizaciones a los IGameListener de los clientes de forma asíncrona.
+// Cada listener tiene una cola acotada que vacía como mucho una tarea a la vez, lo que
+// mantiene el orden. Si la cola se llena o la llamada remota falla, el listener se
+// descarta y el jugador vuelve a recibir las actualizaciones por getUpdate. Lo mismo si
+// una llamada lleva más de CALL_TIMEOUT_MS sin volver: el cliente está colgado.
+public class UpdateDispatcher {
+    private static final int QUEUE_CAPACITY = Integer.getInteger("sudoku.dispatch.queueCapacity", 256);
+    private static final int THREADS = Integer.getInteger("sudoku.dispatch.threads", 4);
+    public static final long CALL_TIMEOUT_MS = Long.getLong("sudoku.dispatch.callTimeoutMs", 5_000);
+
+    static {
+        // Sin plazo, un cliente que no responde deja el hilo bloqueado leyendo del socket.
+        // Vale para todas las llamadas RMI salientes del proceso, que en el servidor son
+        // solo los callbacks; hay que fijarlo antes de la primera.
+        if (System.getProperty("sun.rmi.transport.tcp.responseTimeout") == null) {
+            System.setProperty("sun.rmi.transport.tcp.responseTimeout", Long.toString(CALL_TIMEOUT_MS));
+        }
+    }
+
+    private final Map<Integer, Channel> channels = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+    private final IntConsumer onEvict;
+
+    private static final class Channel {
+        final int playerId;
+        final IGameListener listener;
+        final BlockingQueue<GameUpdate> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        // nanoTime del onUpdate en curso, 0 si no hay ninguno
+        volatile long callStarted;
+
+        Channel(int playerId, IGameListener listener) {
+            this.playerId = playerId;
+            this.listener = listener;
+        }
+    }
+
+    // onEvict recibe el id del jugador cuyo listener se descartó
+    public UpdateDispatcher(IntConsumer onEvict) {
+        this.onEvict = onEvict;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "update-dispatcher-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void register(int playerId, IGameListener listener) {
+        channels.put(playerId, new Channel(playerId, listener));
+    }
+
+    public void unregister(int playerId) {
+        channels.remove(playerId);
+    }
+
+    // Devuelve false si el jugador no tiene listener (hay que usar su cola de polling)
+    public boolean dispatch(int playerId, GameUpdate update) {
+        Channel channel = channels.get(playerId);
+        if (channel == null) return false;
+        long started = channel.callStarted;
+        if (started != 0 && System.nanoTime() - started > TimeUnit.MILLISECONDS.toNanos(CALL_TIMEOUT_MS)) {
+            evict(channel, "sin respuesta en " + CALL_TIMEOUT_MS + " ms");
+            return false;
+        }
+        if (!channel.queue.offer(update)) {
+            evict(channel, "cola llena");
+            return false;
+        }
+        if (channel.scheduled.compareAndSet(false, true)) {
+            executor.execute(() -> drain(channel));
+        }
+        return true;
+    }
+
+    public int getListeners() {
+        return channels.size();
+    }
+
+    // Actualizaciones esperando a entregarse, en todas las colas
+    public long getQueued() {
+        long queued = 0;
+        for (Channel channel : channels.values()) {
+            queued += channel.queue.size();
+        }
+        return queued;
+    }
+
+    private void drain(Channel channel) {
+        while (true) {
+            GameUpdate update = channel.queue.poll();
+            if (update == null) {
+                channel.scheduled.set(false);
+                // Otra actualización pudo llegar justo antes de liberar la marca
+                if (channel.queue.isEmpty() || !channel.scheduled.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            channel.callStarted = System.nanoTime();
+            try {
+                channel.listener.onUpdate(update);
+            } catch (Exception e) {
+                // RMI también devuelve las excepciones no comprobadas del callback del cliente
+                evict(channel, e instanceof RemoteException ? e.getMessage() : e.toString());
+                return;
+            } finally {
+                channel.callStarted = 0;
+            }
+        }
+    }
+
+    private void evict(Channel channel, String reason) {
+        if (channels.remove(channel.playerId, channel)) {
+            channel.queue.clear();
+            System.err.println("Listener del jugador " + channel.playerId + " descartado: " + reason);
+            onEvict.accept(channel.playerId);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.sudoku.benchmarks;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Compara dos resultados de JMH en JSON (-rf json -rff fichero.json), por ejemplo de
+ * dos builds. Empareja cada benchmark por nombre, modo y parámetros e imprime la
+ * puntuación de cada uno, el cambio en % y, si se corrió con -prof gc, los bytes
+ * asignados por operación. Un cambio es una regresión si va a peor más de 'threshold'
+ * % (por defecto 5) y más que la suma de los dos márgenes de error; si hay alguna, el
+ * proceso sale con código 1.
+ *
+ *   java -cp benchmarks/target/benchmarks.jar com.sudoku.benchmarks.BenchmarkDiff base.json new.json [threshold]
+ */
+public class BenchmarkDiff {
+    private static final String ALLOC = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: BenchmarkDiff base.json new.json [threshold%]");
+            System.exit(2);
+        }
+        Map<String, JsonObject> base = read(args[0]);
+        Map<String, JsonObject> candidate = read(args[1]);
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 5;
+
+        System.out.printf("%-70s %5s %14s %14s %9s %12s %12s%n",
+            "benchmark", "mode", "base", "new", "change", "base B/op", "new B/op");
+        int regressions = 0;
+        for (Map.Entry<String, JsonObject> entry : candidate.entrySet()) {
+            JsonObject before = base.get(entry.getKey());
+            JsonObject after = entry.getValue();
+            JsonObject metric = after.getAsJsonObject("primaryMetric");
+            String mode = after.get("mode").getAsString();
+            if (before == null) {
+                System.out.printf("%-70s %5s %14s %14.3f %9s %12s %12s%n", entry.getKey(), mode, "-",
+                    metric.get("score").getAsDouble(), "new", "-", alloc(after));
+                continue;
+            }
+            double was = score(before);
+            double now = score(after);
+            double change = (now - was) / was * 100;
+            // En throughput más es mejor; en los modos de tiempo, menos
+            boolean higherIsBetter = "thrpt".equals(mode);
+            double worse = higherIsBetter ? -change : change;
+            boolean beyondError = Math.abs(now - was) > error(before) + error(after);
+            String flag = "";
+            if (worse > threshold && beyondError) {
+                regressions++;
+                flag = " REGRESSION";
+            } else if (-worse > threshold && beyondError) {
+                flag = " faster";
+            }
+            System.out.printf("%-70s %5s %14.3f %14.3f %+8.1f%% %12s %12s %s%s%n", entry.getKey(), mode, was, now,
+                change, alloc(before), alloc(after), metric.get("scoreUnit").getAsString(), flag);
+        }
+        for (String key : base.keySet()) {
+            if (!candidate.containsKey(key)) System.out.printf("%-70s (solo en base)%n", key);
+        }
+        System.out.println(regressions == 0 ? "sin regresiones" : "regresiones: " + regressions);
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+
+    // Resultados por "benchmark:param=valor,..." en el orden del fichero
+    private static Map<String, JsonObject> read(String file) throws IOException {
+        Map<String, JsonObject> results = new LinkedHashMap<>();
+        try (Reader reader = Files.newBufferedReader(Paths.get(file))) {
+            for (JsonElement element : JsonParser.parseReader(reader).getAsJsonArray()) {
+                JsonObject result = element.getAsJsonObject();
+                results.put(key(result), result);
+            }
+        }
+        return results;
+    }
+
+    private static String key(JsonObject result) {
+        String name = result.get("benchmark").getAsString();
+        StringBuilder key = new StringBuilder(name.substring(name.lastIndexOf('.', name.lastIndexOf('.') - 1) + 1));
+        if (result.has("params")) {
+            Map<String, String> params = new TreeMap<>();
+            for (Map.Entry<String, JsonElement> param : result.getAsJsonObject("params").entrySet()) {
+                params.put(param.getKey(), param.getValue().getAsString());
+            }
+            String separator = ":";
+            for (Map.Entry<String, String> param : params.entrySet()) {
+                key.append(separator).append(param.getKey()).append('=').append(param.getValue());
+                separator = ",";
+            }
+        }
+        return key.toString();
+    }
+
+    private static double score(JsonObject result) {
+        return result.getAsJsonObject("primaryMetric").get("score").getAsDouble();
+    }
+
+    // Sin margen (una sola iteración) cuenta como 0
+    private static double error(JsonObject result) {
+        JsonElement error = result.getAsJsonObject("primaryMetric").get("scoreError");
+        if (error == null || !error.isJsonPrimitive() || !error.getAsJsonPrimitive().isNumber()) return 0;
+        double value = error.getAsDouble();
+        return Double.isNaN(value) ? 0 : value;
+    }
+
+    // Bytes por operación de -prof gc, o "-" si no se midieron
+    private static String alloc(JsonObject result) {
+        JsonObject secondary = result.getAsJsonObject("secondaryMetrics");
+        if (secondary == null) return "-";
+        for (Map.Entry<String, JsonElement> metric : secondary.entrySet()) {
+            if (metric.getKey().endsWith(ALLOC)) {
+                return String.format("%.1f", metric.getValue().getAsJsonObject().get("score").getAsDouble());
+            }
+        }
+        return "-";
+    }
+}
@@ -0,0 +1,61 @@
+package com.sudoku.benchmarks;
+
+import java.util.function.IntFunction;
+
+import com.sudoku.model.Board;
+import com.sudoku.model.Difficulty;
+import com.sudoku.model.GameState;
+import com.sudoku.model.Puzzle;
+import com.sudoku.model.SudokuGenerator;
+
+/**
+ * Memoria retenida por 100k tableros y 100k partidas residentes, por tamaño:
+ * int[][] (formato anterior), Board y GameState completo (sin jugadores).
+ *
+ *   java -Xmx2g -cp benchmarks/target/benchmarks.jar com.sudoku.benchmarks.BoardFootprintReport [partidas]
+ */
+public class BoardFootprintReport {
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        System.out.printf("%-6s %16s %16s %16s%n", "size", "int[][] B/board", "Board B/board", "GameState B/game");
+        for (int size : new int[] {4, 9, 16}) {
+            Puzzle puzzle = SudokuGenerator.generate(size, Difficulty.MEDIUM);
+            int[][] board = puzzle.getBoard().toArray();
+
+            long arrays = bytesPerItem(count, i -> copyOf(board));
+            long boards = bytesPerItem(count, i -> Board.of(board));
+            long games = bytesPerItem(count, i -> new GameState(new Puzzle(Board.of(board), puzzle.getSolution(), puzzle.getDifficulty())));
+
+            System.out.printf("%-6s %16d %16d %16d%n", size + "x" + size, arrays, boards, games);
+        }
+    }
+
+    // Heap usado tras crear y retener 'count' objetos, dividido entre count
+    private static long bytesPerItem(int count, IntFunction<Object> factory) {
+        Object[] retained = new Object[count];
+        long before = usedHeap();
+        for (int i = 0; i < count; i++) {
+            retained[i] = factory.apply(i);
+        }
+        long after = usedHeap();
+        if (retained[count - 1] == null) throw new IllegalStateException();
+        return (after - before) / count;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static int[][] copyOf(int[][] board) {
+        int[][] copy = new int[board.length][];
+        for (int row = 0; row < board.length; row++) {
+            copy[row] = board[row].clone();
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,98 @@
+package com.sudoku.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sudoku.model.Board;
+import com.sudoku.model.SudokuGenerator;
+
+/**
+ * Serialización Java (la que usa RMI) de un tablero como int[][] frente a Board,
+ * y la codificación binaria de Board pensada para WebSocket.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardSerializationBenchmark {
+
+    @Param({"4", "9", "16"})
+    int size;
+
+    private int[][] array;
+    private Board board;
+    private byte[] serializedArray;
+    private byte[] serializedBoard;
+    private byte[] encodedBoard;
+
+    @Setup
+    public void setup() throws IOException {
+        array = SudokuGenerator.generate(size);
+        board = Board.of(array);
+        serializedArray = serialize(array);
+        serializedBoard = serialize(board);
+        encodedBoard = board.toBytes();
+    }
+
+    @Benchmark
+    public byte[] writeIntArray() throws IOException {
+        return serialize(array);
+    }
+
+    @Benchmark
+    public byte[] writeBoard() throws IOException {
+        return serialize(board);
+    }
+
+    @Benchmark
+    public Object readIntArray() throws Exception {
+        return deserialize(serializedArray);
+    }
+
+    @Benchmark
+    public Object readBoard() throws Exception {
+        return deserialize(serializedBoard);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return board.toBytes();
+    }
+
+    @Benchmark
+    public Board decodeBinary() throws IOException {
+        return Board.fromBytes(encodedBoard, 0);
+    }
+
+    static byte[] serialize(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        return bytes.toByteArray();
+    }
+
+    static Object deserialize(byte[] data) throws Exception {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            return in.readObject();
+        }
+    }
+}
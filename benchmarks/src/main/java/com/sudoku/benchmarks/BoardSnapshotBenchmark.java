@@ -0,0 +1,67 @@
+package com.sudoku.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sudoku.model.Board;
+import com.sudoku.model.BoardSnapshot;
+import com.sudoku.model.SudokuGenerator;
+
+/**
+ * Coste por movimiento de publicar una foto inmutable del tablero frente a
+ * modificar el int[][] en el sitio, y de convertir la foto al int[][] de la API.
+ * Para ver los bytes reservados por operación (gc.alloc.rate.norm):
+ *
+ *   java -jar benchmarks/target/benchmarks.jar BoardSnapshot -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardSnapshotBenchmark {
+
+    @Param({"4", "9", "16"})
+    int size;
+
+    private BoardSnapshot snapshot;
+    private int[][] board;
+    private int cell;
+
+    @Setup
+    public void setup() {
+        board = SudokuGenerator.generate(size);
+        snapshot = BoardSnapshot.of(Board.of(board), 1);
+    }
+
+    @Benchmark
+    public BoardSnapshot copyOnWriteMove() {
+        int i = cell++ % (size * size);
+        return snapshot.withMove(i / size, i % size, 1);
+    }
+
+    // Referencia: lo que hacía makeMove antes (sin reservas, pero visible a medias)
+    @Benchmark
+    public int[][] inPlaceMove() {
+        int i = cell++ % (size * size);
+        board[i / size][i % size] = 1;
+        return board;
+    }
+
+    @Benchmark
+    public int[][] snapshotToArray() {
+        return snapshot.toArray();
+    }
+}
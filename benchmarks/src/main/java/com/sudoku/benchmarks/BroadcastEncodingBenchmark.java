@@ -0,0 +1,144 @@
+package com.sudoku.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+import com.sudoku.model.Board;
+import com.sudoku.model.SudokuGenerator;
+import com.sudoku.server.BinaryProtocol;
+import com.sudoku.server.ByteBufferPool;
+import com.sudoku.server.GameWebSocketServer.GameMessage;
+import com.sudoku.server.SharedFrame;
+
+/**
+ * Coste de codificar un evento para todos sus destinatarios: un mensaje serializado
+ * por jugador (como hacían startGame y broadcastMove) frente a un SharedFrame que
+ * serializa la parte común una vez y solo añade playerId/isMyTurn a cada copia.
+ * Cada operación es un evento completo para 'recipients' jugadores.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BroadcastEncodingBenchmark {
+
+    @Param({"9", "16"})
+    int size;
+
+    @Param({"2", "8", "64"})
+    int recipients;
+
+    private final Gson gson = new Gson();
+    private final ByteBufferPool buffers = new ByteBufferPool(4, BinaryProtocol.MAX_FRAME);
+    private Board board;
+
+    @Setup
+    public void setup() {
+        board = Board.of(SudokuGenerator.generate(size));
+    }
+
+    @Benchmark
+    public int startJsonPerRecipient() {
+        int bytes = 0;
+        for (int playerId = 1; playerId <= recipients; playerId++) {
+            GameMessage message = start();
+            message.playerId = playerId;
+            message.isMyTurn = playerId == 1;
+            bytes += gson.toJson(message).length();
+        }
+        return bytes;
+    }
+
+    @Benchmark
+    public int startJsonShared() {
+        SharedFrame frame = new SharedFrame(start());
+        int bytes = 0;
+        for (int playerId = 1; playerId <= recipients; playerId++) {
+            bytes += frame.json(playerId, playerId == 1).length();
+        }
+        return bytes;
+    }
+
+    @Benchmark
+    public int updateJsonPerRecipient() {
+        int bytes = 0;
+        for (int playerId = 1; playerId <= recipients; playerId++) {
+            GameMessage message = update();
+            message.isMyTurn = playerId == message.currentPlayer;
+            bytes += gson.toJson(message).length();
+        }
+        return bytes;
+    }
+
+    @Benchmark
+    public int updateJsonShared() {
+        GameMessage message = update();
+        SharedFrame frame = new SharedFrame(message);
+        int bytes = 0;
+        for (int playerId = 1; playerId <= recipients; playerId++) {
+            bytes += frame.json(playerId, playerId == message.currentPlayer).length();
+        }
+        return bytes;
+    }
+
+    @Benchmark
+    public int startBinaryPerRecipient() {
+        int bytes = 0;
+        for (int playerId = 1; playerId <= recipients; playerId++) {
+            GameMessage message = start();
+            message.playerId = playerId;
+            message.isMyTurn = playerId == 1;
+            ByteBuffer buffer = buffers.acquire();
+            BinaryProtocol.encode(message, buffer);
+            bytes += buffer.remaining();
+            buffers.release(buffer);
+        }
+        return bytes;
+    }
+
+    @Benchmark
+    public int startBinaryShared() {
+        SharedFrame frame = new SharedFrame(start());
+        int bytes = 0;
+        for (int playerId = 1; playerId <= recipients; playerId++) {
+            ByteBuffer buffer = buffers.acquire();
+            frame.writeBinary(buffer, playerId, playerId == 1);
+            bytes += buffer.remaining();
+            buffers.release(buffer);
+        }
+        return bytes;
+    }
+
+    private GameMessage start() {
+        GameMessage message = new GameMessage("GAME_START");
+        message.board = board;
+        message.boardVersion = 1;
+        return message;
+    }
+
+    private GameMessage update() {
+        GameMessage message = new GameMessage("GAME_UPDATE");
+        message.row = 1;
+        message.col = 2;
+        message.value = 3;
+        message.playerId = 1;
+        message.boardVersion = 42;
+        message.currentPlayer = 2;
+        return message;
+    }
+}
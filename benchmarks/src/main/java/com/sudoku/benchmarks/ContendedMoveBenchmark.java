@@ -0,0 +1,189 @@
+package com.sudoku.benchmarks;
+
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import com.sudoku.model.ConstraintPropagationSolver;
+import com.sudoku.model.GameMode;
+import com.sudoku.model.GameRules;
+import com.sudoku.service.GameEngine;
+import com.sudoku.service.SudokuServiceImpl;
+
+/**
+ * SudokuServiceImpl.makeMove con 8 hilos sobre la misma partida 9x9 de 'players'
+ * jugadores (el hilo i juega con el asiento i % players), a diferencia de
+ * MultiGameMoveBenchmark, donde cada hilo tiene la suya. Todos los movimientos de la
+ * partida pasan por el mismo hilo de GameShards y cada llamada espera su resultado.
+ * Cada hilo recorre las celdas desde donde lo dejó con el valor de la solución y vacía
+ * su cola de polling tras cada movimiento aceptado. Una celda rechazada (ocupada o, por
+ * turnos, fuera de turno) se salta hasta que el hilo se queda sin celdas y relee el
+ * tablero; si está completo, los jugadores salen y entran en una partida nueva.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class ContendedMoveBenchmark {
+    private static final int SIZE = 9;
+
+    @Param({"RACE", "TURNS"})
+    GameMode mode;
+
+    @Param({"2", "8"})
+    int players;
+
+    private GameEngine engine;
+    private SudokuServiceImpl service;
+    private volatile Round round;
+
+    // Los asientos de una partida y su solución
+    static final class Round {
+        final int[] seats;
+        final int[][] board;
+        final int[][] solution;
+
+        Round(int[] seats, int[][] board, int[][] solution) {
+            this.seats = seats;
+            this.board = board;
+            this.solution = solution;
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Seat {
+        public long accepted;
+        public long rejected;
+        int index;
+        Round round;
+        // Lo que este hilo sabe del tablero: sus movimientos y las celdas rechazadas
+        int[][] board;
+        int cursor;
+
+        @Setup(Level.Iteration)
+        public void setup(ThreadParams threads) {
+            index = threads.getThreadIndex();
+            accepted = 0;
+            rejected = 0;
+        }
+
+        void start(Round next, int[][] known) {
+            round = next;
+            board = known;
+            cursor = index * 11 % (SIZE * SIZE);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void start() throws RemoteException {
+        engine = new GameEngine();
+        service = new SudokuServiceImpl(engine);
+        round = newRound();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws Exception {
+        UnicastRemoteObject.unexportObject(service, true);
+        engine.shutdown();
+    }
+
+    @Benchmark
+    public boolean move(Seat seat) throws RemoteException {
+        Round current = round;
+        if (seat.round != current) seat.start(current, copy(current.board));
+        int playerId = current.seats[seat.index % players];
+        for (int i = 0; i < SIZE * SIZE; i++) {
+            int cell = (seat.cursor + i) % (SIZE * SIZE);
+            int row = cell / SIZE;
+            int col = cell % SIZE;
+            if (seat.board[row][col] != 0) continue;
+            seat.cursor = (cell + 1) % (SIZE * SIZE);
+            int value = current.solution[row][col];
+            seat.board[row][col] = value;
+            if (service.makeMove(playerId, row, col, value)) {
+                seat.accepted++;
+                // El cliente recoge sus actualizaciones
+                service.getUpdates(playerId, Integer.MAX_VALUE, 0);
+                return true;
+            }
+            seat.rejected++;
+            return false;
+        }
+        // Sin celdas en su foto: relee el tablero o, si la partida acabó, empieza otra
+        int[][] board = boardOf(playerId);
+        if (board == null || isComplete(board)) {
+            replace(current);
+        } else {
+            seat.start(current, board);
+        }
+        return false;
+    }
+
+    private synchronized void replace(Round finished) throws RemoteException {
+        // Otro hilo ya la cambió
+        if (round != finished) return;
+        for (int playerId : finished.seats) {
+            service.leaveGame(playerId);
+        }
+        round = newRound();
+    }
+
+    private Round newRound() throws RemoteException {
+        GameRules rules = GameRules.of(mode, players, 0);
+        int[] seats = new int[players];
+        for (int i = 0; i < players; i++) {
+            seats[i] = service.joinGame(null, rules);
+        }
+        int[][] board = service.getCurrentBoard(seats[0]);
+        int[][] solution = copy(board);
+        new ConstraintPropagationSolver().solve(solution);
+        return new Round(seats, board, solution);
+    }
+
+    // null si el jugador ya no está en la partida
+    private int[][] boardOf(int playerId) {
+        try {
+            return service.getCurrentBoard(playerId);
+        } catch (RemoteException e) {
+            return null;
+        }
+    }
+
+    private static boolean isComplete(int[][] board) {
+        for (int[] row : board) {
+            for (int value : row) {
+                if (value == 0) return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[][] copy(int[][] board) {
+        int[][] copy = new int[board.length][];
+        for (int i = 0; i < board.length; i++) {
+            copy[i] = board[i].clone();
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,102 @@
+package com.sudoku.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sudoku.model.Board;
+import com.sudoku.model.Difficulty;
+import com.sudoku.model.GameState;
+import com.sudoku.model.Puzzle;
+import com.sudoku.model.SudokuGenerator;
+
+/**
+ * GameState.makeMove de un solo hilo, sin RMI ni motor: máscaras, nueva foto del
+ * tablero, MoveLog y celdas ganadas. makeMove juega las celdas vacías en orden con el
+ * valor de la solución; al llenarse el tablero se vuelve a poner el puzzle, así que el
+ * coste de setBoard entra repartido entre los movimientos de una partida.
+ * makeMoveRejected es un valor repetido en la fila, que no cambia nada. isValidMove e
+ * isComplete están en MoveValidationBenchmark.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameStateBenchmark {
+
+    @Param({"4", "9", "16"})
+    int size;
+
+    private Puzzle puzzle;
+    private GameState game;
+    // Celdas vacías del puzzle (row * size + col) y su valor en la solución
+    private int[] cells;
+    private int[] values;
+    private int next;
+    private int rejectedRow;
+    private int rejectedCol;
+    private int rejectedValue;
+
+    @Setup
+    public void setup() {
+        puzzle = SudokuGenerator.generate(size, Difficulty.MEDIUM);
+        game = new GameState(puzzle);
+        Board board = puzzle.getBoard();
+        Board solution = puzzle.getSolution();
+        int empty = 0;
+        for (int cell = 0; cell < size * size; cell++) {
+            if (board.get(cell / size, cell % size) == 0) empty++;
+        }
+        cells = new int[empty];
+        values = new int[empty];
+        for (int cell = 0, i = 0; cell < size * size; cell++) {
+            int row = cell / size;
+            int col = cell % size;
+            if (board.get(row, col) != 0) continue;
+            cells[i] = cell;
+            values[i++] = solution.get(row, col);
+        }
+        // Una celda vacía con el valor de una pista de su fila
+        for (int i = 0; i < empty; i++) {
+            int row = cells[i] / size;
+            for (int col = 0; col < size; col++) {
+                if (board.get(row, col) != 0) {
+                    rejectedRow = row;
+                    rejectedCol = cells[i] % size;
+                    rejectedValue = board.get(row, col);
+                    return;
+                }
+            }
+        }
+        throw new IllegalStateException("Puzzle sin pistas");
+    }
+
+    @Benchmark
+    public boolean makeMove() {
+        if (next == cells.length) {
+            game.setBoard(puzzle.getBoard());
+            next = 0;
+        }
+        int cell = cells[next];
+        boolean accepted = game.makeMove(cell / size, cell % size, values[next++]);
+        if (!accepted) throw new IllegalStateException("Movimiento de la solución rechazado");
+        return accepted;
+    }
+
+    @Benchmark
+    public boolean makeMoveRejected() {
+        return game.makeMove(rejectedRow, rejectedCol, rejectedValue);
+    }
+}
@@ -0,0 +1,85 @@
+package com.sudoku.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sudoku.model.Board;
+import com.sudoku.model.SudokuGenerator;
+import com.sudoku.service.GameUpdate;
+
+/**
+ * Serialización Java de las GameUpdate que viajan por RMI (getUpdate, getUpdates y los
+ * callbacks), con un stream por objeto como en cada llamada: el MOVE_MADE incremental,
+ * el RESYNC con el tablero completo y un aviso con texto. Solo el RESYNC depende del
+ * tamaño; los bytes de cada una los imprime WireSizeReport.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameUpdateSerializationBenchmark {
+
+    @Param({"4", "9", "16"})
+    int size;
+
+    private GameUpdate move;
+    private GameUpdate resync;
+    private GameUpdate notice;
+    private byte[] moveBytes;
+    private byte[] resyncBytes;
+    private byte[] noticeBytes;
+
+    @Setup
+    public void setup() throws IOException {
+        move = GameUpdate.createMoveUpdate(42, 1, 2, 3, 7);
+        resync = GameUpdate.createSnapshot("RESYNC", Board.of(SudokuGenerator.generate(size)), 42);
+        notice = GameUpdate.createMessageUpdate("PLAYER_AWAY", "7");
+        moveBytes = BoardSerializationBenchmark.serialize(move);
+        resyncBytes = BoardSerializationBenchmark.serialize(resync);
+        noticeBytes = BoardSerializationBenchmark.serialize(notice);
+    }
+
+    @Benchmark
+    public byte[] writeMove() throws IOException {
+        return BoardSerializationBenchmark.serialize(move);
+    }
+
+    @Benchmark
+    public Object readMove() throws Exception {
+        return BoardSerializationBenchmark.deserialize(moveBytes);
+    }
+
+    @Benchmark
+    public byte[] writeResync() throws IOException {
+        return BoardSerializationBenchmark.serialize(resync);
+    }
+
+    @Benchmark
+    public Object readResync() throws Exception {
+        return BoardSerializationBenchmark.deserialize(resyncBytes);
+    }
+
+    @Benchmark
+    public byte[] writeNotice() throws IOException {
+        return BoardSerializationBenchmark.serialize(notice);
+    }
+
+    @Benchmark
+    public Object readNotice() throws Exception {
+        return BoardSerializationBenchmark.deserialize(noticeBytes);
+    }
+}
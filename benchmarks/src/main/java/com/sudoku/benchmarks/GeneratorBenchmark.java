@@ -0,0 +1,41 @@
+package com.sudoku.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sudoku.model.Difficulty;
+import com.sudoku.model.Puzzle;
+import com.sudoku.model.SudokuGenerator;
+
+/**
+ * Latencia de generación de puzzles MEDIUM de solución única, los que piden las
+ * partidas por defecto cuando el pool está vacío. En modo SampleTime JMH reporta
+ * percentiles (p99, p99.9, máximo), que es lo que acota la cola en 16x16. Las demás
+ * dificultades están en UniquePuzzleBenchmark.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeneratorBenchmark {
+
+    @Param({"4", "9", "16"})
+    int size;
+
+    @Benchmark
+    public Puzzle generate() {
+        return SudokuGenerator.generate(size, Difficulty.MEDIUM);
+    }
+}
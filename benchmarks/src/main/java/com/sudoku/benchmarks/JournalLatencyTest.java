@@ -0,0 +1,128 @@
+package com.sudoku.benchmarks;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import com.sudoku.model.Board;
+import com.sudoku.model.Difficulty;
+import com.sudoku.model.GameRules;
+import com.sudoku.model.MoveResult;
+import com.sudoku.model.Puzzle;
+import com.sudoku.model.SudokuGenerator;
+import com.sudoku.service.GameEngine;
+import com.sudoku.service.GameShards;
+import com.sudoku.service.MoveJournal;
+
+/**
+ * Latencia de makeMove en el GameEngine sin diario, con diario sin fsync y con diario con
+ * fsync. 'threads' hilos juegan cada uno su partida 9x9 por turnos con los dos jugadores
+ * (valores de la solución, esperando a cada respuesta) y empiezan otra al completarla.
+ * Con diario, un movimiento aceptado se devuelve cuando ya está escrito, así que la
+ * latencia incluye la espera al lote de escritura (group commit).
+ *
+ *   java -cp benchmarks/target/benchmarks.jar com.sudoku.benchmarks.JournalLatencyTest [threads] [seconds]
+ */
+public class JournalLatencyTest {
+    private static final int SIZE = 9;
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        List<Puzzle> puzzles = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            puzzles.add(SudokuGenerator.generate(SIZE, Difficulty.MEDIUM));
+        }
+        for (String mode : new String[] {"off", "write", "fsync"}) {
+            Path dir = Files.createTempDirectory("sudoku-journal");
+            GameEngine engine = mode.equals("off")
+                ? new GameEngine(GameShards.SHARDS)
+                : new GameEngine(GameShards.SHARDS, new MoveJournal(dir, mode.equals("fsync")));
+            try {
+                run(engine, mode, puzzles, threads, seconds);
+            } finally {
+                engine.shutdown();
+                delete(dir);
+            }
+        }
+        System.exit(0);
+    }
+
+    private static void run(GameEngine engine, String mode, List<Puzzle> puzzles, int threads, int seconds)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<long[]> latencies = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread thread = new Thread(() -> {
+                long[] samples = new long[1 << 20];
+                int count = 0;
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    Puzzle puzzle = puzzles.get(random.nextInt(puzzles.size()));
+                    int[] players = {engine.newPlayerId(), engine.newPlayerId()};
+                    // Crear y unirse sin que otro hilo se cuele en la partida
+                    synchronized (JournalLatencyTest.class) {
+                        engine.createGame(players[0], puzzle, GameRules.TWO_PLAYER_TURNS);
+                        if (engine.join(players[1], SIZE, puzzle.getDifficulty(), GameRules.TWO_PLAYER_TURNS).join() == null) {
+                            throw new IllegalStateException("No se pudo sentar al segundo jugador");
+                        }
+                    }
+                    Board board = puzzle.getBoard();
+                    int turn = 0;
+                    for (int cell = 0; cell < SIZE * SIZE && System.nanoTime() < deadline; cell++) {
+                        int row = cell / SIZE;
+                        int col = cell % SIZE;
+                        if (board.get(row, col) != 0) continue;
+                        long start = System.nanoTime();
+                        MoveResult result = engine.makeMove(players[turn], row, col,
+                            puzzle.getSolution().get(row, col)).join();
+                        if (count < samples.length) samples[count++] = System.nanoTime() - start;
+                        if (result != MoveResult.ACCEPTED) {
+                            throw new IllegalStateException("Movimiento de la solución rechazado: " + result);
+                        }
+                        turn = 1 - turn;
+                    }
+                    // Al salir el primero la partida vuelve al matchmaking hasta que sale el segundo
+                    synchronized (JournalLatencyTest.class) {
+                        engine.leave(players[0]);
+                        engine.leave(players[1]).join();
+                    }
+                }
+                latencies.add(Arrays.copyOf(samples, count));
+            }, "player-" + i);
+            workers.add(thread);
+            thread.start();
+        }
+        for (Thread thread : workers) {
+            thread.join();
+        }
+
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("journal=%s threads=%d moves=%d (%.0f/s) makeMove ms: p50=%.3f p90=%.3f p99=%.3f p99.9=%.3f max=%.3f%n",
+            mode, threads, all.length, all.length / (double) seconds,
+            SlowConsumerLoadTest.percentile(all, 0.50), SlowConsumerLoadTest.percentile(all, 0.90),
+            SlowConsumerLoadTest.percentile(all, 0.99), SlowConsumerLoadTest.percentile(all, 0.999),
+            all.length == 0 ? 0 : all[all.length - 1] / 1e6);
+        MoveJournal journal = engine.getJournal();
+        if (journal != null) {
+            System.out.printf("  records=%d batches=%d (%.1f records/batch) bytes=%d%n", journal.getRecords(),
+                journal.getBatches(), journal.getRecords() / (double) Math.max(1, journal.getBatches()),
+                journal.getBytesWritten());
+        }
+    }
+
+    static void delete(Path dir) throws Exception {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+}
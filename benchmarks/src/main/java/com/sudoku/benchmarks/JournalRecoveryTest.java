@@ -0,0 +1,154 @@
+package com.sudoku.benchmarks;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import com.sudoku.model.Board;
+import com.sudoku.model.Difficulty;
+import com.sudoku.model.GameRules;
+import com.sudoku.model.GameState;
+import com.sudoku.model.MoveResult;
+import com.sudoku.model.Puzzle;
+import com.sudoku.model.SudokuGenerator;
+import com.sudoku.service.GameEngine;
+import com.sudoku.service.GameShards;
+import com.sudoku.service.MoveJournal;
+
+/**
+ * Tiempo de recuperación del GameEngine desde el diario. Crea 'games' partidas 9x9 por
+ * turnos con dos jugadores y juega 'moves' movimientos en cada una; una de cada diez se
+ * abandona después (sus registros siguen en el diario hasta compactar). Para el motor,
+ * arranca otro sobre el mismo directorio y comprueba que cada partida viva vuelve con el
+ * mismo tablero, versión, jugadores, turno y celdas ganadas. Después compacta y repite.
+ * Por último repite la carga con la compactación automática (segmentos de 8 MB), que
+ * escribe el estado de las partidas mientras se sigue jugando.
+ *
+ *   java -cp benchmarks/target/benchmarks.jar com.sudoku.benchmarks.JournalRecoveryTest [games] [moves]
+ */
+public class JournalRecoveryTest {
+    private static final int SIZE = 9;
+
+    public static void main(String[] args) throws Exception {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int moves = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        List<Puzzle> puzzles = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            puzzles.add(SudokuGenerator.generate(SIZE, Difficulty.MEDIUM));
+        }
+        Path dir = Files.createTempDirectory("sudoku-journal");
+        try {
+            Map<String, String> expected = populate(dir, Long.MAX_VALUE, puzzles, games, moves);
+            GameEngine engine = recover(dir, expected, "full journal");
+            engine.compact().join();
+            engine.shutdown();
+            System.out.printf("compacted: journal=%.1f MB%n", size(dir) / 1e6);
+            recover(dir, expected, "compacted").shutdown();
+        } finally {
+            JournalLatencyTest.delete(dir);
+        }
+
+        dir = Files.createTempDirectory("sudoku-journal");
+        try {
+            Map<String, String> expected = populate(dir, 8_000_000, puzzles, games, moves);
+            recover(dir, expected, "auto-compacted").shutdown();
+        } finally {
+            JournalLatencyTest.delete(dir);
+        }
+        System.exit(0);
+    }
+
+    // Juega la carga sobre un diario nuevo y devuelve las huellas de las partidas vivas
+    private static Map<String, String> populate(Path dir, long compactBytes, List<Puzzle> puzzles, int games,
+                                                int moves) throws Exception {
+        GameEngine engine = new GameEngine(GameShards.SHARDS, new MoveJournal(dir, MoveJournal.FSYNC, compactBytes));
+        long start = System.nanoTime();
+        populate(engine, puzzles, games, moves);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        Map<String, String> expected = fingerprint(engine);
+        MoveJournal journal = engine.getJournal();
+        engine.shutdown();
+        System.out.printf("games=%d live=%d moves/game=%d records=%d compactions=%d populate=%.1fs journal=%.1f MB%n",
+            games, expected.size(), moves, journal.getRecords(), journal.getCompactions(), seconds, size(dir) / 1e6);
+        return expected;
+    }
+
+    private static void populate(GameEngine engine, List<Puzzle> puzzles, int games, int moves) {
+        List<CompletableFuture<MoveResult>> inFlight = new ArrayList<>();
+        for (int i = 0; i < games; i++) {
+            Puzzle puzzle = puzzles.get(i % puzzles.size());
+            int[] players = {engine.newPlayerId(), engine.newPlayerId()};
+            engine.createGame(players[0], puzzle, GameRules.TWO_PLAYER_TURNS);
+            if (engine.join(players[1], SIZE, puzzle.getDifficulty(), GameRules.TWO_PLAYER_TURNS).join() == null) {
+                throw new IllegalStateException("No se pudo sentar al segundo jugador");
+            }
+            Board board = puzzle.getBoard();
+            int played = 0;
+            for (int cell = 0; cell < SIZE * SIZE && played < moves; cell++) {
+                int row = cell / SIZE;
+                int col = cell % SIZE;
+                if (board.get(row, col) != 0) continue;
+                // Los movimientos de una partida se aplican en orden en su hilo: no hace falta esperar a cada uno
+                inFlight.add(engine.makeMove(players[played % 2], row, col, puzzle.getSolution().get(row, col)));
+                played++;
+            }
+            if (i % 10 == 9) {
+                engine.leave(players[0]);
+                engine.leave(players[1]);
+            }
+            if (inFlight.size() >= 10_000) await(inFlight);
+        }
+        await(inFlight);
+    }
+
+    private static void await(List<CompletableFuture<MoveResult>> inFlight) {
+        for (CompletableFuture<MoveResult> move : inFlight) {
+            if (move.join() != MoveResult.ACCEPTED) throw new IllegalStateException("Movimiento rechazado");
+        }
+        inFlight.clear();
+    }
+
+    private static GameEngine recover(Path dir, Map<String, String> expected, String label) throws Exception {
+        System.gc();
+        long start = System.nanoTime();
+        GameEngine engine = new GameEngine(GameShards.SHARDS, new MoveJournal(dir, MoveJournal.FSYNC));
+        double millis = (System.nanoTime() - start) / 1e6;
+        Map<String, String> recovered = fingerprint(engine);
+        int mismatches = 0;
+        for (Map.Entry<String, String> entry : expected.entrySet()) {
+            if (!entry.getValue().equals(recovered.get(entry.getKey()))) mismatches++;
+        }
+        mismatches += Math.max(0, recovered.size() - expected.size());
+        System.out.printf("recovery (%s): games=%d records=%d time=%.0f ms mismatches=%d%n", label,
+            recovered.size(), engine.getJournal().getRecoveredRecords(), millis, mismatches);
+        if (mismatches > 0) throw new IllegalStateException("La recuperación no coincide");
+        return engine;
+    }
+
+    // Lo que debe sobrevivir de cada partida viva, por id
+    private static Map<String, String> fingerprint(GameEngine engine) {
+        Map<String, String> fingerprints = new HashMap<>();
+        for (GameState game : engine.getGames()) {
+            int playerId = game.getPlayers().keySet().iterator().next();
+            String gameId = engine.gameIdOf(playerId);
+            fingerprints.put(gameId, game.getBoardVersion() + " " + Arrays.deepToString(game.getBoard().toArray())
+                + " " + new TreeMap<>(game.getPlayers()) + " " + game.getCurrentPlayerId()
+                + " " + new TreeMap<>(game.getCellsWon()) + " " + game.isGameStarted());
+        }
+        return fingerprints;
+    }
+
+    private static long size(Path dir) throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+}
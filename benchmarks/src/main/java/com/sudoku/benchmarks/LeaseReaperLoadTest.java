@@ -0,0 +1,188 @@
+package com.sudoku.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.rmi.server.RemoteObject;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.glassfish.tyrus.client.ClientManager;
+import org.glassfish.tyrus.server.Server;
+
+import com.sudoku.benchmarks.SlowConsumerLoadTest.Player;
+import com.sudoku.benchmarks.SlowConsumerLoadTest.SlowClient;
+import com.sudoku.model.ConstraintPropagationSolver;
+import com.sudoku.model.PuzzlePool;
+import com.sudoku.server.GameWebSocketServer;
+import com.sudoku.service.GameEngine;
+import com.sudoku.service.ISudokuServiceV2;
+import com.sudoku.service.SudokuServiceImpl;
+
+/**
+ * Memoria retenida por clientes que desaparecen sin despedirse. Arranca en este proceso el
+ * servicio RMI y el endpoint /game y, durante 'seconds' segundos:
+ *  - 'rmiPairs' parejas RMI por segundo entran en una partida, juegan 4 movimientos y
+ *    desaparecen sin leaveGame ni recoger sus actualizaciones,
+ *  - 'deadSockets' sockets WebSocket por segundo crean una partida y dejan de responder
+ *    (sin cerrar la conexión, así que onClose no llega),
+ *  - un cliente WebSocket por segundo crea una partida que nadie juega, pero sigue
+ *    conectado y contestando a los pings.
+ * Cada segundo, hasta que pasan los plazos (arrendamiento, gracia e inactividad de la
+ * partida), muestra los indicadores de JMX y el heap tras un GC. Al final deberían volver a
+ * cero salvo las sesiones de los clientes que siguen conectados, que deben haber recibido
+ * GAME_EXPIRED. Los plazos por defecto son cortos para la prueba: arrendamientos de 3 s,
+ * gracia de 2 s y partidas inactivas 6 s (se cambian con las -D de siempre).
+ *
+ *   java -cp benchmarks/target/benchmarks.jar com.sudoku.benchmarks.LeaseReaperLoadTest [seconds] [rmiPairs] [deadSockets]
+ */
+public class LeaseReaperLoadTest {
+    private static final int PORT = Integer.getInteger("port", 8025);
+    private static final int SIZE = 9;
+    // Las partidas WebSocket son 4x4 para que las parejas RMI no se cuelen en ellas
+    private static final String CREATE = "{\"type\":\"CREATE_GAME\",\"size\":4}";
+
+    public static void main(String[] args) throws Exception {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int rmiPairs = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int deadSockets = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        // Antes de que se carguen el motor y los transportes
+        defaultProperty("sudoku.rmi.leaseMs", "3000");
+        defaultProperty("sudoku.ws.idleMs", "3000");
+        defaultProperty("sudoku.resume.graceMs", "2000");
+        defaultProperty("sudoku.engine.gameIdleMs", "6000");
+
+        PuzzlePool.getInstance().start();
+        Server server = new Server("localhost", PORT, "/", null, GameWebSocketServer.class);
+        server.start();
+        SudokuServiceImpl rmi = new SudokuServiceImpl();
+        List<Socket> dead = new ArrayList<>();
+        List<Player> idle = new ArrayList<>();
+        try {
+            run((ISudokuServiceV2) RemoteObject.toStub(rmi), rmi, seconds, rmiPairs, deadSockets, dead, idle);
+        } finally {
+            for (Socket socket : dead) {
+                socket.close();
+            }
+            idle.forEach(Player::close);
+            UnicastRemoteObject.unexportObject(rmi, true);
+            server.stop();
+        }
+        System.exit(0);
+    }
+
+    private static void run(ISudokuServiceV2 service, SudokuServiceImpl rmi, int seconds, int rmiPairs,
+                            int deadSockets, List<Socket> dead, List<Player> idle) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        AtomicInteger abandoned = new AtomicInteger();
+        Thread rmiChurn = new Thread(() -> {
+            try {
+                while (System.nanoTime() < deadline) {
+                    long next = System.nanoTime() + TimeUnit.SECONDS.toNanos(1) / rmiPairs;
+                    abandonRmiPair(service);
+                    abandoned.incrementAndGet();
+                    long sleep = next - System.nanoTime();
+                    if (sleep > 0) TimeUnit.NANOSECONDS.sleep(sleep);
+                }
+            } catch (Exception e) {
+                System.err.println("Churn RMI abortado: " + e);
+            }
+        }, "rmi-churn");
+        rmiChurn.start();
+
+        ClientManager client = ClientManager.createClient();
+        URI uri = new URI("ws://localhost:" + PORT + "/game");
+        byte[] create = SlowClient.maskedTextFrame(CREATE.getBytes(StandardCharsets.UTF_8));
+        MBeanServer jmx = ManagementFactory.getPlatformMBeanServer();
+        ObjectName ws = new ObjectName("com.sudoku:type=WebSocketSessions");
+        GameEngine engine = GameEngine.getInstance();
+        long drain = Long.getLong("sudoku.rmi.leaseMs") + Long.getLong("sudoku.resume.graceMs")
+            + Long.getLong("sudoku.engine.gameIdleMs") + 3_000;
+        int total = seconds + (int) (drain / 1000);
+
+        System.out.println("  t games seated away leases rmiPlayers queuedUpdates wsSessions wsPlayers queuedFrames heapMB");
+        long[] peak = new long[3];
+        for (int t = 1; t <= total; t++) {
+            long second = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+            if (t <= seconds) {
+                for (int i = 0; i < deadSockets; i++) {
+                    dead.add(deadSocket(create));
+                }
+                Player player = new Player(client, uri);
+                player.send(CREATE);
+                idle.add(player);
+            }
+            long sleep = second - System.nanoTime();
+            if (sleep > 0) TimeUnit.NANOSECONDS.sleep(sleep);
+            System.gc();
+            long heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+            int games = engine.getResidentGames();
+            long queued = rmi.getQueuedUpdates();
+            int sessions = (Integer) jmx.getAttribute(ws, "Sessions");
+            peak[0] = Math.max(peak[0], games);
+            peak[1] = Math.max(peak[1], queued);
+            peak[2] = Math.max(peak[2], sessions);
+            System.out.printf("%3d %5d %6d %4d %6d %10d %13d %10d %9d %12d %6.1f%n", t, games,
+                engine.getSeatedPlayers(), engine.getDisconnectedPlayers(), engine.getLeases(), rmi.getPlayers(),
+                queued, sessions, jmx.getAttribute(ws, "Players"), jmx.getAttribute(ws, "QueuedFrames"), heap / 1e6);
+        }
+        rmiChurn.join();
+
+        int expiredNotices = 0;
+        for (Player player : idle) {
+            while (!player.inbox.isEmpty()) {
+                if ("GAME_EXPIRED".equals(player.inbox.poll().type)) expiredNotices++;
+            }
+        }
+        int sessions = (Integer) jmx.getAttribute(ws, "Sessions");
+        boolean drained = engine.getResidentGames() == 0 && engine.getSeatedPlayers() == 0
+            && rmi.getPlayers() == 0 && rmi.getQueuedUpdates() == 0 && sessions == idle.size();
+        System.out.printf("rmiPairs=%d deadSockets=%d idleClients=%d peak: games=%d queuedUpdates=%d wsSessions=%d%n",
+            abandoned.get(), dead.size(), idle.size(), peak[0], peak[1], peak[2]);
+        System.out.printf("expired: rmiPlayers=%d wsSessions=%s games=%d leases=%d GAME_EXPIRED received=%d/%d%n",
+            rmi.getExpiredPlayers(), jmx.getAttribute(ws, "ExpiredSessions"), engine.getExpiredGames(),
+            engine.getExpiredLeases(), expiredNotices, idle.size());
+        System.out.println(drained && expiredNotices == idle.size() ? "drained OK" : "NOT DRAINED");
+    }
+
+    // Dos jugadores RMI empiezan una partida, juegan 4 movimientos y desaparecen
+    private static void abandonRmiPair(ISudokuServiceV2 service) throws Exception {
+        int[] players = {service.joinGame(), service.joinGame()};
+        int[][] solution = service.getCurrentBoard(players[0]);
+        int[][] board = service.getCurrentBoard(players[0]);
+        new ConstraintPropagationSolver().solve(solution);
+        int played = 0;
+        for (int cell = 0; cell < SIZE * SIZE && played < 4; cell++) {
+            int row = cell / SIZE;
+            int col = cell % SIZE;
+            if (board[row][col] != 0) continue;
+            int mover = service.getCurrentPlayerId(players[0]);
+            service.makeMove(mover, row, col, solution[row][col]);
+            played++;
+        }
+    }
+
+    // Crea una partida y se queda callado: ni lee ni contesta a los pings
+    private static Socket deadSocket(byte[] create) throws Exception {
+        Socket socket = new Socket();
+        socket.connect(new InetSocketAddress("localhost", PORT));
+        socket.getOutputStream().write(("GET /game HTTP/1.1\r\nHost: localhost:" + PORT + "\r\nUpgrade: websocket\r\n"
+            + "Connection: Upgrade\r\nSec-WebSocket-Key: dGhlIHNhbXBsZSBub25jZQ==\r\n"
+            + "Sec-WebSocket-Version: 13\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        SlowClient.readHandshake(socket.getInputStream());
+        socket.getOutputStream().write(create);
+        return socket;
+    }
+
+    private static void defaultProperty(String name, String value) {
+        if (System.getProperty(name) == null) System.setProperty(name, value);
+    }
+}
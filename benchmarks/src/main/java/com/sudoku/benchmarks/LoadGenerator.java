@@ -0,0 +1,766 @@
+package com.sudoku.benchmarks;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
+import java.rmi.server.RemoteObject;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.websocket.ClientEndpointConfig;
+import javax.websocket.Endpoint;
+import javax.websocket.EndpointConfig;
+import javax.websocket.MessageHandler;
+import javax.websocket.Session;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.glassfish.tyrus.client.ClientManager;
+import org.glassfish.tyrus.client.ClientProperties;
+import org.glassfish.tyrus.server.Server;
+
+import com.google.gson.Gson;
+import com.sudoku.model.ConstraintPropagationSolver;
+import com.sudoku.model.GameRules;
+import com.sudoku.model.PuzzlePool;
+import com.sudoku.server.GameWebSocketServer;
+import com.sudoku.server.GameWebSocketServer.GameMessage;
+import com.sudoku.service.GameStatus;
+import com.sudoku.service.GameUpdate;
+import com.sudoku.service.IGameListener;
+import com.sudoku.service.ISudokuServiceV2;
+import com.sudoku.service.PlayerSession;
+import com.sudoku.service.SudokuServiceImpl;
+
+/**
+ * Generador de carga sin consola para los dos transportes. Arranca en este proceso el
+ * servicio RMI (al que se llama por su stub, por TCP) y el endpoint /game, y simula 'rmi'
+ * jugadores RMI (con IGameListener) y 'ws' jugadores WebSocket que entran a lo largo de
+ * 'rampMs' y juegan partidas 9x9 por turnos hasta que pasan 'seconds' segundos. Los
+ * emparejamientos salen del matchmaking, así que hay partidas RMI contra WebSocket.
+ * Cada jugador resuelve el tablero al empezar y, cuando le toca, juega la primera celda
+ * vacía tras pensar de media 'thinkMs'. Antes de cada movimiento se desconecta con
+ * probabilidad 'dropRate' y vuelve 'awayMs' después con su token de reanudación.
+ * Los jugadores no tienen hilo propio: reaccionan a los mensajes y usan un reloj de
+ * 'threads' hilos, así que miles caben en un proceso.
+ * Mide con HdrHistogram la entrada (joinGame / JOIN_GAME hasta tener asiento), la espera
+ * hasta GAME_START, cada movimiento hasta que lo recibe el rival (según el transporte de
+ * quien lo recibe) y hasta que vuelve a quien lo hizo, y las reanudaciones. Con
+ * hgrm=<prefijo> guarda además cada distribución en <prefijo>-<nombre>.hgrm.
+ *
+ *   java -cp benchmarks/target/benchmarks.jar com.sudoku.benchmarks.LoadGenerator \
+ *       [rmi=500] [ws=500] [seconds=60] [thinkMs=250] [rampMs=5000] [dropRate=0.01] [awayMs=2000] [threads=8] [hgrm=prefijo]
+ */
+public class LoadGenerator {
+    private static final int PORT = Integer.getInteger("port", 8025);
+    private static final int SIZE = 9;
+    private static final String NO_GAMES = "No hay partidas disponibles";
+    private static final long MAX_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final Gson gson = new Gson();
+
+    public static void main(String[] args) throws Exception {
+        Profile profile = Profile.parse(args);
+        PuzzlePool.getInstance().start();
+        Server server = new Server("localhost", PORT, "/", null, GameWebSocketServer.class);
+        server.start();
+        SudokuServiceImpl rmi = new SudokuServiceImpl();
+        try {
+            new LoadGenerator(profile, (ISudokuServiceV2) RemoteObject.toStub(rmi)).run();
+        } finally {
+            UnicastRemoteObject.unexportObject(rmi, true);
+            server.stop();
+        }
+        System.exit(0);
+    }
+
+    // Perfil de carga, de argumentos clave=valor
+    static final class Profile {
+        int rmi = 500;
+        int ws = 500;
+        int seconds = 60;
+        long thinkMs = 250;
+        long rampMs = 5000;
+        double dropRate = 0.01;
+        long awayMs = 2000;
+        int threads = 8;
+        String hgrm;
+
+        static Profile parse(String[] args) {
+            Profile profile = new Profile();
+            for (String arg : args) {
+                int equals = arg.indexOf('=');
+                if (equals < 0) throw new IllegalArgumentException("Se esperaba clave=valor: " + arg);
+                String value = arg.substring(equals + 1);
+                switch (arg.substring(0, equals)) {
+                    case "rmi":
+                        profile.rmi = Integer.parseInt(value);
+                        break;
+                    case "ws":
+                        profile.ws = Integer.parseInt(value);
+                        break;
+                    case "seconds":
+                        profile.seconds = Integer.parseInt(value);
+                        break;
+                    case "thinkMs":
+                        profile.thinkMs = Long.parseLong(value);
+                        break;
+                    case "rampMs":
+                        profile.rampMs = Long.parseLong(value);
+                        break;
+                    case "dropRate":
+                        profile.dropRate = Double.parseDouble(value);
+                        break;
+                    case "awayMs":
+                        profile.awayMs = Long.parseLong(value);
+                        break;
+                    case "threads":
+                        profile.threads = Integer.parseInt(value);
+                        break;
+                    case "hgrm":
+                        profile.hgrm = value;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Parámetro desconocido: " + arg);
+                }
+            }
+            return profile;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("rmi=%d ws=%d seconds=%d thinkMs=%d rampMs=%d dropRate=%s awayMs=%d threads=%d",
+                rmi, ws, seconds, thinkMs, rampMs, dropRate, awayMs, threads);
+        }
+    }
+
+    private final Profile profile;
+    private final ISudokuServiceV2 service;
+    private final ScheduledExecutorService clock;
+    private final ClientManager client = ClientManager.createClient();
+    private final URI uri;
+    // Cuándo se envió cada movimiento, hasta que lo recibe el rival: (jugador, celda) -> nanoTime
+    private final Map<Long, Long> inFlight = new ConcurrentHashMap<>();
+    private volatile boolean stopping;
+
+    private final Histogram joinRmi = histogram();
+    private final Histogram joinWs = histogram();
+    private final Histogram startWait = histogram();
+    private final Histogram toRmi = histogram();
+    private final Histogram toWs = histogram();
+    private final Histogram ack = histogram();
+    private final Histogram resumeRmi = histogram();
+    private final Histogram resumeWs = histogram();
+    private final AtomicLong moves = new AtomicLong();
+    private final AtomicLong games = new AtomicLong();
+    private final AtomicLong abandoned = new AtomicLong();
+    private final AtomicLong drops = new AtomicLong();
+    private final AtomicLong resumes = new AtomicLong();
+    private final AtomicLong gaps = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    LoadGenerator(Profile profile, ISudokuServiceV2 service) throws Exception {
+        this.profile = profile;
+        this.service = service;
+        this.uri = new URI("ws://localhost:" + PORT + "/game");
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(profile.threads, runnable -> {
+            Thread thread = new Thread(runnable, "load-clock");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        this.clock = executor;
+        // Un solo transporte Grizzly para todas las sesiones, no uno por conexión
+        client.getProperties().put(ClientProperties.SHARED_CONTAINER, true);
+    }
+
+    void run() throws Exception {
+        System.out.println(profile);
+        List<SimPlayer> players = new ArrayList<>();
+        List<RmiPlayer> rmiPlayers = new ArrayList<>();
+        for (int i = 0; i < profile.rmi; i++) {
+            RmiPlayer player = new RmiPlayer();
+            rmiPlayers.add(player);
+            players.add(player);
+        }
+        for (int i = 0; i < profile.ws; i++) {
+            players.add(new WsPlayer());
+        }
+        Collections.shuffle(players, new Random(42));
+        for (int i = 0; i < players.size(); i++) {
+            clock.schedule(players.get(i)::start, profile.rampMs * i / Math.max(1, players.size()),
+                TimeUnit.MILLISECONDS);
+        }
+        // Los jugadores RMI que esperan rival no llaman a nada: renuevan su arrendamiento
+        clock.scheduleWithFixedDelay(() -> rmiPlayers.forEach(RmiPlayer::heartbeat), 15, 15, TimeUnit.SECONDS);
+
+        System.out.println("  t seated moves/s games drops resumes errors");
+        long start = System.nanoTime();
+        long lastMoves = 0;
+        for (int t = 5; t <= profile.seconds; t += 5) {
+            long wake = start + TimeUnit.SECONDS.toNanos(t) - System.nanoTime();
+            if (wake > 0) TimeUnit.NANOSECONDS.sleep(wake);
+            long total = moves.get();
+            int seated = 0;
+            for (SimPlayer player : players) {
+                if (player.playing) seated++;
+            }
+            System.out.printf("%3d %6d %7.0f %5d %5d %7d %6d%n", t, seated, (total - lastMoves) / 5.0, games.get(),
+                drops.get(), resumes.get(), errors.get());
+            lastMoves = total;
+        }
+        stopping = true;
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        // Lo que ya estaba en camino
+        TimeUnit.SECONDS.sleep(1);
+        report(elapsed);
+    }
+
+    private void report(double elapsed) throws FileNotFoundException {
+        System.out.printf("moves=%d (%.0f/s) completedGames=%d (%.1f/s) abandonedGames=%d drops=%d resumes=%d "
+                + "versionGaps=%d errors=%d%n", moves.get(), moves.get() / elapsed, games.get(),
+            games.get() / elapsed, abandoned.get(), drops.get(), resumes.get(), gaps.get(), errors.get());
+        print("join RMI (joinGameSession)", "join-rmi", joinRmi);
+        print("join WS (JOIN_GAME -> seat)", "join-ws", joinWs);
+        print("join -> GAME_START", "start-wait", startWait);
+        print("move -> opponent (RMI)", "broadcast-rmi", toRmi);
+        print("move -> opponent (WS)", "broadcast-ws", toWs);
+        print("move -> own update", "ack", ack);
+        print("resume RMI (resumeGame)", "resume-rmi", resumeRmi);
+        print("resume WS (connect -> RESUMED)", "resume-ws", resumeWs);
+        System.out.println(errors.get() == 0 ? "load OK" : "ERRORS=" + errors.get());
+    }
+
+    private void print(String label, String name, Histogram histogram) throws FileNotFoundException {
+        if (histogram.getTotalCount() == 0) return;
+        System.out.printf("%-32s ms: n=%d p50=%.3f p90=%.3f p99=%.3f p99.9=%.3f max=%.3f%n", label,
+            histogram.getTotalCount(), histogram.getValueAtPercentile(50) / 1e6,
+            histogram.getValueAtPercentile(90) / 1e6, histogram.getValueAtPercentile(99) / 1e6,
+            histogram.getValueAtPercentile(99.9) / 1e6, histogram.getMaxValue() / 1e6);
+        if (profile.hgrm != null) {
+            try (PrintStream out = new PrintStream(profile.hgrm + "-" + name + ".hgrm")) {
+                histogram.outputPercentileDistribution(out, 1e6);
+            }
+        }
+    }
+
+    private static Histogram histogram() {
+        return new ConcurrentHistogram(MAX_NANOS, 3);
+    }
+
+    private static void record(Histogram histogram, long nanos) {
+        histogram.recordValue(Math.max(0, Math.min(nanos, MAX_NANOS)));
+    }
+
+    private static long key(int playerId, int row, int col) {
+        return (long) playerId << 16 | row << 8 | col;
+    }
+
+    private void fail(String what, Throwable error) {
+        // Lo que falla al parar no cuenta; de lo demás, solo los primeros para no tapar el informe
+        if (stopping) return;
+        if (errors.incrementAndGet() <= 10) System.err.println(what + ": " + error);
+    }
+
+    // Estado de un jugador simulado. Los mensajes llegan por hilos del transporte y las
+    // acciones se programan en el reloj; todo el estado se toca bajo el monitor.
+    abstract class SimPlayer {
+        int playerId = -1;
+        String token;
+        int[][] board;
+        int[][] solution;
+        int version;
+        volatile boolean playing;
+        boolean away;
+        boolean myTurn;
+        // Marcas de tiempo de la petición en curso (0 = ninguna)
+        long joinSent;
+        long startSent;
+        long moveSent;
+
+        abstract void start();
+
+        abstract void requestJoin() throws Exception;
+
+        abstract void sendMove(int row, int col, int value) throws Exception;
+
+        abstract void disconnect();
+
+        abstract void reconnect();
+
+        // Pide el tablero completo tras un hueco de versiones
+        abstract void resync();
+
+        // Histograma de los movimientos que recibe del rival
+        abstract Histogram received();
+
+        void join() {
+            synchronized (this) {
+                // playing: mientras esperaba, otro jugador ocupó el asiento que dejó el rival
+                // y la partida volvió a empezar; salir ahora dejaría tirado al nuevo
+                if (stopping || playing) return;
+                joinSent = startSent = System.nanoTime();
+            }
+            try {
+                requestJoin();
+            } catch (Exception e) {
+                fail("join", e);
+                clock.schedule(this::join, 1, TimeUnit.SECONDS);
+            }
+        }
+
+        synchronized void seated(Histogram histogram) {
+            if (joinSent == 0) return;
+            record(histogram, System.nanoTime() - joinSent);
+            joinSent = 0;
+        }
+
+        synchronized void started(int[][] start, int startVersion, boolean turn) {
+            if (startSent != 0) record(startWait, System.nanoTime() - startSent);
+            startSent = 0;
+            board = start;
+            solution = new int[SIZE][];
+            for (int row = 0; row < SIZE; row++) {
+                solution[row] = start[row].clone();
+            }
+            new ConstraintPropagationSolver().solve(solution);
+            version = startVersion;
+            playing = true;
+            myTurn = turn;
+            if (turn) schedulePlay();
+        }
+
+        // live = false para los movimientos que llegan al reanudar, que no se miden
+        synchronized void moved(int moverId, int row, int col, int value, int moveVersion, boolean live) {
+            if (!playing || moveVersion <= version) return;
+            if (moveVersion != version + 1) {
+                gaps.incrementAndGet();
+                resync();
+                return;
+            }
+            board[row][col] = value;
+            version = moveVersion;
+            long now = System.nanoTime();
+            if (moverId == playerId) {
+                if (live) record(ack, now - moveSent);
+                moves.incrementAndGet();
+                if (isComplete()) games.incrementAndGet();
+                myTurn = false;
+            } else {
+                Long sent = inFlight.remove(key(moverId, row, col));
+                if (sent != null && live) record(received(), now - sent);
+                // Dos jugadores por turnos: después del rival me toca a mí
+                myTurn = true;
+                schedulePlay();
+            }
+        }
+
+        synchronized void resynced(int[][] fresh, int freshVersion, boolean turn) {
+            if (!playing) return;
+            board = fresh;
+            version = freshVersion;
+            myTurn = turn;
+            if (turn) schedulePlay();
+        }
+
+        synchronized void over() {
+            if (!playing) return;
+            playing = false;
+            clock.schedule(this::join, think(), TimeUnit.MILLISECONDS);
+        }
+
+        // El rival se fue (o no volvió a tiempo): a otra partida
+        synchronized void opponentGone() {
+            if (!playing) return;
+            playing = false;
+            abandoned.incrementAndGet();
+            clock.schedule(this::join, think(), TimeUnit.MILLISECONDS);
+        }
+
+        void schedulePlay() {
+            clock.schedule(this::play, think(), TimeUnit.MILLISECONDS);
+        }
+
+        void play() {
+            int row = -1;
+            int col = -1;
+            int value;
+            synchronized (this) {
+                if (stopping || !playing || away || !myTurn) return;
+                if (ThreadLocalRandom.current().nextDouble() < profile.dropRate) {
+                    away = true;
+                    drops.incrementAndGet();
+                    disconnect();
+                    clock.schedule(this::reconnect, profile.awayMs, TimeUnit.MILLISECONDS);
+                    return;
+                }
+                for (int cell = 0; cell < SIZE * SIZE && row < 0; cell++) {
+                    if (board[cell / SIZE][cell % SIZE] == 0) {
+                        row = cell / SIZE;
+                        col = cell % SIZE;
+                    }
+                }
+                if (row < 0) return;
+                value = solution[row][col];
+                myTurn = false;
+                moveSent = System.nanoTime();
+                inFlight.put(key(playerId, row, col), moveSent);
+            }
+            try {
+                sendMove(row, col, value);
+            } catch (Exception e) {
+                fail("move", e);
+            }
+        }
+
+        private boolean isComplete() {
+            for (int[] cells : board) {
+                for (int cell : cells) {
+                    if (cell == 0) return false;
+                }
+            }
+            return true;
+        }
+
+        private long think() {
+            return profile.thinkMs / 2 + ThreadLocalRandom.current().nextLong(profile.thinkMs + 1);
+        }
+    }
+
+    // Jugador RMI. Cada partida es un id nuevo con su propio IGameListener exportado, y
+    // solo cuenta el de la partida actual: un aviso tardío de la anterior (por ejemplo el
+    // PLAYER_DISCONNECTED cuando el rival se va a otra) no debe tocar la nueva.
+    final class RmiPlayer extends SimPlayer {
+        private volatile Seat seat;
+
+        final class Seat implements IGameListener {
+            final IGameListener stub;
+
+            Seat() throws RemoteException {
+                stub = (IGameListener) UnicastRemoteObject.exportObject(this, 0);
+            }
+
+            @Override
+            public void onUpdate(GameUpdate update) {
+                if (seat == this) handle(update);
+            }
+
+            void close() {
+                try {
+                    UnicastRemoteObject.unexportObject(this, true);
+                } catch (NoSuchObjectException e) {
+                    // ya no estaba exportado
+                }
+            }
+        }
+
+        @Override
+        void start() {
+            join();
+        }
+
+        // Con el monitor: el GAME_START del listener espera a conocer el id
+        @Override
+        synchronized void requestJoin() throws Exception {
+            // El id anterior deja su partida
+            if (playerId > 0) service.leaveGame(playerId);
+            if (seat != null) seat.close();
+            seat = new Seat();
+            long sent = System.nanoTime();
+            PlayerSession session = service.joinGameSession(seat.stub, GameRules.TWO_PLAYER_TURNS);
+            record(joinRmi, System.nanoTime() - sent);
+            joinSent = 0;
+            playerId = session.playerId;
+            token = session.resumeToken;
+        }
+
+        @Override
+        void sendMove(int row, int col, int value) throws RemoteException {
+            if (!service.makeMove(playerId, row, col, value)) {
+                fail("move", new IllegalStateException("Movimiento rechazado en " + row + "," + col));
+            }
+        }
+
+        private void handle(GameUpdate update) {
+            switch (update.type) {
+                case "MOVE_MADE":
+                    moved(update.playerId, update.row, update.col, update.value, update.boardVersion, true);
+                    break;
+                case "GAME_START":
+                    // Tablero, versión y turno de una sola lectura y fuera del hilo del
+                    // dispatcher: el primer MOVE_MADE del rival puede llegar antes
+                    clock.execute(() -> withStatus(this::started));
+                    break;
+                case "RESYNC":
+                    clock.execute(() -> withStatus(this::resynced));
+                    break;
+                case "PLAYER_DISCONNECTED":
+                    opponentGone();
+                    break;
+                default:
+                    if (update.type.startsWith("GAME_OVER")) over();
+            }
+        }
+
+        private void withStatus(BoardHandler handler) {
+            int id;
+            synchronized (this) {
+                id = playerId;
+            }
+            try {
+                GameStatus status = service.getStatus(id, -1);
+                if (status.board != null) handler.accept(status.board.toArray(), status.boardVersion,
+                    status.currentPlayerId == id);
+            } catch (RemoteException e) {
+                fail("status", e);
+            }
+        }
+
+        @Override
+        void resync() {
+            clock.execute(() -> withStatus(this::resynced));
+        }
+
+        @Override
+        void disconnect() {
+            Seat closing = seat;
+            seat = null;
+            if (closing != null) closing.close();
+        }
+
+        // Con el monitor: los eventos al listener nuevo esperan a que se aplique la puesta al día
+        @Override
+        synchronized void reconnect() {
+            long sent = System.nanoTime();
+            try {
+                seat = new Seat();
+                List<GameUpdate> catchUp = service.resumeGame(token, version, seat.stub);
+                boolean turn = service.getCurrentPlayerId(playerId) == playerId;
+                record(resumeRmi, System.nanoTime() - sent);
+                resumes.incrementAndGet();
+                away = false;
+                for (GameUpdate update : catchUp) {
+                    if ("MOVE_MADE".equals(update.type)) {
+                        moved(update.playerId, update.row, update.col, update.value, update.boardVersion, false);
+                    } else if (update.isSnapshot()) {
+                        board = update.board.toArray();
+                        version = update.boardVersion;
+                    } else if (update.type.startsWith("GAME_OVER")) {
+                        over();
+                    }
+                }
+                myTurn = turn;
+                if (turn) schedulePlay();
+            } catch (RemoteException e) {
+                fail("resume", e);
+                away = false;
+                playing = false;
+                clock.execute(this::join);
+            }
+        }
+
+        @Override
+        Histogram received() {
+            return toRmi;
+        }
+
+        void heartbeat() {
+            int id = playerId;
+            if (id < 0 || stopping) return;
+            try {
+                service.heartbeat(id);
+            } catch (RemoteException e) {
+                fail("heartbeat", e);
+            }
+        }
+    }
+
+    interface BoardHandler {
+        void accept(int[][] board, int version, boolean myTurn);
+    }
+
+    // Jugador WebSocket: una sesión Tyrus que reacciona a cada mensaje. Los avisos de
+    // otra partida (de la anterior, que llegan desde otro shard) no cuentan.
+    final class WsPlayer extends SimPlayer {
+        private volatile Session session;
+        private volatile String gameId;
+        private long reconnectSent;
+
+        @Override
+        void start() {
+            connect();
+        }
+
+        private void connect() {
+            try {
+                client.connectToServer(new Endpoint() {
+                    @Override
+                    public void onOpen(Session opened, EndpointConfig config) {
+                        session = opened;
+                        opened.addMessageHandler(new MessageHandler.Whole<String>() {
+                            @Override
+                            public void onMessage(String text) {
+                                // Lo que aún llegue por una conexión anterior no cuenta
+                                if (opened == session) handle(gson.fromJson(text, GameMessage.class));
+                            }
+                        });
+                    }
+                }, ClientEndpointConfig.Builder.create().build(), uri);
+            } catch (Exception e) {
+                fail("connect", e);
+                synchronized (this) {
+                    away = false;
+                    playing = false;
+                }
+                clock.schedule(this::connect, 1, TimeUnit.SECONDS);
+            }
+        }
+
+        private void handle(GameMessage message) {
+            switch (message.type) {
+                case "SESSION":
+                    session(message);
+                    break;
+                case "GAME_CREATED":
+                case "GAME_JOINED":
+                    gameId = message.gameId;
+                    seated(joinWs);
+                    break;
+                case "GAME_START":
+                    seated(joinWs);
+                    started(message.board.toArray(), message.boardVersion, message.isMyTurn);
+                    break;
+                case "GAME_UPDATE":
+                    if (message.board != null) {
+                        resynced(message.board.toArray(), message.boardVersion, message.currentPlayer == playerId);
+                    } else {
+                        moved(message.playerId, message.row, message.col, message.value, message.boardVersion, true);
+                    }
+                    break;
+                case "GAME_OVER":
+                    if (current(message)) over();
+                    break;
+                case "PLAYER_DISCONNECTED":
+                    if (current(message)) opponentGone();
+                    break;
+                case "RESUMED":
+                    resumed(message);
+                    break;
+                case "ERROR":
+                    error(message);
+                    break;
+                default:
+                    // PLAYER_AWAY, PLAYER_RECONNECTED, AVAILABLE_GAMES...
+            }
+        }
+
+        private boolean current(GameMessage message) {
+            return message.gameId == null || message.gameId.equals(gameId);
+        }
+
+        private synchronized void session(GameMessage message) {
+            if (!away) {
+                playerId = message.playerId;
+                token = message.resumeToken;
+                clock.execute(this::join);
+                return;
+            }
+            GameMessage resume = new GameMessage("RESUME");
+            resume.resumeToken = token;
+            resume.boardVersion = version;
+            send(gson.toJson(resume));
+        }
+
+        private synchronized void resumed(GameMessage message) {
+            record(resumeWs, System.nanoTime() - reconnectSent);
+            resumes.incrementAndGet();
+            away = false;
+            token = message.resumeToken;
+            if (message.board != null) {
+                board = message.board.toArray();
+                version = message.boardVersion;
+            } else if (message.moves != null) {
+                int[] missed = message.moves;
+                for (int i = 0; i < missed.length; i += 5) {
+                    moved(missed[i + 4], missed[i + 1], missed[i + 2], missed[i + 3], missed[i], false);
+                }
+            }
+            myTurn = message.isMyTurn;
+            if (myTurn) schedulePlay();
+        }
+
+        private synchronized void error(GameMessage message) {
+            if (NO_GAMES.equals(message.error)) {
+                // Nadie esperando: abre una partida
+                send("{\"type\":\"CREATE_GAME\",\"size\":" + SIZE + "}");
+                return;
+            }
+            fail("ERROR", new IllegalStateException(message.error));
+            if (away) {
+                // La reanudación falló: a otra partida
+                away = false;
+                playing = false;
+                clock.execute(this::join);
+            }
+        }
+
+        @Override
+        void requestJoin() {
+            send("{\"type\":\"JOIN_GAME\",\"size\":" + SIZE + "}");
+        }
+
+        @Override
+        void sendMove(int row, int col, int value) {
+            GameMessage move = new GameMessage("MAKE_MOVE");
+            move.row = row;
+            move.col = col;
+            move.value = value;
+            send(gson.toJson(move));
+        }
+
+        @Override
+        void resync() {
+            send("{\"type\":\"RESYNC\"}");
+        }
+
+        @Override
+        void disconnect() {
+            Session closing = session;
+            session = null;
+            try {
+                if (closing != null) closing.close();
+            } catch (Exception e) {
+                // ya estaba cerrada
+            }
+        }
+
+        @Override
+        void reconnect() {
+            synchronized (this) {
+                reconnectSent = System.nanoTime();
+            }
+            connect();
+        }
+
+        @Override
+        Histogram received() {
+            return toWs;
+        }
+
+        private void send(String text) {
+            Session current = session;
+            if (current != null) current.getAsyncRemote().sendText(text);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.sudoku.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.websocket.ClientEndpointConfig;
+import javax.websocket.Endpoint;
+import javax.websocket.EndpointConfig;
+import javax.websocket.MessageHandler;
+import javax.websocket.Session;
+
+import org.glassfish.tyrus.client.ClientManager;
+import org.glassfish.tyrus.server.Server;
+
+import com.sudoku.benchmarks.SlowConsumerLoadTest.Player;
+import com.sudoku.model.PuzzlePool;
+import com.sudoku.server.GameWebSocketServer;
+
+/**
+ * Prueba de carga del lobby. Arranca el endpoint /game en este proceso, abre 'idle'
+ * sesiones que se quedan en el lobby y, mientras tanto, 'pairs' hilos crean, empiezan
+ * y abandonan partidas sin parar. Cuenta cuántos AVAILABLE_GAMES recibe el lobby por
+ * cada evento de partida y el tiempo de CPU del proceso (servidor y clientes juntos).
+ *
+ *   java -cp benchmarks/target/benchmarks.jar com.sudoku.benchmarks.LobbyLoadTest [idle] [pairs] [seconds]
+ */
+public class LobbyLoadTest {
+    private static final int PORT = Integer.getInteger("port", 8025);
+
+    public static void main(String[] args) throws Exception {
+        int idle = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int pairs = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        PuzzlePool.getInstance().start();
+        Server server = new Server("localhost", PORT, "/", null, GameWebSocketServer.class);
+        server.start();
+        try {
+            run(idle, pairs, seconds);
+        } finally {
+            server.stop();
+        }
+        System.exit(0);
+    }
+
+    private static void run(int idle, int pairs, int seconds) throws Exception {
+        ClientManager client = ClientManager.createClient();
+        URI uri = new URI("ws://localhost:" + PORT + "/game");
+
+        AtomicLong lobbyFrames = new AtomicLong();
+        List<Session> lobby = new ArrayList<>();
+        for (int i = 0; i < idle; i++) {
+            lobby.add(client.connectToServer(new Endpoint() {
+                @Override
+                public void onOpen(Session session, EndpointConfig config) {
+                    session.addMessageHandler(new MessageHandler.Whole<String>() {
+                        @Override
+                        public void onMessage(String text) {
+                            lobbyFrames.incrementAndGet();
+                        }
+                    });
+                }
+            }, ClientEndpointConfig.Builder.create().build(), uri));
+        }
+        // El AVAILABLE_GAMES de bienvenida no cuenta
+        Thread.sleep(1000);
+        lobbyFrames.set(0);
+
+        com.sun.management.OperatingSystemMXBean os =
+            (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        long cpuStart = os.getProcessCpuTime();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        AtomicInteger cycles = new AtomicInteger();
+        List<Thread> churners = new ArrayList<>();
+        for (int i = 0; i < pairs; i++) {
+            Thread thread = new Thread(() -> {
+                while (System.nanoTime() < deadline) {
+                    try {
+                        churn(client, uri);
+                        cycles.incrementAndGet();
+                    } catch (Exception e) {
+                        System.err.println("Ciclo abortado: " + e.getMessage());
+                    }
+                }
+            }, "churn-" + i);
+            churners.add(thread);
+            thread.start();
+        }
+        for (Thread thread : churners) {
+            thread.join();
+        }
+        long cpuMillis = TimeUnit.NANOSECONDS.toMillis(os.getProcessCpuTime() - cpuStart);
+        // Deja llegar lo que quedaba en vuelo
+        Thread.sleep(1000);
+
+        // Cada ciclo crea, empieza y abandona una partida: 4 eventos de lobby
+        long events = cycles.get() * 4L;
+        System.out.printf("idle=%d pairs=%d seconds=%d cycles=%d lobbyEvents=%d%n",
+            idle, pairs, seconds, cycles.get(), events);
+        System.out.printf("lobby frames=%d (%.2f per session/s, %.1f per event) cpu=%d ms (%.2f ms per event)%n",
+            lobbyFrames.get(), lobbyFrames.get() / (double) idle / seconds,
+            lobbyFrames.get() / (double) Math.max(events, 1), cpuMillis, cpuMillis / (double) Math.max(events, 1));
+        for (Session session : lobby) {
+            session.close();
+        }
+    }
+
+    // Crea una partida 4x4, la empieza con un segundo jugador y cierra las dos sesiones
+    private static void churn(ClientManager client, URI uri) throws Exception {
+        Player first = new Player(client, uri);
+        Player second = new Player(client, uri);
+        try {
+            synchronized (LobbyLoadTest.class) {
+                first.send("{\"type\":\"CREATE_GAME\",\"size\":4}");
+                first.await("GAME_CREATED");
+                second.send("{\"type\":\"JOIN_GAME\",\"size\":4}");
+                second.await("GAME_START");
+            }
+        } finally {
+            second.close();
+            first.close();
+        }
+    }
+}
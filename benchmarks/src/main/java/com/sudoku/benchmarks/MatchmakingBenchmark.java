@@ -0,0 +1,109 @@
+package com.sudoku.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sudoku.model.Difficulty;
+import com.sudoku.model.GameRules;
+import com.sudoku.model.GameState;
+import com.sudoku.model.Puzzle;
+import com.sudoku.model.SudokuGenerator;
+import com.sudoku.service.Matchmaker;
+
+/**
+ * Throughput de joins con el Matchmaker frente al recorrido lineal sincronizado
+ * que hacía findOrCreateGame, con 'liveGames' partidas llenas en memoria.
+ * Para ver el escalado con los núcleos ejecutar con -t 1, -t 2, -t 4, ...
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MatchmakingBenchmark {
+
+    @Param({"1000", "10000"})
+    int liveGames;
+
+    private Puzzle puzzle;
+    private Matchmaker matchmaker;
+    private Map<String, GameState> legacyGames;
+    private final AtomicInteger ids = new AtomicInteger();
+    private final Object legacyLock = new Object();
+
+    @Setup
+    public void setup() {
+        puzzle = SudokuGenerator.generate(9, Difficulty.MEDIUM);
+        matchmaker = new Matchmaker();
+        legacyGames = new ConcurrentHashMap<>();
+        for (int i = 0; i < liveGames; i++) {
+            GameState game = newGame();
+            game.addPlayer("a" + i, 1);
+            game.addPlayer("b" + i, 2);
+            legacyGames.put("live-" + i, game);
+        }
+    }
+
+    @Benchmark
+    public String matchmakerJoin() {
+        int playerId = ids.incrementAndGet();
+        String sessionId = String.valueOf(playerId);
+        // Como GameEngine.join, pero sentando al jugador en este hilo
+        Matchmaker.OpenGame open;
+        while ((open = matchmaker.next(9, Difficulty.MEDIUM, GameRules.TWO_PLAYER_TURNS)) != null) {
+            if (open.getGame().tryAddPlayer(sessionId, playerId)) {
+                matchmaker.seated(open);
+                return open.getGameId();
+            }
+            matchmaker.discard(open);
+        }
+        GameState game = newGame();
+        game.addPlayer(sessionId, playerId);
+        String gameId = "g" + playerId;
+        matchmaker.offer(gameId, game);
+        return gameId;
+    }
+
+    // Recorrido lineal bajo un candado global, como el SudokuServiceImpl original.
+    // Las partidas que se llenan se retiran para que el mapa no crezca durante la medición.
+    @Benchmark
+    public String legacyJoin() {
+        int playerId = ids.incrementAndGet();
+        String sessionId = String.valueOf(playerId);
+        synchronized (legacyLock) {
+            for (Map.Entry<String, GameState> entry : legacyGames.entrySet()) {
+                GameState game = entry.getValue();
+                if (!game.isFull()) {
+                    game.addPlayer(sessionId, playerId);
+                    legacyGames.remove(entry.getKey());
+                    return entry.getKey();
+                }
+            }
+            GameState game = newGame();
+            game.addPlayer(sessionId, playerId);
+            String gameId = "g" + playerId;
+            legacyGames.put(gameId, game);
+            return gameId;
+        }
+    }
+
+    // El tablero es inmutable: todas las partidas pueden partir del mismo puzzle
+    private GameState newGame() {
+        return new GameState(puzzle);
+    }
+}
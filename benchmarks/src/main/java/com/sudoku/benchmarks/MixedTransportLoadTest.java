@@ -0,0 +1,217 @@
+package com.sudoku.benchmarks;
+
+import java.net.URI;
+import java.rmi.RemoteException;
+import java.rmi.server.RemoteObject;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.glassfish.tyrus.client.ClientManager;
+import org.glassfish.tyrus.server.Server;
+
+import com.google.gson.Gson;
+import com.sudoku.benchmarks.SlowConsumerLoadTest.Player;
+import com.sudoku.model.ConstraintPropagationSolver;
+import com.sudoku.model.PuzzlePool;
+import com.sudoku.server.GameWebSocketServer;
+import com.sudoku.server.GameWebSocketServer.GameMessage;
+import com.sudoku.service.GameUpdate;
+import com.sudoku.service.ISudokuServiceV2;
+import com.sudoku.service.SudokuServiceImpl;
+
+/**
+ * Prueba de carga de extremo a extremo con los dos transportes sobre el mismo GameEngine.
+ * Arranca en este proceso el servicio RMI (al que se llama por su stub, por TCP) y el
+ * endpoint /game, y juega 'pairs' parejas en paralelo en las que un jugador es RMI y el
+ * otro WebSocket. Mide cada movimiento hasta que lo recibe el jugador del otro
+ * transporte, comprueba que los dos ven todas las versiones del tablero en orden y, al
+ * terminar cada partida, que el tablero coincide con la solución.
+ *
+ *   java -cp benchmarks/target/benchmarks.jar com.sudoku.benchmarks.MixedTransportLoadTest [pairs] [seconds]
+ */
+public class MixedTransportLoadTest {
+    private static final int PORT = Integer.getInteger("port", 8025);
+    private static final int SIZE = 9;
+    private static final Gson gson = new Gson();
+
+    public static void main(String[] args) throws Exception {
+        int pairs = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        PuzzlePool.getInstance().start();
+        Server server = new Server("localhost", PORT, "/", null, GameWebSocketServer.class);
+        server.start();
+        // Mismo GameEngine que el endpoint: el del proceso
+        SudokuServiceImpl rmi = new SudokuServiceImpl();
+        try {
+            run((ISudokuServiceV2) RemoteObject.toStub(rmi), pairs, seconds);
+        } finally {
+            UnicastRemoteObject.unexportObject(rmi, true);
+            server.stop();
+        }
+        System.exit(0);
+    }
+
+    private static void run(ISudokuServiceV2 service, int pairs, int seconds) throws Exception {
+        ClientManager client = ClientManager.createClient();
+        URI uri = new URI("ws://localhost:" + PORT + "/game");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        List<long[]> rmiToWs = Collections.synchronizedList(new ArrayList<>());
+        List<long[]> wsToRmi = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger moves = new AtomicInteger();
+        AtomicInteger games = new AtomicInteger();
+        AtomicInteger aborted = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < pairs; i++) {
+            Thread thread = new Thread(() -> {
+                long[][] samples = {new long[1 << 18], new long[1 << 18]};
+                int[] counts = new int[2];
+                try {
+                    playPair(service, new Player(client, uri), deadline, samples, counts, moves, games, aborted);
+                } catch (Exception e) {
+                    System.err.println("Pareja abortada: " + e);
+                }
+                rmiToWs.add(Arrays.copyOf(samples[0], counts[0]));
+                wsToRmi.add(Arrays.copyOf(samples[1], counts[1]));
+            }, "pair-" + i);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        System.out.printf("pairs=%d seconds=%d moves=%d (%.0f/s) completedGames=%d abortedGames=%d%n",
+            pairs, seconds, moves.get(), moves.get() / (double) seconds, games.get(), aborted.get());
+        print("RMI makeMove -> WebSocket GAME_UPDATE", rmiToWs);
+        print("WebSocket MAKE_MOVE -> RMI MOVE_MADE", wsToRmi);
+    }
+
+    private static void print(String label, List<long[]> latencies) {
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        if (all.length == 0) return;
+        System.out.printf("%s ms: p50=%.3f p90=%.3f p99=%.3f p99.9=%.3f max=%.3f%n", label,
+            SlowConsumerLoadTest.percentile(all, 0.50), SlowConsumerLoadTest.percentile(all, 0.90),
+            SlowConsumerLoadTest.percentile(all, 0.99), SlowConsumerLoadTest.percentile(all, 0.999),
+            all[all.length - 1] / 1e6);
+    }
+
+    // Juega partidas seguidas hasta el plazo. La sesión WebSocket crea la partida y el
+    // jugador RMI se une; cada partida nueva usa un jugador RMI nuevo
+    private static void playPair(ISudokuServiceV2 service, Player ws, long deadline, long[][] samples,
+                                 int[] counts, AtomicInteger moves, AtomicInteger games,
+                                 AtomicInteger aborted) throws Exception {
+        RmiPlayer rmi = null;
+        while (System.nanoTime() < deadline) {
+            try {
+                // Salir, crear y unirse sin que otra pareja se cuele en la partida
+                synchronized (MixedTransportLoadTest.class) {
+                    if (rmi != null) service.leaveGame(rmi.id);
+                    ws.send("{\"type\":\"CREATE_GAME\",\"size\":" + SIZE + "}");
+                    ws.await("GAME_CREATED");
+                    rmi = new RmiPlayer(service, service.joinGame());
+                }
+                GameMessage start = ws.await("GAME_START");
+                GameUpdate rmiStart = rmi.await("GAME_START");
+                if (rmiStart.boardVersion != start.boardVersion) {
+                    throw new IllegalStateException("GAME_START con versiones distintas");
+                }
+                int[][] board = start.board.toArray();
+                int[][] solution = start.board.toArray();
+                new ConstraintPropagationSolver().solve(solution);
+
+                boolean wsTurn = start.isMyTurn;
+                int version = start.boardVersion;
+                boolean complete = true;
+                for (int cell = 0; cell < SIZE * SIZE; cell++) {
+                    int row = cell / SIZE;
+                    int col = cell % SIZE;
+                    if (board[row][col] != 0) continue;
+                    if (System.nanoTime() >= deadline) {
+                        complete = false;
+                        break;
+                    }
+                    long sent = System.nanoTime();
+                    GameMessage wsUpdate;
+                    GameUpdate rmiUpdate;
+                    if (wsTurn) {
+                        GameMessage move = new GameMessage("MAKE_MOVE");
+                        move.row = row;
+                        move.col = col;
+                        move.value = solution[row][col];
+                        ws.send(gson.toJson(move));
+                        rmiUpdate = rmi.await("MOVE_MADE");
+                        record(samples, counts, 1, System.nanoTime() - sent);
+                        wsUpdate = ws.await("GAME_UPDATE");
+                    } else {
+                        if (!service.makeMove(rmi.id, row, col, solution[row][col])) {
+                            throw new IllegalStateException("Movimiento RMI rechazado");
+                        }
+                        wsUpdate = ws.await("GAME_UPDATE");
+                        record(samples, counts, 0, System.nanoTime() - sent);
+                        rmiUpdate = rmi.await("MOVE_MADE");
+                    }
+                    version++;
+                    if (wsUpdate.boardVersion != version || rmiUpdate.boardVersion != version) {
+                        throw new IllegalStateException("Versión esperada " + version + ", WebSocket "
+                            + wsUpdate.boardVersion + ", RMI " + rmiUpdate.boardVersion);
+                    }
+                    moves.incrementAndGet();
+                    wsTurn = !wsTurn;
+                }
+                if (!complete) break;
+                ws.await("GAME_OVER");
+                rmi.await("GAME_OVER");
+                if (!Arrays.deepEquals(service.getCurrentBoard(rmi.id), solution)) {
+                    throw new IllegalStateException("El tablero final no es la solución");
+                }
+                games.incrementAndGet();
+            } catch (IllegalStateException e) {
+                // Partida perdida (p. ej. sin respuesta en 10 s): se cuenta y se empieza otra
+                aborted.incrementAndGet();
+                System.err.println("Partida abortada: " + e.getMessage());
+                ws.inbox.clear();
+            }
+        }
+        if (rmi != null) service.leaveGame(rmi.id);
+        ws.close();
+    }
+
+    private static void record(long[][] samples, int[] counts, int direction, long nanos) {
+        if (counts[direction] < samples[direction].length) samples[direction][counts[direction]++] = nanos;
+    }
+
+    // Jugador RMI que recibe por long-poll con getUpdates
+    private static final class RmiPlayer {
+        final ISudokuServiceV2 service;
+        final int id;
+        final Deque<GameUpdate> pending = new ArrayDeque<>();
+
+        RmiPlayer(ISudokuServiceV2 service, int id) {
+            this.service = service;
+            this.id = id;
+        }
+
+        // Primera actualización cuyo tipo empieza por 'type' (GAME_OVER lleva el ganador)
+        GameUpdate await(String type) throws RemoteException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (System.nanoTime() < deadline) {
+                if (pending.isEmpty()) {
+                    pending.addAll(service.getUpdates(id, 16, 1000));
+                    continue;
+                }
+                GameUpdate update = pending.pollFirst();
+                if (update.type.startsWith(type)) return update;
+            }
+            throw new IllegalStateException("Sin respuesta RMI esperando " + type);
+        }
+    }
+}
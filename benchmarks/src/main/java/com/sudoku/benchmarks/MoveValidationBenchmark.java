@@ -0,0 +1,115 @@
+package com.sudoku.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sudoku.model.GameState;
+
+/**
+ * Compara la validación por máscaras de GameState con el recorrido
+ * de fila, columna y cuadro que se usaba antes. isValidMoveBitmask incluye tomar el
+ * monitor de la partida, sin competencia.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveValidationBenchmark {
+    private static final int PROBES = 1024;
+
+    @Param({"4", "9", "16"})
+    int size;
+
+    private GameState game;
+    private int[][] board;
+    private int[] rows;
+    private int[] cols;
+    private int[] values;
+    private int index;
+
+    @Setup
+    public void setup() {
+        game = new GameState(size);
+        board = game.getBoard().toArray();
+        Random random = new Random(42);
+        rows = new int[PROBES];
+        cols = new int[PROBES];
+        values = new int[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            rows[i] = random.nextInt(size);
+            cols[i] = random.nextInt(size);
+            values[i] = random.nextInt(size) + 1;
+        }
+    }
+
+    @Benchmark
+    public boolean isValidMoveBitmask() {
+        int i = index++ & (PROBES - 1);
+        return game.isValidMove(rows[i], cols[i], values[i]);
+    }
+
+    @Benchmark
+    public boolean isValidMoveScan() {
+        int i = index++ & (PROBES - 1);
+        return ScanningValidator.isValidMove(board, size, rows[i], cols[i], values[i]);
+    }
+
+    @Benchmark
+    public boolean isCompleteCounter() {
+        return game.isComplete();
+    }
+
+    @Benchmark
+    public boolean isCompleteScan() {
+        return ScanningValidator.isComplete(board, size);
+    }
+
+    // Implementación original por recorrido, usada como referencia
+    static final class ScanningValidator {
+        static boolean isValidMove(int[][] board, int size, int row, int col, int value) {
+            if (row < 0 || row >= size || col < 0 || col >= size || value < 1 || value > size) {
+                return false;
+            }
+            if (board[row][col] != 0) return false;
+
+            for (int c = 0; c < size; c++) {
+                if (board[row][c] == value) return false;
+            }
+            for (int r = 0; r < size; r++) {
+                if (board[r][col] == value) return false;
+            }
+            int boxSize = (int) Math.sqrt(size);
+            int boxRow = row - (row % boxSize);
+            int boxCol = col - (col % boxSize);
+            for (int i = boxRow; i < boxRow + boxSize; i++) {
+                for (int j = boxCol; j < boxCol + boxSize; j++) {
+                    if (board[i][j] == value) return false;
+                }
+            }
+            return true;
+        }
+
+        static boolean isComplete(int[][] board, int size) {
+            for (int i = 0; i < size; i++) {
+                for (int j = 0; j < size; j++) {
+                    if (board[i][j] == 0) return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.sudoku.benchmarks;
+
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sudoku.service.GameEngine;
+import com.sudoku.service.SudokuServiceImpl;
+
+/**
+ * Prueba de carga de SudokuServiceImpl.makeMove con una partida por hilo.
+ * Cada hilo controla a los dos jugadores de su partida y reporta movimientos
+ * aceptados por milisegundo; con -t 1, 2, 4, ... el total debería crecer
+ * linealmente mientras haya núcleos libres.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MultiGameMoveBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Server {
+        SudokuServiceImpl service;
+        // Los joins se serializan para que cada hilo quede emparejado consigo mismo
+        final Object joinLock = new Object();
+
+        @Setup(Level.Trial)
+        public void start() throws RemoteException {
+            service = new SudokuServiceImpl(new GameEngine());
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() throws RemoteException {
+            UnicastRemoteObject.unexportObject(service, true);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Game {
+        static final int SIZE = 9;
+
+        int[] players = new int[2];
+        int turn;
+        int cursor;
+
+        // Empezar otra partida (y generar su tablero) queda fuera de la medición
+        @Setup(Level.Invocation)
+        public void ensureGame(Server server) throws RemoteException {
+            if (players[0] == 0 || cursor >= SIZE * SIZE) {
+                rejoin(server);
+            }
+        }
+
+        void rejoin(Server server) throws RemoteException {
+            synchronized (server.joinLock) {
+                if (players[0] != 0) {
+                    server.service.leaveGame(players[0]);
+                    server.service.leaveGame(players[1]);
+                }
+                players[0] = server.service.joinGame();
+                players[1] = server.service.joinGame();
+            }
+            turn = 0;
+            cursor = 0;
+        }
+    }
+
+    // Busca la siguiente jugada aceptada a partir del cursor. Devuelve false si
+    // la partida se completó o se bloqueó; la siguiente invocación empieza otra.
+    @Benchmark
+    public boolean move(Server server, Game game) throws RemoteException {
+        while (game.cursor < Game.SIZE * Game.SIZE) {
+            int row = game.cursor / Game.SIZE;
+            int col = game.cursor % Game.SIZE;
+            game.cursor++;
+            int playerId = game.players[game.turn];
+            for (int value = 1; value <= Game.SIZE; value++) {
+                if (server.service.makeMove(playerId, row, col, value)) {
+                    game.turn ^= 1;
+                    // Los clientes consumen sus actualizaciones
+                    server.service.getUpdate(game.players[0]);
+                    server.service.getUpdate(game.players[1]);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
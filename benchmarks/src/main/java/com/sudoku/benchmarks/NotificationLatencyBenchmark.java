@@ -0,0 +1,182 @@
+package com.sudoku.benchmarks;
+
+import java.rmi.RemoteException;
+import java.rmi.server.RemoteObject;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.Arrays;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sudoku.model.ConstraintPropagationSolver;
+import com.sudoku.service.GameEngine;
+import com.sudoku.service.GameUpdate;
+import com.sudoku.service.IGameListener;
+import com.sudoku.service.ISudokuServiceV2;
+import com.sudoku.service.SudokuServiceImpl;
+
+/**
+ * Latencia desde makeMove hasta que los dos jugadores reciben MOVE_MADE,
+ * a través de RMI por loopback.
+ * - polling: bucle getUpdate + sleep(100) como el cliente original.
+ * - longpoll: getUpdates bloqueante sin sleep.
+ * - callback: IGameListener exportado por el cliente.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NotificationLatencyBenchmark {
+    private static final int SIZE = 9;
+
+    @Param({"polling", "longpoll", "callback"})
+    String mode;
+
+    private SudokuServiceImpl server;
+    private ISudokuServiceV2 service;
+    private final Semaphore[] received = {new Semaphore(0), new Semaphore(0)};
+    private final Listener[] exported = new Listener[2];
+    private final IGameListener[] listeners = new IGameListener[2];
+    private final Thread[] pollers = new Thread[2];
+    private final int[] players = new int[2];
+    private volatile boolean running;
+
+    // Jugadas correctas pendientes de la partida actual
+    private int[] moves;
+    private int nextMove;
+    private int turn;
+
+    private final class Listener implements IGameListener {
+        final int index;
+
+        Listener(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void onUpdate(GameUpdate update) {
+            if ("MOVE_MADE".equals(update.type)) {
+                received[index].release();
+            }
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void start() throws RemoteException {
+        server = new SudokuServiceImpl(new GameEngine());
+        service = (ISudokuServiceV2) RemoteObject.toStub(server);
+        running = true;
+        for (int i = 0; i < 2; i++) {
+            if ("callback".equals(mode)) {
+                exported[i] = new Listener(i);
+                listeners[i] = (IGameListener) UnicastRemoteObject.exportObject(exported[i], 0);
+            } else {
+                int index = i;
+                pollers[i] = new Thread(() -> poll(index), "poller-" + i);
+                pollers[i].setDaemon(true);
+                pollers[i].start();
+            }
+        }
+        newGame();
+    }
+
+    private void poll(int index) {
+        while (running) {
+            try {
+                int playerId = players[index];
+                if (playerId == 0) {
+                    Thread.sleep(10);
+                } else if ("longpoll".equals(mode)) {
+                    for (GameUpdate update : service.getUpdates(playerId, 32, 1000)) {
+                        if ("MOVE_MADE".equals(update.type)) {
+                            received[index].release();
+                        }
+                    }
+                } else {
+                    GameUpdate update = service.getUpdate(playerId);
+                    if ("MOVE_MADE".equals(update.type)) {
+                        received[index].release();
+                    }
+                    Thread.sleep(100);
+                }
+            } catch (Exception e) {
+                return;
+            }
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void ensureMoves() throws RemoteException {
+        if (nextMove >= moves.length) {
+            newGame();
+        }
+    }
+
+    private void newGame() throws RemoteException {
+        for (int i = 0; i < 2; i++) {
+            if (players[i] != 0) service.leaveGame(players[i]);
+        }
+        for (int i = 0; i < 2; i++) {
+            players[i] = listeners[i] != null ? service.joinGame(listeners[i]) : service.joinGame();
+        }
+
+        int[][] board = service.getCurrentBoard(players[0]);
+        int[][] solution = new int[SIZE][];
+        for (int row = 0; row < SIZE; row++) {
+            solution[row] = board[row].clone();
+        }
+        new ConstraintPropagationSolver().solve(solution);
+
+        int count = 0;
+        int[] pending = new int[SIZE * SIZE];
+        for (int cell = 0; cell < SIZE * SIZE; cell++) {
+            int row = cell / SIZE;
+            int col = cell % SIZE;
+            if (board[row][col] == 0) {
+                pending[count++] = cell * 16 + solution[row][col];
+            }
+        }
+        moves = Arrays.copyOf(pending, count);
+        nextMove = 0;
+        turn = 0;
+        received[0].drainPermits();
+        received[1].drainPermits();
+    }
+
+    @Benchmark
+    public void moveToNotification() throws Exception {
+        int move = moves[nextMove++];
+        int cell = move / 16;
+        if (!service.makeMove(players[turn], cell / SIZE, cell % SIZE, move % 16)) {
+            throw new IllegalStateException("Movimiento rechazado en " + cell);
+        }
+        turn ^= 1;
+        received[0].acquire();
+        received[1].acquire();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws Exception {
+        running = false;
+        for (int i = 0; i < 2; i++) {
+            if (pollers[i] != null) pollers[i].join();
+            if (exported[i] != null) UnicastRemoteObject.unexportObject(exported[i], true);
+        }
+        UnicastRemoteObject.unexportObject(server, true);
+    }
+}
@@ -0,0 +1,79 @@
+package com.sudoku.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import com.sudoku.model.Difficulty;
+import com.sudoku.model.PuzzlePool;
+
+/**
+ * Comprueba que el pool de puzzles aguanta un ritmo sostenido de partidas nuevas sin
+ * vaciarse. Arranca un PuzzlePool con los valores por defecto, espera a que se llene y
+ * pide 'rate' puzzles por segundo durante 'seconds' segundos en dos fases: repartidos
+ * por igual entre 4x4 y 9x9 con las tres dificultades, y solo 4x4 MEDIUM (la dificultad
+ * por defecto, que en 4x4 es inalcanzable y se sirve desde EASY). Cada fallo es un
+ * puzzle generado en el hilo que lo pide. Falla (código 1) si en alguna fase los fallos
+ * pasan del 'maxMissPct' % de las peticiones.
+ *
+ *   java -cp benchmarks/target/benchmarks.jar com.sudoku.benchmarks.PuzzlePoolLoadTest [seconds] [rate] [maxMissPct]
+ */
+public class PuzzlePoolLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int rate = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        double maxMissPct = args.length > 2 ? Double.parseDouble(args[2]) : 2;
+
+        PuzzlePool pool = new PuzzlePool(4, 16, 1);
+        pool.start();
+        long fillStart = System.nanoTime();
+        awaitFull(pool);
+        System.out.printf("filled in %d ms: %s%n",
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - fillStart), pool.getAvailableBySlot());
+
+        int[][] mixed = new int[2 * Difficulty.values().length][];
+        for (int i = 0; i < mixed.length; i++) {
+            mixed[i] = new int[] {i < Difficulty.values().length ? 4 : 9, i % Difficulty.values().length};
+        }
+        boolean ok = phase(pool, "mixed", mixed, seconds, rate, maxMissPct);
+        ok &= phase(pool, "4/MEDIUM", new int[][] {{4, Difficulty.MEDIUM.ordinal()}}, seconds, rate, maxMissPct);
+        pool.shutdown();
+        System.out.println(ok ? "pool OK" : "pool FAILED: misses above " + maxMissPct + "%");
+        System.exit(ok ? 0 : 1);
+    }
+
+    // Pide los tipos {tamaño, dificultad} por turnos al ritmo indicado
+    private static boolean phase(PuzzlePool pool, String name, int[][] kinds, int seconds, int rate,
+                                 double maxMissPct) throws InterruptedException {
+        long hitsBefore = pool.getHits();
+        long missesBefore = pool.getMisses();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long takes = (long) seconds * rate;
+        for (long i = 0; i < takes; i++) {
+            long wait = start + i * intervalNanos - System.nanoTime();
+            if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+            int[] kind = kinds[(int) (i % kinds.length)];
+            pool.take(kind[0], Difficulty.values()[kind[1]]);
+        }
+        long hits = pool.getHits() - hitsBefore;
+        long misses = pool.getMisses() - missesBefore;
+        double missPct = 100.0 * misses / takes;
+        System.out.printf("%s: takes=%d (%d/s) hits=%d misses=%d (%.2f%%) regraded=%d%n",
+            name, takes, rate, hits, misses, missPct, pool.getRegraded());
+        System.out.println("  available: " + pool.getAvailableBySlot());
+        return missPct <= maxMissPct;
+    }
+
+    // Hasta que el pool deja de rellenar (todas las colas alcanzables en la marca alta),
+    // como mucho 60 s
+    private static void awaitFull(PuzzlePool pool) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        long refills = -1;
+        while (System.nanoTime() < deadline) {
+            Thread.sleep(1000);
+            long now = pool.getRefills();
+            if (now > 0 && now == refills) return;
+            refills = now;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.sudoku.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import com.sudoku.model.Board;
+import com.sudoku.model.BoardSnapshot;
+import com.sudoku.model.Difficulty;
+import com.sudoku.model.GameMode;
+import com.sudoku.model.GameRules;
+import com.sudoku.model.GameState;
+import com.sudoku.model.MoveResult;
+import com.sudoku.model.Puzzle;
+import com.sudoku.model.SudokuGenerator;
+
+/**
+ * Una sala de 'players' jugadores con 8 hilos moviendo a la vez sobre la misma partida.
+ * Cada hilo mira su foto del tablero, elige la primera celda vacía desde una posición
+ * al azar y juega el valor de la solución, como un cliente que actúa sobre lo último
+ * que ha recibido. En RACE dos hilos pueden ir a por la misma celda y el segundo recibe
+ * CELL_TAKEN; por turnos solo acierta el que tiene el turno. Al completarse el tablero
+ * se vuelve a poner el puzzle. Los contadores separan los movimientos aceptados de los
+ * rechazados, y al final de cada iteración se comprueba que las celdas ganadas suman
+ * las rellenadas y que todas coinciden con la solución.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class RaceModeBenchmark {
+
+    @Param({"RACE", "TURNS"})
+    GameMode mode;
+
+    @Param({"2", "8"})
+    int players;
+
+    private Puzzle puzzle;
+    private int givens;
+    private GameState game;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Seat {
+        public long accepted;
+        public long taken;
+        public long notYourTurn;
+        int playerId;
+
+        @Setup(Level.Iteration)
+        public void setup(RaceModeBenchmark bench, ThreadParams threads) {
+            playerId = threads.getThreadIndex() % bench.players + 1;
+            accepted = 0;
+            taken = 0;
+            notYourTurn = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        puzzle = SudokuGenerator.generate(9, Difficulty.MEDIUM);
+        Board board = puzzle.getBoard();
+        for (int row = 0; row < 9; row++) {
+            for (int col = 0; col < 9; col++) {
+                if (board.get(row, col) != 0) givens++;
+            }
+        }
+        game = new GameState(puzzle, GameRules.of(mode, players, 0));
+        for (int playerId = 1; playerId <= players; playerId++) {
+            game.addPlayer("s" + playerId, playerId);
+        }
+    }
+
+    @Benchmark
+    public MoveResult play(Seat seat) {
+        BoardSnapshot snapshot = game.getSnapshot();
+        int start = ThreadLocalRandom.current().nextInt(81);
+        for (int i = 0; i < 81; i++) {
+            int cell = (start + i) % 81;
+            int row = cell / 9;
+            int col = cell % 9;
+            if (snapshot.get(row, col) != 0) continue;
+            MoveResult result = game.play(seat.playerId, row, col, puzzle.getSolution().get(row, col));
+            count(seat, result);
+            return result;
+        }
+        // El tablero de esta foto está completo: lo repone el primero que llega
+        synchronized (game) {
+            if (game.isComplete()) {
+                verify();
+                game.setBoard(puzzle.getBoard());
+            }
+        }
+        return MoveResult.ACCEPTED;
+    }
+
+    private static void count(Seat seat, MoveResult result) {
+        switch (result) {
+            case ACCEPTED:
+                seat.accepted++;
+                break;
+            case CELL_TAKEN:
+                seat.taken++;
+                break;
+            case NOT_YOUR_TURN:
+                seat.notYourTurn++;
+                break;
+            default:
+                throw new IllegalStateException("Movimiento de la solución rechazado: " + result);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void check() {
+        synchronized (game) {
+            verify();
+        }
+    }
+
+    // Cada celda rellenada la ganó exactamente un jugador y tiene el valor de la solución
+    private void verify() {
+        Board board = game.getBoard();
+        Board solution = puzzle.getSolution();
+        int filled = 0;
+        for (int row = 0; row < 9; row++) {
+            for (int col = 0; col < 9; col++) {
+                int value = board.get(row, col);
+                if (value == 0) continue;
+                filled++;
+                if (value != solution.get(row, col)) {
+                    throw new IllegalStateException("Celda " + row + "," + col + " distinta de la solución");
+                }
+            }
+        }
+        int won = 0;
+        for (Map.Entry<Integer, Integer> entry : game.getCellsWon().entrySet()) {
+            won += entry.getValue();
+        }
+        if (won != filled - givens) {
+            throw new IllegalStateException("Celdas ganadas " + won + " != rellenadas " + (filled - givens));
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.sudoku.benchmarks;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.glassfish.tyrus.client.ClientManager;
+import org.glassfish.tyrus.server.Server;
+
+import com.google.gson.Gson;
+import com.sudoku.benchmarks.SlowConsumerLoadTest.Player;
+import com.sudoku.model.ConstraintPropagationSolver;
+import com.sudoku.model.PuzzlePool;
+import com.sudoku.server.GameWebSocketServer;
+import com.sudoku.server.GameWebSocketServer.GameMessage;
+
+/**
+ * Reconexiones a mitad de partida por WebSocket. Arranca el endpoint /game en este proceso
+ * y juega 'pairs' parejas en paralelo, en partidas RACE 9x9 de dos jugadores. Cada pocos
+ * movimientos el segundo jugador cierra su conexión; el primero espera el PLAYER_AWAY y
+ * sigue jugando, y el segundo vuelve con una conexión nueva y RESUME con su token y la
+ * última versión que vio (una de cada cuatro veces sin versión, para forzar el tablero
+ * completo). Comprueba que RESUMED trae exactamente los movimientos que faltaban, en
+ * orden, y que con ellos su tablero queda igual que el del otro jugador. Mide la
+ * reanudación (RESUME -> RESUMED) y la reconexión completa (conectar, SESSION, RESUMED).
+ * Al final cada pareja deja caer al segundo jugador sin volver y mide cuándo llega
+ * PLAYER_DISCONNECTED (plazo de gracia de 2 s salvo -Dsudoku.resume.graceMs).
+ *
+ *   java -cp benchmarks/target/benchmarks.jar com.sudoku.benchmarks.ReconnectLoadTest [pairs] [seconds]
+ */
+public class ReconnectLoadTest {
+    private static final int PORT = Integer.getInteger("port", 8025);
+    private static final int SIZE = 9;
+    private static final String RULES = "\"size\":" + SIZE + ",\"mode\":\"RACE\",\"maxPlayers\":2";
+    private static final Gson gson = new Gson();
+
+    public static void main(String[] args) throws Exception {
+        int pairs = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        // Antes de que se cargue el GameEngine
+        if (System.getProperty("sudoku.resume.graceMs") == null) System.setProperty("sudoku.resume.graceMs", "2000");
+
+        PuzzlePool.getInstance().start();
+        Server server = new Server("localhost", PORT, "/", null, GameWebSocketServer.class);
+        server.start();
+        try {
+            run(pairs, seconds);
+        } finally {
+            server.stop();
+        }
+        System.exit(0);
+    }
+
+    private static void run(int pairs, int seconds) throws Exception {
+        ClientManager client = ClientManager.createClient();
+        URI uri = new URI("ws://localhost:" + PORT + "/game");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        List<long[]> resumes = Collections.synchronizedList(new ArrayList<>());
+        List<long[]> reconnects = Collections.synchronizedList(new ArrayList<>());
+        List<Long> expiries = Collections.synchronizedList(new ArrayList<>());
+        Stats stats = new Stats();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < pairs; i++) {
+            Thread thread = new Thread(() -> {
+                long[][] samples = {new long[1 << 16], new long[1 << 16]};
+                int[] counts = new int[2];
+                try {
+                    long expiry = playPair(client, uri, deadline, samples, counts, stats);
+                    expiries.add(expiry);
+                } catch (Exception e) {
+                    stats.failures.incrementAndGet();
+                    System.err.println("Pareja abortada: " + e);
+                }
+                resumes.add(Arrays.copyOf(samples[0], counts[0]));
+                reconnects.add(Arrays.copyOf(samples[1], counts[1]));
+            }, "pair-" + i);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        System.out.printf("pairs=%d seconds=%d moves=%d completedGames=%d resumes=%d (deltas=%d, snapshots=%d, "
+                + "missedMoves=%d) failures=%d%n", pairs, seconds, stats.moves.get(), stats.games.get(),
+            stats.deltas.get() + stats.snapshots.get(), stats.deltas.get(), stats.snapshots.get(),
+            stats.missed.get(), stats.failures.get());
+        print("RESUME -> RESUMED", resumes);
+        print("connect + SESSION + RESUMED", reconnects);
+        long[] grace = expiries.stream().mapToLong(Long::longValue).sorted().toArray();
+        if (grace.length > 0) {
+            System.out.printf("PLAYER_AWAY -> PLAYER_DISCONNECTED ms: min=%.0f max=%.0f (graceMs=%s)%n",
+                grace[0] / 1e6, grace[grace.length - 1] / 1e6, System.getProperty("sudoku.resume.graceMs"));
+        }
+        System.out.println(stats.failures.get() == 0 ? "resume OK" : "FAILURES=" + stats.failures.get());
+    }
+
+    private static void print(String label, List<long[]> latencies) {
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        if (all.length == 0) return;
+        System.out.printf("%s ms: p50=%.3f p90=%.3f p99=%.3f max=%.3f%n", label,
+            SlowConsumerLoadTest.percentile(all, 0.50), SlowConsumerLoadTest.percentile(all, 0.90),
+            SlowConsumerLoadTest.percentile(all, 0.99), all[all.length - 1] / 1e6);
+    }
+
+    // Juega partidas seguidas hasta el plazo y devuelve cuánto tardó en expirar el asiento
+    // del segundo jugador cuando al final no vuelve
+    private static long playPair(ClientManager client, URI uri, long deadline, long[][] samples, int[] counts,
+                                 Stats stats) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Player first = new Player(client, uri);
+        first.await("SESSION");
+        Player second = new Player(client, uri);
+        String token = second.await("SESSION").resumeToken;
+        while (System.nanoTime() < deadline) {
+            GameMessage start;
+            // Crear y unirse sin que otra pareja se cuele en la partida
+            synchronized (ReconnectLoadTest.class) {
+                first.send("{\"type\":\"CREATE_GAME\"," + RULES + "}");
+                first.await("GAME_CREATED");
+                second.send("{\"type\":\"JOIN_GAME\"," + RULES + "}");
+                start = first.await("GAME_START");
+                second.await("GAME_START");
+            }
+            int[][] board = start.board.toArray();
+            int[][] seen = start.board.toArray();
+            int[][] solution = start.board.toArray();
+            new ConstraintPropagationSolver().solve(solution);
+            int version = start.boardVersion;
+            int seenVersion = version;
+            boolean away = false;
+            int missed = 0;
+
+            for (int cell = 0; cell < SIZE * SIZE && System.nanoTime() < deadline; cell++) {
+                int row = cell / SIZE;
+                int col = cell % SIZE;
+                if (board[row][col] != 0) continue;
+                if (!away && random.nextInt(8) == 0) {
+                    second.close();
+                    first.await("PLAYER_AWAY");
+                    away = true;
+                    missed = 1 + random.nextInt(6);
+                }
+                Player mover = away || random.nextBoolean() ? first : second;
+                GameMessage move = new GameMessage("MAKE_MOVE");
+                move.row = row;
+                move.col = col;
+                move.value = solution[row][col];
+                mover.send(gson.toJson(move));
+                board[row][col] = move.value;
+                version++;
+                check(first.await("GAME_UPDATE"), version);
+                stats.moves.incrementAndGet();
+                if (!away) {
+                    check(second.await("GAME_UPDATE"), version);
+                    seen[row][col] = move.value;
+                    seenVersion = version;
+                } else if (--missed == 0 && !Arrays.deepEquals(board, solution)) {
+                    // Tras el último movimiento no: vuelve después del GAME_OVER, fuera del bucle
+                    second = resume(client, uri, token, random.nextInt(4) == 0 ? -1 : seenVersion, seen,
+                        board, version, samples, counts, stats);
+                    seenVersion = version;
+                    first.await("PLAYER_RECONNECTED");
+                    away = false;
+                }
+            }
+            boolean complete = Arrays.deepEquals(board, solution);
+            if (complete) {
+                first.await("GAME_OVER");
+                if (!away) second.await("GAME_OVER");
+                stats.games.incrementAndGet();
+            }
+            if (away) {
+                // La partida acabó (o se acabó el tiempo) sin él: el asiento sigue siendo suyo
+                second = resume(client, uri, token, seenVersion, seen, board, version, samples, counts, stats);
+                first.await("PLAYER_RECONNECTED");
+            }
+            if (!complete) break;
+        }
+
+        // El segundo jugador se va sin volver: el asiento se libera al pasar el plazo
+        second.close();
+        first.await("PLAYER_AWAY");
+        long away = System.nanoTime();
+        first.await("PLAYER_DISCONNECTED");
+        long expiry = System.nanoTime() - away;
+        first.close();
+        second.close();
+        return expiry;
+    }
+
+    // Vuelve con una conexión nueva y comprueba que RESUMED deja su tablero igual que el de la partida
+    private static Player resume(ClientManager client, URI uri, String token, int knownVersion, int[][] seen,
+                                 int[][] board, int version, long[][] samples, int[] counts, Stats stats)
+            throws Exception {
+        long connect = System.nanoTime();
+        Player player = new Player(client, uri);
+        player.await("SESSION");
+        long sent = System.nanoTime();
+        GameMessage resume = new GameMessage("RESUME");
+        resume.resumeToken = token;
+        resume.boardVersion = knownVersion;
+        player.send(gson.toJson(resume));
+        GameMessage resumed = player.await("RESUMED");
+        long now = System.nanoTime();
+        record(samples, counts, 0, now - sent);
+        record(samples, counts, 1, now - connect);
+        if (resumed.board != null) {
+            stats.snapshots.incrementAndGet();
+            int[][] snapshot = resumed.board.toArray();
+            for (int row = 0; row < SIZE; row++) {
+                seen[row] = snapshot[row];
+            }
+        } else {
+            stats.deltas.incrementAndGet();
+            stats.missed.addAndGet(version - knownVersion);
+            applyMoves(resumed.moves, seen, knownVersion);
+        }
+        if (resumed.boardVersion != version || !Arrays.deepEquals(seen, board)) {
+            throw new IllegalStateException("RESUMED en la versión " + resumed.boardVersion
+                + " con la partida en la " + version + " o con otro tablero");
+        }
+        return player;
+    }
+
+    // Los movimientos de RESUMED (boardVersion, row, col, value, playerId) deben seguir uno
+    // a uno a la versión que tenía el cliente
+    private static void applyMoves(int[] moves, int[][] board, int knownVersion) {
+        if (moves == null) moves = new int[0];
+        for (int i = 0; i < moves.length; i += 5) {
+            if (moves[i] != knownVersion + i / 5 + 1) {
+                throw new IllegalStateException("Hueco en RESUMED: versión " + moves[i] + " tras " + knownVersion);
+            }
+            board[moves[i + 1]][moves[i + 2]] = moves[i + 3];
+        }
+    }
+
+    private static void check(GameMessage update, int version) {
+        if (update.boardVersion != version) {
+            throw new IllegalStateException("Versión esperada " + version + ", recibida " + update.boardVersion);
+        }
+    }
+
+    private static void record(long[][] samples, int[] counts, int kind, long nanos) {
+        if (counts[kind] < samples[kind].length) samples[kind][counts[kind]++] = nanos;
+    }
+
+    private static final class Stats {
+        final AtomicInteger moves = new AtomicInteger();
+        final AtomicInteger games = new AtomicInteger();
+        final AtomicInteger deltas = new AtomicInteger();
+        final AtomicInteger snapshots = new AtomicInteger();
+        final AtomicInteger missed = new AtomicInteger();
+        final AtomicInteger failures = new AtomicInteger();
+    }
+}
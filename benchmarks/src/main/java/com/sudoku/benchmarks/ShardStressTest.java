@@ -0,0 +1,266 @@
+package com.sudoku.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.sudoku.model.Board;
+import com.sudoku.model.ConstraintPropagationSolver;
+import com.sudoku.model.Difficulty;
+import com.sudoku.model.GameMode;
+import com.sudoku.model.GameRules;
+import com.sudoku.model.GameState;
+import com.sudoku.model.MoveResult;
+import com.sudoku.model.PuzzlePool;
+import com.sudoku.service.GameEngine;
+import com.sudoku.service.GameShards;
+
+/**
+ * Prueba de estrés del GameEngine con 'shards' hilos de partida. 'threads' hilos envían
+ * movimientos sin parar a 'games' partidas 9x9 (la mitad en RACE con 4 jugadores, la
+ * otra mitad por turnos con 2), con hasta 64 movimientos en vuelo por hilo: valores de la
+ * solución desde jugadores al azar y, uno de cada diez, un valor repetido en la fila que
+ * debe rechazarse. Un listener comprueba en cada evento que:
+ *  - todos los eventos de una partida llegan desde el mismo hilo,
+ *  - las versiones del tablero van de una en una, sin huecos ni repeticiones,
+ *  - cada celda se rellena una sola vez y con el valor de la solución,
+ *  - por turnos, los movimientos siguen el orden de los asientos,
+ *  - al completarse, las celdas ganadas suman las rellenadas.
+ * Al completarse una partida el listener vuelve a poner el puzzle (en el hilo de la
+ * partida). Al final compara los movimientos aceptados con los eventos recibidos y
+ * muestra la profundidad de las colas de los shards.
+ *
+ *   java -cp benchmarks/target/benchmarks.jar com.sudoku.benchmarks.ShardStressTest [shards] [threads] [games] [seconds]
+ */
+public class ShardStressTest {
+    private static final int SIZE = 9;
+    private static final int IN_FLIGHT = 64;
+
+    public static void main(String[] args) throws Exception {
+        int shards = args.length > 0 ? Integer.parseInt(args[0]) : GameShards.SHARDS;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+        PuzzlePool.getInstance().start();
+        GameEngine engine = new GameEngine(shards);
+        Checker checker = new Checker();
+        engine.addListener(checker);
+
+        List<Table> tables = new ArrayList<>();
+        int nextPlayer = 1;
+        for (int i = 0; i < games; i++) {
+            boolean race = i % 2 == 0;
+            GameRules rules = GameRules.of(race ? GameMode.RACE : GameMode.TURNS, race ? 4 : 2, 0);
+            int[] seats = new int[rules.getMaxPlayers()];
+            for (int seat = 0; seat < seats.length; seat++) {
+                seats[seat] = nextPlayer++;
+            }
+            String gameId = engine.createGame(seats[0], SIZE, Difficulty.MEDIUM, rules);
+            for (int seat = 1; seat < seats.length; seat++) {
+                if (engine.join(seats[seat], SIZE, Difficulty.MEDIUM, rules).join() == null) {
+                    throw new IllegalStateException("No se pudo sentar al jugador " + seats[seat]);
+                }
+            }
+            GameState game = engine.getGame(gameId);
+            Table table = new Table(gameId, game, seats);
+            tables.add(table);
+            checker.tables.put(gameId, table);
+        }
+
+        AtomicLongArray results = new AtomicLongArray(MoveResult.values().length);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        long start = System.nanoTime();
+        List<Thread> workers = new ArrayList<>();
+        List<Semaphore> inFlight = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Semaphore permits = new Semaphore(IN_FLIGHT);
+            inFlight.add(permits);
+            Thread thread = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    Table table = tables.get(random.nextInt(tables.size()));
+                    int[] move = table.pickMove(random);
+                    if (move == null) continue;
+                    int player = table.seats[random.nextInt(table.seats.length)];
+                    permits.acquireUninterruptibly();
+                    engine.makeMove(player, move[0], move[1], move[2]).whenComplete((result, error) -> {
+                        if (error != null) {
+                            checker.fail("Movimiento con excepción: " + error);
+                        } else {
+                            results.incrementAndGet(result.ordinal());
+                        }
+                        permits.release();
+                    });
+                }
+            }, "stress-" + i);
+            workers.add(thread);
+            thread.start();
+        }
+        for (Thread thread : workers) {
+            thread.join();
+        }
+        // Espera a que terminen los movimientos en vuelo
+        for (Semaphore permits : inFlight) {
+            permits.acquireUninterruptibly(IN_FLIGHT);
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        long accepted = results.get(MoveResult.ACCEPTED.ordinal());
+        if (accepted != checker.moves.get()) {
+            checker.fail("Aceptados " + accepted + " != eventos " + checker.moves.get());
+        }
+        long total = 0;
+        for (int i = 0; i < results.length(); i++) {
+            total += results.get(i);
+        }
+        GameShards metrics = engine.getShards();
+        System.out.printf("shards=%d threads=%d games=%d seconds=%d commands=%d (%.0f/s) accepted=%d (%.0f/s) completedGames=%d%n",
+            metrics.getShards(), threads, games, seconds, total, total / elapsed, accepted, accepted / elapsed,
+            checker.completed.get());
+        StringBuilder breakdown = new StringBuilder("results:");
+        for (MoveResult result : MoveResult.values()) {
+            breakdown.append(' ').append(result).append('=').append(results.get(result.ordinal()));
+        }
+        System.out.println(breakdown);
+        System.out.printf("maxQueueDepth=%d executed=%d queueDepthsNow=%s%n",
+            metrics.getMaxQueueDepth(), metrics.getExecuted(), Arrays.toString(metrics.getQueueDepths()));
+        System.out.println(checker.violations.get() == 0 ? "invariants OK" : "VIOLATIONS=" + checker.violations.get());
+        System.exit(checker.violations.get() == 0 ? 0 : 1);
+    }
+
+    // Una partida con su puzzle, su solución y lo que el listener ha visto de ella
+    private static final class Table {
+        final String gameId;
+        final GameState game;
+        final int[] seats;
+        final Board puzzle;
+        final int[][] solution;
+        // Solo los toca el hilo de la partida
+        Thread owner;
+        int version;
+        boolean[] filled = new boolean[SIZE * SIZE];
+        int turn;
+
+        Table(String gameId, GameState game, int[] seats) {
+            this.gameId = gameId;
+            this.game = game;
+            this.seats = seats;
+            this.puzzle = game.getBoard();
+            this.solution = puzzle.toArray();
+            new ConstraintPropagationSolver().solve(solution);
+            this.version = game.getBoardVersion();
+            markGivens();
+        }
+
+        void markGivens() {
+            Arrays.fill(filled, false);
+            for (int cell = 0; cell < SIZE * SIZE; cell++) {
+                if (puzzle.get(cell / SIZE, cell % SIZE) != 0) filled[cell] = true;
+            }
+        }
+
+        // Una celda vacía de la foto actual con el valor de la solución o, una de cada
+        // diez veces, con una pista de la fila
+        int[] pickMove(ThreadLocalRandom random) {
+            Board board = game.getSnapshot().getBoard();
+            int start = random.nextInt(SIZE * SIZE);
+            for (int i = 0; i < SIZE * SIZE; i++) {
+                int cell = (start + i) % (SIZE * SIZE);
+                int row = cell / SIZE;
+                int col = cell % SIZE;
+                if (board.get(row, col) != 0) continue;
+                int value = solution[row][col];
+                if (random.nextInt(10) == 0) {
+                    for (int other = 0; other < SIZE; other++) {
+                        // Solo las pistas: la foto puede ser de antes de reponer el puzzle
+                        if (puzzle.get(row, other) != 0) {
+                            value = puzzle.get(row, other);
+                            break;
+                        }
+                    }
+                }
+                return new int[] {row, col, value};
+            }
+            return null;
+        }
+    }
+
+    private static final class Checker implements GameEngine.Listener {
+        final Map<String, Table> tables = new ConcurrentHashMap<>();
+        final AtomicLong moves = new AtomicLong();
+        final AtomicLong completed = new AtomicLong();
+        final AtomicLong violations = new AtomicLong();
+
+        @Override
+        public void gameStarted(String gameId, GameState game) {
+        }
+
+        @Override
+        public void moveMade(String gameId, GameState game, int playerId, int row, int col, int value, int boardVersion) {
+            Table table = tables.get(gameId);
+            // Las partidas se registran después de llenarse
+            if (table == null) return;
+            moves.incrementAndGet();
+            if (table.owner == null) table.owner = Thread.currentThread();
+            if (table.owner != Thread.currentThread()) {
+                fail(gameId + ": evento desde " + Thread.currentThread().getName() + " y " + table.owner.getName());
+            }
+            if (boardVersion != table.version + 1) {
+                fail(gameId + ": versión " + boardVersion + " tras " + table.version);
+            }
+            table.version = boardVersion;
+            int cell = row * SIZE + col;
+            if (table.filled[cell]) fail(gameId + ": celda " + row + "," + col + " rellenada dos veces");
+            table.filled[cell] = true;
+            if (value != table.solution[row][col]) fail(gameId + ": valor aceptado fuera de la solución " + row + "," + col + "=" + value);
+            if (game.getRules().getMode() == GameMode.TURNS) {
+                int expected = table.seats[table.turn];
+                if (playerId != expected) fail(gameId + ": movió " + playerId + " y tocaba " + expected);
+                table.turn = (table.turn + 1) % table.seats.length;
+            }
+        }
+
+        @Override
+        public void gameOver(String gameId, GameState game, int winnerId) {
+            Table table = tables.get(gameId);
+            if (table == null) return;
+            int won = 0;
+            for (int cells : game.getCellsWon().values()) {
+                won += cells;
+            }
+            int empty = 0;
+            for (int cell = 0; cell < SIZE * SIZE; cell++) {
+                if (table.puzzle.get(cell / SIZE, cell % SIZE) == 0) empty++;
+            }
+            if (won != empty) fail(gameId + ": celdas ganadas " + won + " != rellenadas " + empty);
+            if (!Arrays.deepEquals(game.getBoard().toArray(), table.solution)) {
+                fail(gameId + ": el tablero final no es la solución");
+            }
+            completed.incrementAndGet();
+            // Estamos en el hilo de la partida: se puede volver a poner el puzzle
+            game.setBoard(table.puzzle);
+            table.version = game.getBoardVersion();
+            table.markGivens();
+        }
+
+        @Override
+        public void playerLeft(String gameId, GameState game, int playerId) {
+        }
+
+        @Override
+        public void gameClosed(String gameId) {
+        }
+
+        void fail(String violation) {
+            if (violations.incrementAndGet() <= 10) System.err.println("Invariante rota: " + violation);
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.sudoku.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.websocket.ClientEndpointConfig;
+import javax.websocket.Endpoint;
+import javax.websocket.EndpointConfig;
+import javax.websocket.MessageHandler;
+import javax.websocket.Session;
+
+import org.glassfish.tyrus.client.ClientManager;
+import org.glassfish.tyrus.server.Server;
+
+import com.google.gson.Gson;
+import com.sudoku.model.ConstraintPropagationSolver;
+import com.sudoku.model.PuzzlePool;
+import com.sudoku.server.GameWebSocketServer;
+import com.sudoku.server.GameWebSocketServer.GameMessage;
+
+/**
+ * Prueba de carga del WebSocket con clientes lentos. Arranca el endpoint /game en
+ * este proceso y mide la latencia MAKE_MOVE -> GAME_UPDATE de 'pairs' partidas
+ * 9x9 mientras 'slow' sockets crean una partida 16x16 y piden RESYNC sin leer nunca
+ * las respuestas.
+ *
+ *   java -cp benchmarks/target/benchmarks.jar com.sudoku.benchmarks.SlowConsumerLoadTest [pairs] [slow] [seconds]
+ *
+ * Con envíos no bloqueantes los percentiles deberían ser los mismos con slow=0 que
+ * con slow>0; el servidor registra en stderr cada sesión lenta que cierra.
+ */
+public class SlowConsumerLoadTest {
+    private static final int PORT = Integer.getInteger("port", 8025);
+    private static final int SIZE = 9;
+    private static final Gson gson = new Gson();
+
+    public static void main(String[] args) throws Exception {
+        int pairs = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int slow = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        PuzzlePool.getInstance().start();
+        Server server = new Server("localhost", PORT, "/", null, GameWebSocketServer.class);
+        server.start();
+        try {
+            run(pairs, slow, seconds);
+        } finally {
+            server.stop();
+        }
+        System.exit(0);
+    }
+
+    private static void run(int pairs, int slow, int seconds) throws Exception {
+        ClientManager client = ClientManager.createClient();
+        URI uri = new URI("ws://localhost:" + PORT + "/game");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        List<SlowClient> slowClients = new ArrayList<>();
+        for (int i = 0; i < slow; i++) {
+            SlowClient slowClient = new SlowClient(deadline);
+            slowClients.add(slowClient);
+            slowClient.start();
+        }
+
+        List<long[]> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger moves = new AtomicInteger();
+        AtomicInteger aborted = new AtomicInteger();
+        List<Thread> players = new ArrayList<>();
+        for (int i = 0; i < pairs; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    latencies.add(playPair(client, uri, SIZE, 0, deadline, moves, aborted, null));
+                } catch (Exception e) {
+                    System.err.println("Pareja abortada: " + e);
+                }
+            }, "pair-" + i);
+            players.add(thread);
+            thread.start();
+        }
+        for (Thread thread : players) {
+            thread.join();
+        }
+        for (SlowClient slowClient : slowClients) {
+            slowClient.join();
+        }
+
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("pairs=%d slow=%d seconds=%d moves=%d (%.0f/s) abortedGames=%d%n",
+            pairs, slow, seconds, moves.get(), moves.get() / (double) seconds, aborted.get());
+        if (all.length > 0) {
+            System.out.printf("move->GAME_UPDATE ms: p50=%.3f p90=%.3f p99=%.3f p99.9=%.3f max=%.3f%n",
+                percentile(all, 0.50), percentile(all, 0.90), percentile(all, 0.99),
+                percentile(all, 0.999), all[all.length - 1] / 1e6);
+        }
+    }
+
+    // Avisos opcionales de una pareja: cada partida nueva y, por movimiento, la versión
+    // del tablero resultante y cuándo se envió
+    interface PairListener {
+        void onGame(String gameId);
+
+        void onMove(int boardVersion, long sentNanos);
+    }
+
+    // Juega partidas seguidas con las mismas dos sesiones hasta el plazo, esperando
+    // thinkMs antes de cada movimiento. Se reutilizan porque al cerrar una sesión el
+    // servidor vuelve a ofrecer la partida a medio cerrar y la pareja de otro hilo
+    // podría unirse a ella
+    static long[] playPair(ClientManager client, URI uri, int size, long thinkMs, long deadline,
+                           AtomicInteger moves, AtomicInteger aborted, PairListener listener) throws Exception {
+        long[] samples = new long[1 << 20];
+        int count = 0;
+        Player first = new Player(client, uri);
+        Player second = new Player(client, uri);
+        while (System.nanoTime() < deadline) {
+            String gameId;
+            try {
+                // Crear y unirse sin que otra pareja se cuele en la partida
+                synchronized (SlowConsumerLoadTest.class) {
+                    first.send("{\"type\":\"CREATE_GAME\",\"size\":" + size + "}");
+                    gameId = first.await("GAME_CREATED").gameId;
+                    second.send("{\"type\":\"JOIN_GAME\",\"size\":" + size + "}");
+                    second.await("GAME_START");
+                }
+                GameMessage start = first.await("GAME_START");
+                if (listener != null) listener.onGame(gameId);
+                int[][] board = start.board.toArray();
+                int[][] solution = start.board.toArray();
+                new ConstraintPropagationSolver().solve(solution);
+
+                Player[] seats = {first, second};
+                int turn = 0;
+                for (int cell = 0; cell < size * size && System.nanoTime() < deadline; cell++) {
+                    int row = cell / size;
+                    int col = cell % size;
+                    if (board[row][col] != 0) continue;
+                    if (thinkMs > 0) Thread.sleep(thinkMs);
+                    Player mover = seats[turn];
+                    GameMessage move = new GameMessage("MAKE_MOVE");
+                    move.playerId = turn + 1;
+                    move.row = row;
+                    move.col = col;
+                    move.value = solution[row][col];
+                    long sent = System.nanoTime();
+                    mover.send(gson.toJson(move));
+                    GameMessage applied = mover.await("GAME_UPDATE");
+                    seats[1 - turn].await("GAME_UPDATE");
+                    if (count < samples.length) samples[count++] = System.nanoTime() - sent;
+                    if (listener != null) listener.onMove(applied.boardVersion, sent);
+                    moves.incrementAndGet();
+                    turn ^= 1;
+                }
+            } catch (IllegalStateException e) {
+                // Partida perdida (p. ej. sin respuesta en 10 s): se cuenta y se empieza otra
+                aborted.incrementAndGet();
+                System.err.println("Partida abortada: " + e.getMessage());
+                first.inbox.clear();
+                second.inbox.clear();
+            }
+        }
+        first.close();
+        second.close();
+        return Arrays.copyOf(samples, count);
+    }
+
+    static double percentile(long[] sorted, double p) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    // Sesión Tyrus que entrega los mensajes JSON recibidos a una cola
+    static final class Player {
+        final BlockingQueue<GameMessage> inbox = new LinkedBlockingQueue<>();
+        final Session session;
+
+        Player(ClientManager client, URI uri) throws Exception {
+            session = client.connectToServer(new Endpoint() {
+                @Override
+                public void onOpen(Session session, EndpointConfig config) {
+                    session.addMessageHandler(new MessageHandler.Whole<String>() {
+                        @Override
+                        public void onMessage(String text) {
+                            inbox.add(gson.fromJson(text, GameMessage.class));
+                        }
+                    });
+                }
+            }, ClientEndpointConfig.Builder.create().build(), uri);
+        }
+
+        void send(String text) throws IOException {
+            session.getBasicRemote().sendText(text);
+        }
+
+        // Espera el siguiente mensaje del tipo dado, descartando los demás
+        GameMessage await(String type) throws Exception {
+            while (true) {
+                GameMessage message = inbox.poll(10, TimeUnit.SECONDS);
+                if (message == null) throw new IllegalStateException("Sin respuesta esperando " + type);
+                if ("ERROR".equals(message.type)) throw new IllegalStateException(message.error);
+                if (type.equals(message.type)) return message;
+            }
+        }
+
+        void close() {
+            try {
+                session.close();
+            } catch (IOException ignored) {
+                // la sesión ya estaba cerrada
+            }
+        }
+    }
+
+    // Socket sin cliente WebSocket: hace el handshake, crea una partida 16x16 y pide el
+    // tablero completo cada 2 ms (~750 bytes por respuesta), pero nunca lee, así que el
+    // servidor acaba con el buffer de envío lleno
+    static final class SlowClient extends Thread {
+        private static final byte[] CREATE = "{\"type\":\"CREATE_GAME\",\"size\":16}".getBytes(StandardCharsets.UTF_8);
+        private static final byte[] REQUEST = "{\"type\":\"RESYNC\"}".getBytes(StandardCharsets.UTF_8);
+        private final long deadline;
+
+        SlowClient(long deadline) {
+            super("slow-client");
+            setDaemon(true);
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void run() {
+            try (Socket socket = new Socket()) {
+                socket.setReceiveBufferSize(1024);
+                socket.connect(new InetSocketAddress("localhost", PORT));
+                OutputStream out = socket.getOutputStream();
+                out.write(("GET /game HTTP/1.1\r\nHost: localhost:" + PORT + "\r\nUpgrade: websocket\r\n"
+                    + "Connection: Upgrade\r\nSec-WebSocket-Key: dGhlIHNhbXBsZSBub25jZQ==\r\n"
+                    + "Sec-WebSocket-Version: 13\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+                readHandshake(socket.getInputStream());
+                out.write(maskedTextFrame(CREATE));
+                byte[] frame = maskedTextFrame(REQUEST);
+                while (System.nanoTime() < deadline) {
+                    out.write(frame);
+                    Thread.sleep(2);
+                }
+            } catch (IOException e) {
+                // el servidor cortó la conexión
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        static void readHandshake(InputStream in) throws IOException {
+            int matched = 0;
+            byte[] end = {'\r', '\n', '\r', '\n'};
+            while (matched < end.length) {
+                int b = in.read();
+                if (b < 0) throw new IOException("Handshake cortado");
+                matched = b == end[matched] ? matched + 1 : (b == '\r' ? 1 : 0);
+            }
+        }
+
+        // Los clientes deben enmascarar sus tramas (RFC 6455); con máscara cero el contenido no cambia
+        static byte[] maskedTextFrame(byte[] payload) {
+            byte[] frame = new byte[6 + payload.length];
+            frame[0] = (byte) 0x81;
+            frame[1] = (byte) (0x80 | payload.length);
+            System.arraycopy(payload, 0, frame, 6, payload.length);
+            return frame;
+        }
+    }
+}
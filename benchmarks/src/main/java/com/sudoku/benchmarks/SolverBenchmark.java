@@ -0,0 +1,62 @@
+package com.sudoku.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sudoku.model.BacktrackingSudokuSolver;
+import com.sudoku.model.ConstraintPropagationSolver;
+import com.sudoku.model.SudokuGenerator;
+import com.sudoku.model.SudokuSolver;
+
+/**
+ * Compara el backtracking original con el resolutor por propagación
+ * sobre los mismos puzzles de 9x9.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SolverBenchmark {
+    private static final int PUZZLES = 64;
+
+    @Param({"propagation", "backtracking"})
+    String solverName;
+
+    private SudokuSolver solver;
+    private int[][][] puzzles;
+    private int index;
+
+    @Setup
+    public void setup() {
+        solver = "backtracking".equals(solverName)
+            ? new BacktrackingSudokuSolver()
+            : new ConstraintPropagationSolver();
+        puzzles = new int[PUZZLES][][];
+        for (int i = 0; i < PUZZLES; i++) {
+            puzzles[i] = SudokuGenerator.generate(9);
+        }
+    }
+
+    @Benchmark
+    public boolean solve9x9() {
+        int[][] puzzle = puzzles[index++ % PUZZLES];
+        int[][] board = new int[9][];
+        for (int row = 0; row < 9; row++) {
+            board[row] = puzzle[row].clone();
+        }
+        return solver.solve(board);
+    }
+}
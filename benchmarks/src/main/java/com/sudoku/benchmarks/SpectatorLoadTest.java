@@ -0,0 +1,406 @@
+package com.sudoku.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.websocket.ClientEndpointConfig;
+import javax.websocket.Endpoint;
+import javax.websocket.EndpointConfig;
+import javax.websocket.MessageHandler;
+import javax.websocket.Session;
+
+import org.glassfish.tyrus.client.ClientManager;
+import org.glassfish.tyrus.server.Server;
+
+import com.google.gson.Gson;
+import com.sudoku.model.PuzzlePool;
+import com.sudoku.server.GameWebSocketServer;
+import com.sudoku.server.GameWebSocketServer.GameMessage;
+
+/**
+ * Prueba de carga de espectadores. Arranca el endpoint /game en este proceso; una pareja
+ * juega partidas 16x16 pensando 'thinkMs' antes de cada movimiento y 'spectators'
+ * sockets la miran desde otro proceso (Swarm, para no pasar del límite de descriptores),
+ * volviendo a pedir SPECTATE cada vez que la pareja empieza otra partida. Mientras tanto
+ * 'pairs' parejas 9x9 sin espectadores juegan a toda velocidad.
+ *
+ *   java -cp benchmarks/target/benchmarks.jar com.sudoku.benchmarks.SpectatorLoadTest [spectators] [pairs] [seconds] [thinkMs]
+ *
+ * Compara la latencia de los jugadores con y sin espectadores. Un espectador de control
+ * en este proceso comprueba que las versiones llegan sin huecos y mide el retraso desde
+ * que se envió cada movimiento hasta que lo recibe.
+ */
+public class SpectatorLoadTest {
+    private static final int PORT = Integer.getInteger("port", 8025);
+    private static final int WATCHED_SIZE = 16;
+    private static final Gson gson = new Gson();
+
+    public static void main(String[] args) throws Exception {
+        int spectators = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int pairs = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        long thinkMs = args.length > 3 ? Long.parseLong(args[3]) : 50;
+
+        PuzzlePool.getInstance().start();
+        Server server = new Server("localhost", PORT, "/", null, GameWebSocketServer.class);
+        server.start();
+        try {
+            run(spectators, pairs, seconds, thinkMs);
+        } finally {
+            server.stop();
+        }
+        System.exit(0);
+    }
+
+    private static void run(int spectators, int pairs, int seconds, long thinkMs) throws Exception {
+        ClientManager client = ClientManager.createClient();
+        URI uri = new URI("ws://localhost:" + PORT + "/game");
+
+        Process swarm = null;
+        PrintStream swarmCommands = null;
+        if (spectators > 0) {
+            swarm = new ProcessBuilder(new File(System.getProperty("java.home"), "bin/java").getPath(),
+                "-cp", System.getProperty("java.class.path"), Swarm.class.getName(),
+                String.valueOf(PORT), String.valueOf(spectators))
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+            swarmCommands = new PrintStream(swarm.getOutputStream(), true, "UTF-8");
+            BufferedReader swarmOutput = new BufferedReader(
+                new InputStreamReader(swarm.getInputStream(), StandardCharsets.UTF_8));
+            // El enjambre avisa cuando todos sus sockets han hecho el handshake
+            String line;
+            while ((line = swarmOutput.readLine()) != null && !line.startsWith("ready")) {
+                System.out.println(line);
+            }
+            System.out.println("swarm " + line);
+            new Thread(() -> swarmOutput.lines().forEach(System.out::println), "swarm-output").start();
+        }
+
+        Checker checker = new Checker(client, uri);
+        Map<String, Long> sentAt = new ConcurrentHashMap<>();
+        PrintStream commands = swarmCommands;
+        SlowConsumerLoadTest.PairListener watchedListener = new SlowConsumerLoadTest.PairListener() {
+            private volatile String gameId;
+
+            @Override
+            public void onGame(String gameId) {
+                this.gameId = gameId;
+                checker.watch(gameId);
+                if (commands != null) commands.println("SPECTATE " + gameId);
+            }
+
+            @Override
+            public void onMove(int boardVersion, long sentNanos) {
+                sentAt.put(gameId + ":" + boardVersion, sentNanos);
+            }
+        };
+        checker.sentAt = sentAt;
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<long[]> latencies = Collections.synchronizedList(new ArrayList<>());
+        List<long[]> watchedLatencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger moves = new AtomicInteger();
+        AtomicInteger watchedMoves = new AtomicInteger();
+        AtomicInteger aborted = new AtomicInteger();
+        List<Thread> players = new ArrayList<>();
+        players.add(new Thread(() -> {
+            try {
+                watchedLatencies.add(SlowConsumerLoadTest.playPair(client, uri, WATCHED_SIZE, thinkMs, deadline,
+                    watchedMoves, aborted, watchedListener));
+            } catch (Exception e) {
+                System.err.println("Pareja observada abortada: " + e);
+            }
+        }, "watched-pair"));
+        for (int i = 0; i < pairs; i++) {
+            players.add(new Thread(() -> {
+                try {
+                    latencies.add(SlowConsumerLoadTest.playPair(client, uri, 9, 0, deadline, moves, aborted, null));
+                } catch (Exception e) {
+                    System.err.println("Pareja abortada: " + e);
+                }
+            }, "pair-" + i));
+        }
+        players.forEach(Thread::start);
+        for (Thread thread : players) {
+            thread.join();
+        }
+        // Deja llegar el último lote
+        Thread.sleep(500);
+        if (commands != null) {
+            commands.println("STOP");
+            swarm.waitFor(30, TimeUnit.SECONDS);
+        }
+
+        System.out.printf("spectators=%d pairs=%d seconds=%d thinkMs=%d moves=%d (%.0f/s) watchedMoves=%d abortedGames=%d%n",
+            spectators, pairs, seconds, thinkMs, moves.get(), moves.get() / (double) seconds,
+            watchedMoves.get(), aborted.get());
+        printPercentiles("players move->GAME_UPDATE ms", latencies);
+        printPercentiles("watched move->GAME_UPDATE ms", watchedLatencies);
+        printPercentiles("spectator lag ms", Collections.singletonList(checker.lags()));
+        System.out.printf("checker: boards=%d moves=%d gaps=%d%n", checker.boards, checker.applied, checker.gaps);
+    }
+
+    private static void printPercentiles(String label, List<long[]> samples) {
+        long[] all = samples.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        if (all.length == 0) return;
+        System.out.printf("%s: p50=%.3f p90=%.3f p99=%.3f p99.9=%.3f max=%.3f%n", label,
+            SlowConsumerLoadTest.percentile(all, 0.50), SlowConsumerLoadTest.percentile(all, 0.90),
+            SlowConsumerLoadTest.percentile(all, 0.99), SlowConsumerLoadTest.percentile(all, 0.999),
+            all[all.length - 1] / 1e6);
+    }
+
+    // Espectador que reconstruye la secuencia de versiones de la partida observada
+    static final class Checker {
+        private final Session session;
+        private volatile String gameId;
+        volatile Map<String, Long> sentAt;
+        private int version = -1;
+        private final long[] lagSamples = new long[1 << 20];
+        private int lagCount;
+        int boards;
+        int applied;
+        int gaps;
+
+        Checker(ClientManager client, URI uri) throws Exception {
+            session = client.connectToServer(new Endpoint() {
+                @Override
+                public void onOpen(Session session, EndpointConfig config) {
+                    session.addMessageHandler(new MessageHandler.Whole<String>() {
+                        @Override
+                        public void onMessage(String text) {
+                            receive(gson.fromJson(text, GameMessage.class));
+                        }
+                    });
+                }
+            }, ClientEndpointConfig.Builder.create().build(), uri);
+        }
+
+        void watch(String gameId) {
+            synchronized (this) {
+                this.gameId = gameId;
+                version = -1;
+            }
+            try {
+                session.getBasicRemote().sendText("{\"type\":\"SPECTATE\",\"gameId\":\"" + gameId + "\"}");
+            } catch (IOException e) {
+                System.err.println("Espectador de control: " + e.getMessage());
+            }
+        }
+
+        private synchronized void receive(GameMessage message) {
+            long now = System.nanoTime();
+            if ("GAME_UPDATE".equals(message.type) && message.board != null) {
+                boards++;
+                version = message.boardVersion;
+            } else if ("MOVES".equals(message.type) && version >= 0) {
+                for (int i = 0; i < message.moves.length; i += 5) {
+                    int moveVersion = message.moves[i];
+                    if (moveVersion <= version) continue;
+                    if (moveVersion != version + 1) gaps++;
+                    version = moveVersion;
+                    applied++;
+                    Long sent = sentAt.get(gameId + ":" + moveVersion);
+                    if (sent != null && lagCount < lagSamples.length) lagSamples[lagCount++] = now - sent;
+                }
+            }
+        }
+
+        synchronized long[] lags() {
+            return Arrays.copyOf(lagSamples, lagCount);
+        }
+    }
+
+    /**
+     * Enjambre de espectadores en su propio proceso: un solo hilo con NIO abre 'count'
+     * conexiones WebSocket, cuenta las tramas que recibe y, por cada línea
+     * "SPECTATE gameId" de la entrada estándar, pide mirar esa partida en todas.
+     * Con "STOP" imprime el resumen y termina.
+     */
+    public static final class Swarm {
+        private static final int MAX_CONNECTING = 500;
+        private static final byte[] HANDSHAKE_END = {'\r', '\n', '\r', '\n'};
+
+        private static final class Connection {
+            final SocketChannel channel;
+            int handshakeMatched;
+            boolean open;
+            // Cabecera de la trama en curso y bytes de carga que faltan por saltar
+            final byte[] header = new byte[10];
+            int headerLength;
+            long payloadLeft;
+
+            Connection(SocketChannel channel) {
+                this.channel = channel;
+            }
+        }
+
+        private static volatile String requestedGame;
+        private static volatile boolean stop;
+
+        public static void main(String[] args) throws Exception {
+            int port = Integer.parseInt(args[0]);
+            int count = Integer.parseInt(args[1]);
+            Selector selector = Selector.open();
+            Thread commands = new Thread(() -> readCommands(selector), "swarm-commands");
+            commands.setDaemon(true);
+            commands.start();
+
+            byte[] request = ("GET /game HTTP/1.1\r\nHost: localhost:" + port + "\r\nUpgrade: websocket\r\n"
+                + "Connection: Upgrade\r\nSec-WebSocket-Key: dGhlIHNhbXBsZSBub25jZQ==\r\n"
+                + "Sec-WebSocket-Version: 13\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+            List<Connection> connections = new ArrayList<>(count);
+            ByteBuffer in = ByteBuffer.allocateDirect(1 << 16);
+            long frames = 0;
+            long bytes = 0;
+            int started = 0;
+            int upgraded = 0;
+            int failed = 0;
+            int closed = 0;
+            boolean announced = false;
+            String spectating = null;
+            long start = System.nanoTime();
+            while (!stop) {
+                while (started < count && started - upgraded - failed < MAX_CONNECTING) {
+                    SocketChannel channel = SocketChannel.open();
+                    channel.configureBlocking(false);
+                    channel.connect(new InetSocketAddress("localhost", port));
+                    channel.register(selector, SelectionKey.OP_CONNECT, new Connection(channel));
+                    started++;
+                }
+                if (!announced && upgraded + failed == count) {
+                    announced = true;
+                    System.out.printf("ready connected=%d failed=%d in %.1f s%n", upgraded, failed,
+                        (System.nanoTime() - start) / 1e9);
+                }
+                String game = requestedGame;
+                if (game != null && !game.equals(spectating)) {
+                    spectating = game;
+                    byte[] frame = SlowConsumerLoadTest.SlowClient.maskedTextFrame(
+                        ("{\"type\":\"SPECTATE\",\"gameId\":\"" + game + "\"}").getBytes(StandardCharsets.UTF_8));
+                    for (Connection connection : connections) {
+                        if (connection.open) send(connection, frame);
+                    }
+                }
+                selector.select(100);
+                for (SelectionKey key : selector.selectedKeys()) {
+                    Connection connection = (Connection) key.attachment();
+                    try {
+                        if (key.isConnectable()) {
+                            connection.channel.finishConnect();
+                            send(connection, request);
+                            key.interestOps(SelectionKey.OP_READ);
+                            continue;
+                        }
+                        in.clear();
+                        int read = connection.channel.read(in);
+                        if (read < 0) throw new IOException("cerrada");
+                        in.flip();
+                        bytes += read;
+                        if (!connection.open) {
+                            while (in.hasRemaining() && !connection.open) {
+                                byte b = in.get();
+                                connection.handshakeMatched = b == HANDSHAKE_END[connection.handshakeMatched]
+                                    ? connection.handshakeMatched + 1 : (b == '\r' ? 1 : 0);
+                                connection.open = connection.handshakeMatched == HANDSHAKE_END.length;
+                            }
+                            if (connection.open) {
+                                upgraded++;
+                                connections.add(connection);
+                                if (spectating != null) {
+                                    send(connection, SlowConsumerLoadTest.SlowClient.maskedTextFrame(
+                                        ("{\"type\":\"SPECTATE\",\"gameId\":\"" + spectating + "\"}")
+                                            .getBytes(StandardCharsets.UTF_8)));
+                                }
+                            }
+                        }
+                        frames += countFrames(connection, in);
+                    } catch (IOException e) {
+                        key.cancel();
+                        connection.channel.close();
+                        if (connection.open) {
+                            connection.open = false;
+                            closed++;
+                        } else {
+                            failed++;
+                        }
+                    }
+                }
+                selector.selectedKeys().clear();
+            }
+            System.out.printf("swarm spectators=%d connected=%d failed=%d closedByServer=%d frames=%d bytes=%d%n",
+                count, upgraded - closed, failed, closed, frames, bytes);
+            System.exit(0);
+        }
+
+        private static void readCommands(Selector selector) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith("SPECTATE ")) {
+                        requestedGame = line.substring("SPECTATE ".length()).trim();
+                    } else if (line.equals("STOP")) {
+                        break;
+                    }
+                    selector.wakeup();
+                }
+            } catch (IOException e) {
+                // el proceso padre terminó
+            }
+            stop = true;
+            selector.wakeup();
+        }
+
+        // Las tramas son pequeñas y el buffer de envío está casi vacío: basta un write
+        private static void send(Connection connection, byte[] data) throws IOException {
+            connection.channel.write(ByteBuffer.wrap(data));
+        }
+
+        // Recorre las cabeceras de las tramas del servidor (sin máscara) y salta las cargas
+        private static int countFrames(Connection connection, ByteBuffer in) {
+            int complete = 0;
+            while (in.hasRemaining()) {
+                if (connection.payloadLeft > 0) {
+                    int skip = (int) Math.min(connection.payloadLeft, in.remaining());
+                    in.position(in.position() + skip);
+                    connection.payloadLeft -= skip;
+                    if (connection.payloadLeft == 0) complete++;
+                    continue;
+                }
+                connection.header[connection.headerLength++] = in.get();
+                if (connection.headerLength < 2) continue;
+                int length = connection.header[1] & 0x7F;
+                int needed = length == 126 ? 4 : length == 127 ? 10 : 2;
+                if (connection.headerLength < needed) continue;
+                long payload = length;
+                if (length == 126) {
+                    payload = ((connection.header[2] & 0xFF) << 8) | (connection.header[3] & 0xFF);
+                } else if (length == 127) {
+                    payload = 0;
+                    for (int i = 2; i < 10; i++) payload = (payload << 8) | (connection.header[i] & 0xFF);
+                }
+                connection.headerLength = 0;
+                connection.payloadLeft = payload;
+                if (payload == 0) complete++;
+            }
+            return complete;
+        }
+    }
+}
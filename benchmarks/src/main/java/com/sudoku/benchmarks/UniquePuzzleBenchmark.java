@@ -0,0 +1,42 @@
+package com.sudoku.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sudoku.model.Difficulty;
+import com.sudoku.model.Puzzle;
+import com.sudoku.model.SudokuGenerator;
+
+/**
+ * Latencia del modo de solución única por tamaño y dificultad.
+ * El presupuesto se ajusta con -jvmArgs -Dsudoku.generator.budgetMs=N.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UniquePuzzleBenchmark {
+
+    @Param({"4", "9", "16"})
+    int size;
+
+    @Param({"EASY", "MEDIUM", "HARD"})
+    Difficulty difficulty;
+
+    @Benchmark
+    public Puzzle generateUnique() {
+        return SudokuGenerator.generate(size, difficulty);
+    }
+}
@@ -0,0 +1,129 @@
+package com.sudoku.benchmarks;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+import com.sudoku.model.Board;
+import com.sudoku.model.SudokuGenerator;
+import com.sudoku.server.BinaryProtocol;
+import com.sudoku.server.ByteBufferPool;
+import com.sudoku.server.GameWebSocketServer.GameMessage;
+
+/**
+ * Codificación y decodificación de los mensajes calientes del WebSocket: JSON con
+ * Gson (como hace sendToSession por defecto) frente a las tramas de BinaryProtocol
+ * sobre buffers del pool. Los bytes por mensaje los imprime WireSizeReport. Los
+ * decode*Json de GAME_UPDATE y GAME_START son lo que hace el cliente al recibirlos.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WebSocketCodecBenchmark {
+
+    @Param({"4", "9", "16"})
+    int size;
+
+    private final Gson gson = new Gson();
+    private final ByteBufferPool buffers = new ByteBufferPool(4, BinaryProtocol.MAX_FRAME);
+    private GameMessage start;
+    private GameMessage update;
+    private String moveJson;
+    private String updateJson;
+    private String startJson;
+    private ByteBuffer moveFrame;
+
+    @Setup
+    public void setup() {
+        start = new GameMessage("GAME_START");
+        start.playerId = 1;
+        start.board = Board.of(SudokuGenerator.generate(size));
+        start.boardVersion = 1;
+        start.isMyTurn = true;
+
+        update = new GameMessage("GAME_UPDATE");
+        update.row = 1;
+        update.col = 2;
+        update.value = 3;
+        update.playerId = 1;
+        update.boardVersion = 42;
+        update.currentPlayer = 2;
+
+        GameMessage move = new GameMessage("MAKE_MOVE");
+        move.playerId = 1;
+        move.row = 1;
+        move.col = 2;
+        move.value = 3;
+        moveJson = gson.toJson(move);
+        updateJson = gson.toJson(update);
+        startJson = gson.toJson(start);
+        moveFrame = ByteBuffer.allocate(BinaryProtocol.MAX_FRAME);
+        BinaryProtocol.encode(move, moveFrame);
+    }
+
+    // El envío de texto de Tyrus también convierte el String a UTF-8
+    @Benchmark
+    public byte[] encodeUpdateJson() {
+        return gson.toJson(update).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public int encodeUpdateBinary() {
+        return encodePooled(update);
+    }
+
+    @Benchmark
+    public byte[] encodeStartJson() {
+        return gson.toJson(start).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public int encodeStartBinary() {
+        return encodePooled(start);
+    }
+
+    @Benchmark
+    public GameMessage decodeMoveJson() {
+        return gson.fromJson(moveJson, GameMessage.class);
+    }
+
+    @Benchmark
+    public GameMessage decodeUpdateJson() {
+        return gson.fromJson(updateJson, GameMessage.class);
+    }
+
+    @Benchmark
+    public GameMessage decodeStartJson() {
+        return gson.fromJson(startJson, GameMessage.class);
+    }
+
+    @Benchmark
+    public GameMessage decodeMoveBinary() throws IOException {
+        return BinaryProtocol.decode(moveFrame.duplicate());
+    }
+
+    private int encodePooled(GameMessage message) {
+        ByteBuffer frame = buffers.acquire();
+        BinaryProtocol.encode(message, frame);
+        int length = frame.remaining();
+        buffers.release(frame);
+        return length;
+    }
+}
@@ -0,0 +1,72 @@
+package com.sudoku.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import com.google.gson.Gson;
+import com.sudoku.model.Board;
+import com.sudoku.model.SudokuGenerator;
+import com.sudoku.server.BinaryProtocol;
+import com.sudoku.server.GameWebSocketServer.GameMessage;
+import com.sudoku.service.GameUpdate;
+
+/**
+ * Bytes por movimiento y por destinatario: tablero completo frente a movimiento
+ * incremental, en RMI (serialización Java de GameUpdate) y WebSocket (JSON y
+ * tramas binarias de BinaryProtocol).
+ *
+ *   java -cp benchmarks/target/benchmarks.jar com.sudoku.benchmarks.WireSizeReport
+ */
+public class WireSizeReport {
+    private static final Gson gson = new Gson();
+
+    public static void main(String[] args) throws IOException {
+        System.out.printf("%-6s %14s %14s %14s %14s %14s %14s%n",
+            "size", "rmi snapshot", "rmi delta", "ws snapshot", "ws delta", "bin snapshot", "bin delta");
+        for (int size : new int[] {4, 9, 16}) {
+            int[][] board = SudokuGenerator.generate(size);
+
+            GameUpdate snapshot = GameUpdate.createSnapshot("MOVE_MADE", Board.of(board), 42);
+            GameUpdate delta = GameUpdate.createMoveUpdate(42, 1, 2, 3, 7);
+
+            GameMessage wsSnapshot = new GameMessage("GAME_UPDATE");
+            wsSnapshot.board = Board.of(board);
+            wsSnapshot.boardVersion = 42;
+            wsSnapshot.currentPlayer = 1;
+            GameMessage wsDelta = new GameMessage("GAME_UPDATE");
+            wsDelta.row = 1;
+            wsDelta.col = 2;
+            wsDelta.value = 3;
+            wsDelta.playerId = 2;
+            wsDelta.boardVersion = 42;
+            wsDelta.currentPlayer = 1;
+
+            System.out.printf("%-6s %14d %14d %14d %14d %14d %14d%n", size + "x" + size,
+                javaSerializedSize(snapshot), javaSerializedSize(delta),
+                jsonSize(wsSnapshot), jsonSize(wsDelta),
+                binarySize(wsSnapshot), binarySize(wsDelta));
+        }
+    }
+
+    // Un stream por objeto, como hace RMI en cada llamada
+    static int javaSerializedSize(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        return bytes.size();
+    }
+
+    static int binarySize(GameMessage message) {
+        ByteBuffer frame = ByteBuffer.allocate(BinaryProtocol.MAX_FRAME);
+        BinaryProtocol.encode(message, frame);
+        return frame.remaining();
+    }
+
+    static int jsonSize(GameMessage message) {
+        return gson.toJson(message).getBytes(StandardCharsets.UTF_8).length;
+    }
+}